@@ -16,6 +16,8 @@
 
 package org.eclipse.microprofile.openapi;
 
+import java.util.List;
+
 import org.eclipse.microprofile.openapi.models.Constructible;
 import org.eclipse.microprofile.openapi.spi.OASFactoryResolver;
 
@@ -46,7 +48,29 @@ public final class OASFactory {
      * @throws IllegalArgumentException if an instance could not be created, most likely, due to an illegal or inappropriate class
      */
     public static <T extends Constructible> T createObject(Class<T> clazz) {
-        return OASFactoryResolver.instance().createObject(clazz);
+        return OASFactoryResolver.instance().getSupplier(clazz).get();
+    }
+
+    /**
+     * This method creates the given number of new instances of a constructible element from the OpenAPI model tree.
+     * It is intended for code that builds large model trees, such as generated model readers, where it saves a lookup
+     * per created element.
+     *
+     * <br><br>Example:
+     * <pre><code>List&lt;Operation&gt; operations = OASFactory.createObjects(Operation.class, 500);
+     * </code></pre>
+     * @param <T> describes the type parameter
+     * @param clazz represents a model which extends the {@link org.eclipse.microprofile.openapi.models.Constructible} interface
+     * @param count the number of instances to create
+     *
+     * @return a modifiable list containing <code>count</code> distinct new instances of the requested model class
+     * 
+     * @throws NullPointerException if the specified class is null
+     * @throws IllegalArgumentException if the count is negative or if an instance could not be created, most likely,
+     * due to an illegal or inappropriate class
+     */
+    public static <T extends Constructible> List<T> createObjects(Class<T> clazz, int count) {
+        return OASFactoryResolver.instance().createObjects(clazz, count);
     }
 
 }
\ No newline at end of file
@@ -183,4 +183,19 @@ public interface OASFilter {
      * @param openAPI the current OpenAPI element
      */
     default void filterOpenAPI(OpenAPI openAPI) {}
+
+    /**
+     * Declares whether this filter can be invoked by multiple threads concurrently. A thread-safe filter does not keep
+     * state between invocations of its methods, or only keeps state that is safe for concurrent access, and only modifies
+     * the element it is given and the descendants of that element.
+     * <p>
+     * Vendors may use this information to filter independent parts of the model tree (e.g. distinct PathItem elements
+     * or distinct Components entries) in parallel.  The order of filter methods called remains subject to the same rules,
+     * and the <code>filterOpenAPI</code> method is still called last, by a single thread.
+     *
+     * @return true if this filter can be invoked by multiple threads concurrently, false otherwise (the default)
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -36,4 +36,24 @@ public interface OASModelReader {
      * @return the OpenAPI model to be used by the vendor
      */
     OpenAPI buildModel();
+
+    /**
+     * Returns a key identifying the model tree that <code>buildModel</code> would return, for model readers whose work
+     * is expensive, e.g. the version of the service catalog from which the model tree is built.
+     * <p>
+     * The model reader is responsible for the key: it must change whenever anything that <code>buildModel</code>
+     * depends on changes, other than the class file of the model reader itself and the <code>mp.openapi</code>
+     * configuration. This includes the classes the model reader uses, the resources it reads, the libraries it calls and
+     * any external source, so a key derived from the version of the application is usually appropriate. A model tree
+     * reused after one of them changed is stale.
+     * <p>
+     * Vendors may then persist the model tree built by this model reader, and reuse it instead of calling
+     * <code>buildModel</code> as long as the key, the class file of the model reader and the configuration are
+     * unchanged.
+     *
+     * @return the key of the model tree, or null if the model tree must be built every time (the default)
+     */
+    default String getCacheKey() {
+        return null;
+    }
 }
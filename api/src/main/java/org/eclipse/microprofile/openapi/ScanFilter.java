@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Selects the classes to scan for annotations, according to the {@link OASConfig#SCAN_PACKAGES},
+ * {@link OASConfig#SCAN_CLASSES}, {@link OASConfig#SCAN_EXCLUDE_PACKAGES} and {@link OASConfig#SCAN_EXCLUDE_CLASSES}
+ * configuration properties.
+ * <p>
+ * The comma-separated lists of these properties are parsed once, when the filter is created, into hash sets of class
+ * names and a hash map of package names, so that testing a class costs one lookup per enclosing class and per
+ * enclosing package, whatever the length of the lists. A class is accepted according to the most specific rule which
+ * applies to it:
+ * <ol>
+ * <li>a class listed in <code>mp.openapi.scan.exclude.classes</code>, or nested in such a class, is rejected;</li>
+ * <li>a class listed in <code>mp.openapi.scan.classes</code>, or nested in such a class, is accepted;</li>
+ * <li>otherwise, the deepest package listed in <code>mp.openapi.scan.packages</code> or
+ * <code>mp.openapi.scan.exclude.packages</code> which contains the class, directly or in a sub-package, decides;
+ * a package listed in both properties is excluded;</li>
+ * <li>otherwise, the class is accepted only if neither <code>mp.openapi.scan.classes</code> nor
+ * <code>mp.openapi.scan.packages</code> is set.</li>
+ * </ol>
+ * <p>
+ * Instances of this class are immutable and safe for use by multiple threads.
+ */
+public final class ScanFilter implements Predicate<String> {
+
+    private final Set<String> classes;
+    private final Set<String> excludedClasses;
+    // For each listed package: true if its classes are included, false if they are excluded.
+    private final Map<String, Boolean> packages;
+    private final boolean acceptUnlisted;
+
+    private ScanFilter(Set<String> classes, Set<String> excludedClasses, Map<String, Boolean> packages, boolean acceptUnlisted) {
+        this.classes = classes;
+        this.excludedClasses = excludedClasses;
+        this.packages = packages;
+        this.acceptUnlisted = acceptUnlisted;
+    }
+
+    /**
+     * Creates a filter from the values of the scan configuration properties.
+     *
+     * @param config returns the value of the configuration property of the given name, or null if it is not set
+     * @return a new filter
+     *
+     * @throws NullPointerException if the configuration is null
+     */
+    public static ScanFilter create(Function<String, String> config) {
+        final Set<String> classes = split(config.apply(OASConfig.SCAN_CLASSES));
+        final Set<String> includedPackages = split(config.apply(OASConfig.SCAN_PACKAGES));
+        final Map<String, Boolean> packages = new HashMap<>();
+        for (String packageName : includedPackages) {
+            packages.put(packageName, Boolean.TRUE);
+        }
+        for (String packageName : split(config.apply(OASConfig.SCAN_EXCLUDE_PACKAGES))) {
+            packages.put(packageName, Boolean.FALSE);
+        }
+        return new ScanFilter(classes, split(config.apply(OASConfig.SCAN_EXCLUDE_CLASSES)), packages,
+                classes.isEmpty() && includedPackages.isEmpty());
+    }
+
+    /**
+     * Returns true if the class of the given name is to be scanned.
+     *
+     * @param className the fully qualified name of a class, as returned by {@link Class#getName()}
+     * @return whether the class is to be scanned
+     */
+    @Override
+    public boolean test(String className) {
+        if (!excludedClasses.isEmpty() && matchesClass(excludedClasses, className)) {
+            return false;
+        }
+        if (!classes.isEmpty() && matchesClass(classes, className)) {
+            return true;
+        }
+        if (!packages.isEmpty()) {
+            for (int end = className.lastIndexOf('.'); end > 0; end = className.lastIndexOf('.', end - 1)) {
+                final Boolean included = packages.get(className.substring(0, end));
+                if (included != null) {
+                    return included;
+                }
+            }
+        }
+        return acceptUnlisted;
+    }
+
+    /**
+     * Returns true if the given class, or one of its enclosing classes, is in the given set.
+     */
+    private static boolean matchesClass(Set<String> set, String className) {
+        if (set.contains(className)) {
+            return true;
+        }
+        for (int end = className.lastIndexOf('$'); end > 0; end = className.lastIndexOf('$', end - 1)) {
+            if (set.contains(className.substring(0, end))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> split(String list) {
+        if (list == null || list.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        final Set<String> names = new HashSet<>();
+        for (String name : list.split(",")) {
+            final String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                names.add(trimmed);
+            }
+        }
+        return names;
+    }
+}
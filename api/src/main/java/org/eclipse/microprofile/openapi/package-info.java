@@ -17,5 +17,5 @@
  * from their JAX-RS applications.
  */
 
-@org.osgi.annotation.versioning.Version("1.0")
+@org.osgi.annotation.versioning.Version("1.1")
 package org.eclipse.microprofile.openapi;
\ No newline at end of file
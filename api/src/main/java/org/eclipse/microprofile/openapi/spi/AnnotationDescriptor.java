@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An annotation read from a class file, without loading the annotation type or the annotated class.
+ * <p>
+ * The values of the annotation are those written in the class file, i.e. the members which are given explicitly;
+ * members left to their default value are absent. Values are represented as follows:
+ * <ul>
+ * <li>primitive values as their wrapper type (e.g. {@link Integer} or {@link Boolean});</li>
+ * <li>strings as {@link String};</li>
+ * <li>enum constants as {@link EnumConstant};</li>
+ * <li>class literals as {@link ClassLiteral};</li>
+ * <li>nested annotations as {@link AnnotationDescriptor};</li>
+ * <li>arrays as an unmodifiable {@link java.util.List} of the above.</li>
+ * </ul>
+ * <p>
+ * Instances of this class are immutable and safe for use by multiple threads.
+ */
+public final class AnnotationDescriptor {
+
+    private final String typeName;
+    private final Map<String, Object> values;
+
+    AnnotationDescriptor(String typeName, Map<String, Object> values) {
+        this.typeName = typeName;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Returns the fully qualified name of the annotation type.
+     *
+     * @return the name of the annotation type
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Returns the explicit values of the annotation, by member name, in the order of the class file.
+     *
+     * @return the values of the annotation
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the explicit value of the given member of the annotation.
+     *
+     * @param name the name of the member
+     * @return the value, or null if the member is left to its default value
+     */
+    public Object getValue(String name) {
+        return values.get(name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AnnotationDescriptor && typeName.equals(((AnnotationDescriptor) o).typeName)
+                && values.equals(((AnnotationDescriptor) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return typeName.hashCode() * 31 + values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "@" + typeName + values;
+    }
+
+    /**
+     * An enum constant used as the value of an annotation member.
+     */
+    public static final class EnumConstant {
+
+        private final String typeName;
+        private final String name;
+
+        EnumConstant(String typeName, String name) {
+            this.typeName = typeName;
+            this.name = name;
+        }
+
+        /**
+         * Returns the fully qualified name of the enum type.
+         *
+         * @return the name of the enum type
+         */
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * Returns the name of the constant.
+         *
+         * @return the name of the constant
+         */
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EnumConstant && typeName.equals(((EnumConstant) o).typeName) && name.equals(((EnumConstant) o).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return typeName.hashCode() * 31 + name.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return typeName + "." + name;
+        }
+    }
+
+    /**
+     * A class literal used as the value of an annotation member.
+     */
+    public static final class ClassLiteral {
+
+        private final String typeName;
+
+        ClassLiteral(String typeName) {
+            this.typeName = typeName;
+        }
+
+        /**
+         * Returns the name of the type, as returned by {@link Class#getName()}.
+         *
+         * @return the name of the type
+         */
+        public String getTypeName() {
+            return typeName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ClassLiteral && typeName.equals(((ClassLiteral) o).typeName);
+        }
+
+        @Override
+        public int hashCode() {
+            return typeName.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return typeName + ".class";
+        }
+    }
+}
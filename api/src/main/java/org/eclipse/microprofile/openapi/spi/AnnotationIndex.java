@@ -0,0 +1,575 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An index of the JAX-RS and OpenAPI annotations of the classes of an application, created at build time so that
+ * the annotations do not have to be discovered at runtime.
+ * <p>
+ * A build step adds the classes of the application to a {@link Builder}, either as loaded classes or as class files
+ * (in which case the classes are not loaded), and writes the resulting index into the archive at {@link #LOCATION}.
+ * For each class the index records the classes, fields, methods and method parameters which carry annotations from
+ * the <code>org.eclipse.microprofile.openapi.annotations</code> or <code>javax.ws.rs</code> packages, and a digest
+ * of the class file. Only the types of the annotations are recorded, not their values, which vendors read from the
+ * listed elements, by reflection or with {@link ClassFileAnnotations}. At runtime, vendors
+ * {@link #load(ClassLoader, Collection) load} the index with the names of the classes the application currently has,
+ * and process only the annotations it lists. The index is ignored if a class was added, removed or changed since it
+ * was created, in which case vendors scan the application as usual.
+ * <p>
+ * Instances of this class are immutable and safe for use by multiple threads.
+ */
+public final class AnnotationIndex {
+
+    /**
+     * The location of the index in an application archive.
+     */
+    public static final String LOCATION = "META-INF/openapi.idx";
+
+    private static final int MAGIC = 0x4F415349;
+    private static final int VERSION = 1;
+
+    private static final String[] INDEXED_PACKAGES = { "org.eclipse.microprofile.openapi.annotations.", "javax.ws.rs." };
+
+    /**
+     * The kinds of annotated elements.
+     */
+    public enum Kind {
+        TYPE, FIELD, METHOD, PARAMETER
+    }
+
+    /**
+     * An annotated element of a class, and the types of its indexed annotations.
+     */
+    public static final class Target {
+
+        private static final Comparator<Target> ORDER = Comparator.comparing(Target::getKind)
+                .thenComparing(Target::getMemberName)
+                .thenComparing(t -> String.join(",", t.getParameterTypes()))
+                .thenComparingInt(Target::getParameterIndex);
+
+        private final Kind kind;
+        private final String className;
+        private final String memberName;
+        private final List<String> parameterTypes;
+        private final int parameterIndex;
+        private final List<String> annotations;
+
+        Target(Kind kind, String className, String memberName, List<String> parameterTypes, int parameterIndex,
+                List<String> annotations) {
+            this.kind = kind;
+            this.className = className;
+            this.memberName = memberName;
+            this.parameterTypes = Collections.unmodifiableList(parameterTypes);
+            this.parameterIndex = parameterIndex;
+            this.annotations = Collections.unmodifiableList(annotations);
+        }
+
+        /**
+         * Returns the kind of the annotated element.
+         *
+         * @return the kind of the element
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the fully qualified name of the class which declares the element.
+         *
+         * @return the name of the class
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Returns the name of the field or method, <code>&lt;init&gt;</code> for a constructor, or an empty string
+         * for a class.
+         *
+         * @return the name of the member
+         */
+        public String getMemberName() {
+            return memberName;
+        }
+
+        /**
+         * Returns the names of the parameter types of the method or constructor, as returned by
+         * {@link Class#getName()}. The list is empty for classes and fields.
+         *
+         * @return the names of the parameter types
+         */
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        /**
+         * Returns the position of the annotated parameter, or -1 if the element is not a parameter.
+         *
+         * @return the position of the parameter
+         */
+        public int getParameterIndex() {
+            return parameterIndex;
+        }
+
+        /**
+         * Returns the fully qualified names of the indexed annotation types found on the element.
+         *
+         * @return the names of the annotation types
+         */
+        public List<String> getAnnotations() {
+            return annotations;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Target)) {
+                return false;
+            }
+            final Target other = (Target) o;
+            return kind == other.kind && parameterIndex == other.parameterIndex && className.equals(other.className)
+                    && memberName.equals(other.memberName) && parameterTypes.equals(other.parameterTypes)
+                    && annotations.equals(other.annotations);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, className, memberName, parameterTypes, parameterIndex, annotations);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder().append(kind).append(' ').append(className);
+            if (kind != Kind.TYPE) {
+                sb.append('.').append(memberName);
+            }
+            if (kind == Kind.METHOD || kind == Kind.PARAMETER) {
+                sb.append('(').append(String.join(",", parameterTypes)).append(')');
+            }
+            if (kind == Kind.PARAMETER) {
+                sb.append('#').append(parameterIndex);
+            }
+            return sb.append(' ').append(annotations).toString();
+        }
+    }
+
+    /**
+     * Collects the annotations of the classes of an application.
+     */
+    public static final class Builder {
+
+        private final Map<String, byte[]> digests = new TreeMap<>();
+        private final Map<String, List<Target>> targets = new TreeMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a class to the index. The class file is read from the class loader of the class to compute its
+         * digest. Classes without indexed annotations are recorded too, so that changes to them are detected.
+         *
+         * @param type the class to add
+         * @return the current Builder instance
+         *
+         * @throws IOException if the class file cannot be read
+         * @throws NullPointerException if the class is null
+         */
+        public Builder add(Class<?> type) throws IOException {
+            final String className = type.getName();
+            digests.put(className, digest(read(classLoader(type.getClassLoader()), className)));
+            final List<Target> classTargets = new ArrayList<>();
+            addTarget(classTargets, Kind.TYPE, className, "", Collections.emptyList(), -1, type);
+            for (Field field : type.getDeclaredFields()) {
+                if (!field.isSynthetic()) {
+                    addTarget(classTargets, Kind.FIELD, className, field.getName(), Collections.emptyList(), -1, field);
+                }
+            }
+            for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+                addExecutable(classTargets, className, "<init>", constructor);
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                if (!method.isSynthetic() && !method.isBridge()) {
+                    addExecutable(classTargets, className, method.getName(), method);
+                }
+            }
+            classTargets.sort(Target.ORDER);
+            targets.put(className, classTargets);
+            return this;
+        }
+
+        /**
+         * Adds a class to the index, reading its annotations from its class file rather than through reflection, so
+         * that the class is not loaded. Classes without indexed annotations are recorded too, so that changes to them
+         * are detected.
+         *
+         * @param classFile the content of the class file; the stream is not closed
+         * @return the current Builder instance
+         *
+         * @throws IOException if reading fails or the content is not a valid class file
+         * @throws NullPointerException if the stream is null
+         */
+        public Builder add(InputStream classFile) throws IOException {
+            final byte[] bytes = readAll(classFile);
+            final ClassFileAnnotations annotations = ClassFileAnnotations.read(bytes);
+            final String className = annotations.getClassName();
+            digests.put(className, digest(bytes));
+            final List<Target> classTargets = new ArrayList<>();
+            for (ClassFileAnnotations.Element element : annotations.getElements()) {
+                final List<String> names = new ArrayList<>();
+                for (AnnotationDescriptor annotation : element.getAnnotations()) {
+                    names.add(annotation.getTypeName());
+                }
+                addTarget(classTargets, element.getKind(), className, element.getMemberName(), element.getParameterTypes(),
+                        element.getParameterIndex(), names);
+            }
+            classTargets.sort(Target.ORDER);
+            targets.put(className, classTargets);
+            return this;
+        }
+
+        /**
+         * Creates the index of the classes added so far.
+         *
+         * @return a new index
+         */
+        public AnnotationIndex build() {
+            return new AnnotationIndex(new TreeMap<>(digests), new TreeMap<>(targets));
+        }
+
+        private static void addExecutable(List<Target> classTargets, String className, String name, Executable executable) {
+            if (executable.isSynthetic()) {
+                return;
+            }
+            final List<String> parameterTypes = new ArrayList<>();
+            for (Class<?> parameterType : executable.getParameterTypes()) {
+                parameterTypes.add(parameterType.getName());
+            }
+            addTarget(classTargets, Kind.METHOD, className, name, parameterTypes, -1, executable);
+            final Annotation[][] parameterAnnotations = executable.getParameterAnnotations();
+            for (int i = 0; i < parameterAnnotations.length; ++i) {
+                addTarget(classTargets, Kind.PARAMETER, className, name, parameterTypes, i, parameterAnnotations[i]);
+            }
+        }
+
+        private static void addTarget(List<Target> classTargets, Kind kind, String className, String memberName,
+                List<String> parameterTypes, int parameterIndex, AnnotatedElement element) {
+            addTarget(classTargets, kind, className, memberName, parameterTypes, parameterIndex, element.getDeclaredAnnotations());
+        }
+
+        private static void addTarget(List<Target> classTargets, Kind kind, String className, String memberName,
+                List<String> parameterTypes, int parameterIndex, Annotation[] annotations) {
+            final List<String> annotationTypes = new ArrayList<>();
+            for (Annotation annotation : annotations) {
+                annotationTypes.add(annotation.annotationType().getName());
+            }
+            addTarget(classTargets, kind, className, memberName, parameterTypes, parameterIndex, annotationTypes);
+        }
+
+        private static void addTarget(List<Target> classTargets, Kind kind, String className, String memberName,
+                List<String> parameterTypes, int parameterIndex, List<String> annotationTypes) {
+            final List<String> names = new ArrayList<>();
+            for (String name : annotationTypes) {
+                if (isIndexed(name)) {
+                    names.add(name);
+                }
+            }
+            if (!names.isEmpty()) {
+                Collections.sort(names);
+                classTargets.add(new Target(kind, className, memberName, parameterTypes, parameterIndex, names));
+            }
+        }
+    }
+
+    private final Map<String, byte[]> digests;
+    private final Map<String, List<Target>> targets;
+    private final Set<String> classNames;
+
+    private AnnotationIndex(Map<String, byte[]> digests, Map<String, List<Target>> targets) {
+        this.digests = digests;
+        this.targets = targets;
+        final Set<String> annotated = new TreeSet<>();
+        for (Map.Entry<String, List<Target>> e : targets.entrySet()) {
+            if (!e.getValue().isEmpty()) {
+                annotated.add(e.getKey());
+            }
+        }
+        this.classNames = Collections.unmodifiableSet(annotated);
+    }
+
+    /**
+     * Creates a new Builder instance.
+     *
+     * @return a new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns true if annotations of the given type are recorded in an index, i.e. if the annotation type belongs to
+     * the <code>org.eclipse.microprofile.openapi.annotations</code> or <code>javax.ws.rs</code> packages.
+     *
+     * @param annotationType the fully qualified name of an annotation type
+     * @return whether the annotation type is indexed
+     */
+    public static boolean isIndexed(String annotationType) {
+        for (String prefix : INDEXED_PACKAGES) {
+            if (annotationType.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the index found at {@link #LOCATION} with the given class loader, if it is current.
+     *
+     * @param loader the class loader of the application
+     * @param classNames the fully qualified names of the classes the application currently has, as found when the
+     *            index was built, e.g. all the class files of its archive
+     * @return the index, or null if the application has no index or if the index is not current
+     *
+     * @throws IOException if reading fails or the index is invalid
+     * @throws NullPointerException if the class names are null
+     */
+    public static AnnotationIndex load(ClassLoader loader, Collection<String> classNames) throws IOException {
+        final ClassLoader classLoader = classLoader(loader);
+        try (InputStream in = classLoader.getResourceAsStream(LOCATION)) {
+            if (in == null) {
+                return null;
+            }
+            final AnnotationIndex index = readFrom(in);
+            return index.isCurrent(classLoader, classNames) ? index : null;
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo(OutputStream)}. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @return the index
+     *
+     * @throws IOException if reading fails or the index is invalid
+     */
+    public static AnnotationIndex readFrom(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Invalid annotation index");
+        }
+        final Map<String, byte[]> digests = new TreeMap<>();
+        final Map<String, List<Target>> targets = new TreeMap<>();
+        final Kind[] kinds = Kind.values();
+        try {
+            // The counts are not trusted for allocating arrays, a damaged index ends with an EOFException instead.
+            final List<String> strings = new ArrayList<>();
+            for (int stringCount = count(data); stringCount > 0; --stringCount) {
+                strings.add(data.readUTF());
+            }
+            for (int classCount = count(data); classCount > 0; --classCount) {
+                final String className = strings.get(data.readInt());
+                final byte[] digest = new byte[data.readUnsignedByte()];
+                data.readFully(digest);
+                final List<Target> classTargets = new ArrayList<>();
+                for (int targetCount = count(data); targetCount > 0; --targetCount) {
+                    final Kind kind = kinds[data.readUnsignedByte()];
+                    final String memberName = strings.get(data.readInt());
+                    final List<String> parameterTypes = readStrings(data, strings);
+                    final int parameterIndex = data.readInt();
+                    classTargets.add(new Target(kind, className, memberName, parameterTypes, parameterIndex, readStrings(data, strings)));
+                }
+                digests.put(className, digest);
+                targets.put(className, classTargets);
+            }
+        }
+        catch (IndexOutOfBoundsException e) {
+            throw new IOException("Invalid annotation index", e);
+        }
+        return new AnnotationIndex(digests, targets);
+    }
+
+    /**
+     * Returns the names of the indexed classes which carry at least one indexed annotation, in alphabetical order.
+     *
+     * @return the names of the annotated classes
+     */
+    public Set<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * Returns the annotated elements of the given class.
+     *
+     * @param className the fully qualified name of a class
+     * @return the annotated elements of the class, or an empty list if the class has none or is not indexed
+     */
+    public List<Target> getTargets(String className) {
+        final List<Target> classTargets = targets.get(className);
+        return classTargets != null ? Collections.unmodifiableList(classTargets) : Collections.emptyList();
+    }
+
+    /**
+     * Returns true if the application has the same classes as when the index was created, and if their class files,
+     * as found by the given class loader, are unchanged. The classes are not loaded.
+     * <p>
+     * The class loader cannot list the classes of the application, so their names are given by the caller; classes
+     * added to the application, e.g. by a new or replaced library, make the index not current.
+     *
+     * @param loader the class loader of the application
+     * @param classNames the fully qualified names of the classes the application currently has, as found when the
+     *            index was built, e.g. all the class files of its archive
+     * @return whether the index is current
+     *
+     * @throws IOException if reading a class file fails
+     * @throws NullPointerException if the class names are null
+     */
+    public boolean isCurrent(ClassLoader loader, Collection<String> classNames) throws IOException {
+        if (!digests.keySet().equals(new TreeSet<>(classNames))) {
+            return false;
+        }
+        final ClassLoader classLoader = classLoader(loader);
+        for (Map.Entry<String, byte[]> e : digests.entrySet()) {
+            final String resource = e.getKey().replace('.', '/') + ".class";
+            if (classLoader.getResource(resource) == null || !Arrays.equals(digest(read(classLoader, e.getKey())), e.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes this index to the given stream. The stream is not closed.
+     *
+     * @param out the stream to write to
+     *
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        final Map<String, Integer> stringIndexes = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(body);
+        data.writeInt(digests.size());
+        for (Map.Entry<String, byte[]> e : digests.entrySet()) {
+            data.writeInt(stringIndex(e.getKey(), stringIndexes, strings));
+            data.writeByte(e.getValue().length);
+            data.write(e.getValue());
+            final List<Target> classTargets = targets.get(e.getKey());
+            data.writeInt(classTargets.size());
+            for (Target target : classTargets) {
+                data.writeByte(target.kind.ordinal());
+                data.writeInt(stringIndex(target.memberName, stringIndexes, strings));
+                writeStrings(data, target.parameterTypes, stringIndexes, strings);
+                data.writeInt(target.parameterIndex);
+                writeStrings(data, target.annotations, stringIndexes, strings);
+            }
+        }
+        data.flush();
+        final DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(strings.size());
+        for (String s : strings) {
+            header.writeUTF(s);
+        }
+        header.flush();
+        body.writeTo(out);
+    }
+
+    private static List<String> readStrings(DataInputStream data, List<String> strings) throws IOException {
+        final List<String> list = new ArrayList<>();
+        for (int count = count(data); count > 0; --count) {
+            list.add(strings.get(data.readInt()));
+        }
+        return list;
+    }
+
+    private static int count(DataInputStream data) throws IOException {
+        final int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid annotation index");
+        }
+        return count;
+    }
+
+    private static void writeStrings(DataOutputStream data, List<String> list, Map<String, Integer> stringIndexes, List<String> strings)
+            throws IOException {
+        data.writeInt(list.size());
+        for (String s : list) {
+            data.writeInt(stringIndex(s, stringIndexes, strings));
+        }
+    }
+
+    private static int stringIndex(String s, Map<String, Integer> stringIndexes, List<String> strings) {
+        return stringIndexes.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    static ClassLoader classLoader(ClassLoader loader) {
+        return loader != null ? loader : ClassLoader.getSystemClassLoader();
+    }
+
+    static byte[] read(ClassLoader loader, String className) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            if (in == null) {
+                throw new IOException("Class file not found: " + className);
+            }
+            return readAll(in);
+        }
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+            bytes.write(buffer, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] digest(byte[] classFile) {
+        return GeneratedDocument.sha256().digest(classFile);
+    }
+}
@@ -0,0 +1,802 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.openapi.OASConfig;
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.Extensible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.Reference;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.links.Link;
+import org.eclipse.microprofile.openapi.models.media.Discriminator;
+import org.eclipse.microprofile.openapi.models.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.ReferenceResolver.Section;
+
+/**
+ * Combines the processed model trees of the applications deployed in a runtime into a single model tree, the logical
+ * union of the applications, which is valid as long as the model tree of each application is.
+ * <p>
+ * Names which must be unique within a document are qualified when several applications define them: operation ids,
+ * the names of the elements of each map of the Components element, and tag names. Such a name is prefixed with the
+ * name of the application and <code>_</code> in every application which defines it (e.g. <code>bookings_Error</code>),
+ * with a numeric suffix should the qualified name be in use as well. Names are counted in hash tables updated as
+ * applications are added and removed, so conflicts are detected in constant time per name. The elements of an
+ * application which use a qualified name are rewritten consistently:
+ * <ul>
+ * <li>references to the elements of the Components element, including the mappings of discriminators;</li>
+ * <li>the tags and operation ids of operations, and the operation ids of links;</li>
+ * <li>the names of the security schemes of security requirements.</li>
+ * </ul>
+ * The servers and security requirements of the applications are kept at the top level of the union if they are the
+ * same for all applications. Otherwise, they are moved to the path items and operations of each application which do
+ * not define their own. Path items of different applications with the same path are combined, the operations of the
+ * application whose name comes last in alphabetical order prevailing for the same HTTP method.
+ * <p>
+ * The model trees of the applications are not modified. The union shares the elements which are not rewritten with
+ * them, and holds read-only copies of the others, so it must not be modified. The rewritten model tree of each
+ * application is kept, and recomputed only when the application is replaced or when the names it must qualify change,
+ * so that redeploying an application does not rewrite the others. The union of a single application is its model tree
+ * itself.
+ * <p>
+ * The documents of the applications and of the union are rendered on first request, and kept until the applications
+ * change. The document of each application is rendered from its own model tree, without qualified names, for the
+ * partitioned mode enabled by {@link #PARTITIONED}. The document of the union is not rendered from the union as a
+ * whole: the paths and the elements of the Components element of each application are rendered once, and the
+ * rendered text is reused for every union which includes the same rewritten model tree, so that rendering the union
+ * after a deployment only renders the applications which changed, and concatenates the others. The union is
+ * rendered as a whole when several applications define the same path.
+ * <p>
+ * Instances of this class are safe for use by multiple threads.
+ */
+public final class ApplicationUnion {
+
+    /**
+     * Configuration property to enable the partitioned mode, in which the document of each application is also
+     * served on its own, at <code>/openapi/</code> followed by the name of the application. The value is a boolean,
+     * <code>false</code> by default.
+     */
+    public static final String PARTITIONED = OASConfig.EXTENSIONS_PREFIX + "partitioned";
+
+    private static final String OPERATION_IDS = "operationId";
+    private static final String TAGS = "tag";
+
+    private final Info info;
+    private final Map<String, Application> applications = new TreeMap<>();
+    // The number of applications defining each name, by namespace.
+    private final Map<String, Map<String, Integer>> counts = new HashMap<>();
+    private final RenderedDocument[] documents = new RenderedDocument[DocumentWriter.Format.values().length];
+    private OpenAPI union;
+    private boolean sharedPaths;
+
+    /**
+     * Creates an empty union.
+     *
+     * @param info the Info element of the union of several applications
+     *
+     * @throws NullPointerException if the Info element is null
+     */
+    public ApplicationUnion(Info info) {
+        if (info == null) {
+            throw new NullPointerException();
+        }
+        this.info = info;
+    }
+
+    /**
+     * Adds an application to the union, or replaces its model tree.
+     *
+     * @param application the name of the application, e.g. its context root
+     * @param model the processed model tree of the application
+     *
+     * @throws NullPointerException if any argument is null
+     */
+    public synchronized void put(String application, OpenAPI model) {
+        if (application == null || model == null) {
+            throw new NullPointerException();
+        }
+        final Application previous = applications.get(application);
+        if (previous != null) {
+            if (previous.model == model) {
+                return;
+            }
+            count(previous.names, -1);
+        }
+        final Application added = new Application(application, model);
+        count(added.names, 1);
+        applications.put(application, added);
+        clear();
+    }
+
+    /**
+     * Removes an application from the union.
+     *
+     * @param application the name of the application
+     * @return true if the application was part of the union
+     */
+    public synchronized boolean remove(String application) {
+        final Application removed = applications.remove(application);
+        if (removed == null) {
+            return false;
+        }
+        count(removed.names, -1);
+        clear();
+        return true;
+    }
+
+    /**
+     * Returns the names of the applications of the union.
+     *
+     * @return the names of the applications, sorted
+     */
+    public synchronized SortedSet<String> getApplications() {
+        return Collections.unmodifiableSortedSet(new TreeSet<>(applications.keySet()));
+    }
+
+    /**
+     * Returns the union of the model trees of the applications, which is built on first use after a change.
+     *
+     * @return the union, which must not be modified
+     *
+     * @throws IllegalArgumentException if an element of a model tree could not be read
+     */
+    public synchronized OpenAPI getUnion() {
+        if (union == null) {
+            union = build();
+        }
+        return union;
+    }
+
+    /**
+     * Returns the processed model tree of the given application, as it was added to the union.
+     *
+     * @param application the name of the application
+     * @return the model tree of the application, or null if the application is not part of the union
+     */
+    public synchronized OpenAPI getModel(String application) {
+        final Application a = applications.get(application);
+        return a != null ? a.model : null;
+    }
+
+    /**
+     * Returns the document of the given application, which is rendered on first use.
+     *
+     * @param application the name of the application
+     * @param format the format of the document
+     * @return the document of the application, or null if the application is not part of the union
+     *
+     * @throws NullPointerException if the format is null
+     * @throws IllegalArgumentException if the model tree of the application could not be rendered
+     */
+    public synchronized RenderedDocument getDocument(String application, DocumentWriter.Format format) {
+        final int i = format.ordinal();
+        final Application a = applications.get(application);
+        if (a == null) {
+            return null;
+        }
+        if (a.documents[i] == null) {
+            a.documents[i] = RenderedDocument.render(a.model, format);
+        }
+        return a.documents[i];
+    }
+
+    /**
+     * Returns the document of the union, which is rendered on first use after a change.
+     *
+     * @param format the format of the document
+     * @return the document of the union
+     *
+     * @throws NullPointerException if the format is null
+     * @throws IllegalArgumentException if a model tree could not be read or rendered
+     */
+    public synchronized RenderedDocument getUnionDocument(DocumentWriter.Format format) {
+        final int i = format.ordinal();
+        if (documents[i] == null) {
+            final OpenAPI result = getUnion();
+            if (applications.size() == 1) {
+                documents[i] = getDocument(applications.keySet().iterator().next(), format);
+            }
+            else if (applications.isEmpty() || sharedPaths) {
+                documents[i] = RenderedDocument.render(result, format);
+            }
+            else {
+                documents[i] = RenderedDocument.render(skeleton(result), format);
+            }
+        }
+        return documents[i];
+    }
+
+    private void clear() {
+        union = null;
+        Arrays.fill(documents, null);
+    }
+
+    private void count(Map<String, SortedSet<String>> names, int delta) {
+        for (Map.Entry<String, SortedSet<String>> e : names.entrySet()) {
+            final Map<String, Integer> namespace = counts.computeIfAbsent(e.getKey(), k -> new HashMap<>());
+            for (String name : e.getValue()) {
+                namespace.merge(name, delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+
+    private OpenAPI build() {
+        if (applications.isEmpty()) {
+            return OASFactory.createObject(OpenAPI.class).openapi("3.0.0").info(info).paths(OASFactory.createObject(Paths.class));
+        }
+        if (applications.size() == 1) {
+            return applications.values().iterator().next().model;
+        }
+        final boolean moveServers = differ(m -> urls(m.getServers()));
+        final boolean moveSecurity = differ(m -> m.getSecurity() != null ? m.getSecurity() : Collections.emptyList());
+        final Map<String, Set<String>> assigned = new HashMap<>();
+        for (Application application : applications.values()) {
+            final OpenAPI model = application.model;
+            final Renaming renaming = new Renaming(qualify(application, assigned),
+                    moveServers && model.getServers() != null && !model.getServers().isEmpty(), moveSecurity && model.getSecurity() != null);
+            if (!renaming.equals(application.renaming)) {
+                application.renaming = renaming;
+                application.setView(new Rewrite(model, renaming).view());
+            }
+        }
+
+        final OpenAPI result = OASFactory.createObject(OpenAPI.class).info(info);
+        final Paths paths = OASFactory.createObject(Paths.class);
+        final Components components = OASFactory.createObject(Components.class);
+        final ReferenceResolver resolver = ReferenceResolver.create(components);
+        final Map<String, Tag> tags = new LinkedHashMap<>();
+        sharedPaths = false;
+        OpenAPI first = null;
+        for (Application application : applications.values()) {
+            final OpenAPI view = application.view;
+            if (first == null) {
+                first = view;
+                result.setOpenapi(view.getOpenapi());
+            }
+            if (view.getPaths() != null) {
+                for (Map.Entry<String, PathItem> e : view.getPaths().entrySet()) {
+                    if (e.getValue() != null) {
+                        final PathItem existing = paths.get(e.getKey());
+                        sharedPaths |= existing != null;
+                        paths.addPathItem(e.getKey(), existing != null ? (PathItem) overlay(existing, e.getValue()) : e.getValue());
+                    }
+                }
+                addExtensions(paths, view.getPaths().getExtensions());
+            }
+            if (view.getComponents() != null) {
+                addComponents(resolver, view.getComponents());
+                addExtensions(components, view.getComponents().getExtensions());
+            }
+            if (view.getTags() != null) {
+                for (Tag tag : view.getTags()) {
+                    tags.putIfAbsent(tag.getName(), tag);
+                }
+            }
+            addExtensions(result, view.getExtensions());
+        }
+        result.setPaths(paths);
+        if (resolver.size() > 0 || components.getExtensions() != null) {
+            result.setComponents(components);
+        }
+        if (!tags.isEmpty()) {
+            result.setTags(new CompactList<>(tags.values().toArray()));
+        }
+        if (!moveServers) {
+            result.setServers(first.getServers());
+        }
+        if (!moveSecurity) {
+            result.setSecurity(first.getSecurity());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of the union in which the paths and the maps of the Components element are replaced by the
+     * splices of the corresponding fragments of the applications.
+     */
+    private OpenAPI skeleton(OpenAPI result) {
+        final Map<String, Object> properties = new HashMap<>();
+        final List<Splice.Fragment> paths = new ArrayList<>();
+        for (Application application : applications.values()) {
+            if (application.paths != null && !application.paths.isEmpty()) {
+                paths.add(application.paths);
+            }
+        }
+        if (!paths.isEmpty()) {
+            properties.put("getPaths", replace(result.getPaths(), Collections.<String, Object> emptyMap(), splice(paths)));
+        }
+        if (result.getComponents() != null) {
+            final Map<String, Object> sections = new HashMap<>();
+            for (Section section : Section.values()) {
+                final List<Splice.Fragment> fragments = new ArrayList<>();
+                for (Application application : applications.values()) {
+                    final Splice.Fragment fragment = application.sections[section.ordinal()];
+                    if (fragment != null && !fragment.isEmpty()) {
+                        fragments.add(fragment);
+                    }
+                }
+                sections.put(section.getGetterName(), fragments.isEmpty() ? null : splice(fragments));
+            }
+            properties.put("getComponents", replace(result.getComponents(), sections, null));
+        }
+        return (OpenAPI) replace(result, properties, null);
+    }
+
+    private static Map<String, Object> splice(List<Splice.Fragment> fragments) {
+        return new CompactMap<>(new Object[] { "" }, new Object[] { new Splice(fragments) });
+    }
+
+    /**
+     * Returns a read-only copy of the given element, in which the properties read by the given getters have the
+     * given values.
+     */
+    private static Object replace(Object element, Map<String, Object> properties, Map<?, ?> entries) {
+        final ModelType type = ModelType.of(element.getClass());
+        final Object[] values = new Object[type.size()];
+        for (int i = 0; i < values.length; ++i) {
+            final Method getter = type.getter(i);
+            values[i] = properties.containsKey(getter.getName()) ? properties.get(getter.getName()) : read(element, getter);
+        }
+        return ModelSnapshot.create(type, values, entries);
+    }
+
+    /**
+     * Returns the qualified names of the names of the given application which are defined by other applications too,
+     * by namespace.
+     */
+    private Map<String, Map<String, String>> qualify(Application application, Map<String, Set<String>> assigned) {
+        final String prefix = application.name.replaceAll("[^a-zA-Z0-9.\\-_]", "_") + "_";
+        final Map<String, Map<String, String>> qualified = new HashMap<>();
+        for (Map.Entry<String, SortedSet<String>> e : application.names.entrySet()) {
+            final Map<String, Integer> namespace = counts.get(e.getKey());
+            final Set<String> taken = assigned.computeIfAbsent(e.getKey(), k -> new HashSet<>());
+            for (String name : e.getValue()) {
+                if (namespace.get(name) > 1) {
+                    String q = prefix + name;
+                    for (int i = 2; namespace.containsKey(q) || !taken.add(q); ++i) {
+                        q = prefix + name + "_" + i;
+                    }
+                    qualified.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(name, q);
+                }
+            }
+        }
+        return qualified;
+    }
+
+    private boolean differ(Function<OpenAPI, Object> key) {
+        Object first = null;
+        for (Application application : applications.values()) {
+            final Object k = key.apply(application.model);
+            if (first == null) {
+                first = k;
+            }
+            else if (!first.equals(k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object urls(List<Server> servers) {
+        final List<String> urls = new ArrayList<>();
+        if (servers != null) {
+            for (Server server : servers) {
+                urls.add(server.getUrl());
+            }
+        }
+        return urls;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void addComponents(ReferenceResolver resolver, Components components) {
+        for (Section section : Section.values()) {
+            final Map<String, ?> map = section.getMap(components);
+            if (map != null) {
+                for (Map.Entry<String, ?> e : map.entrySet()) {
+                    if (e.getValue() != null) {
+                        resolver.add((Class) section.getType(), e.getKey(), (Reference) e.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addExtensions(Extensible target, Map<String, Object> extensions) {
+        if (extensions != null) {
+            for (Map.Entry<String, Object> e : extensions.entrySet()) {
+                target.addExtension(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a read-only element holding the non-null properties of the second element, and the properties of the
+     * first element otherwise.
+     */
+    private static Object overlay(Object first, Object second) {
+        final ModelType type = ModelType.of(second.getClass());
+        final ModelType firstType = ModelType.of(first.getClass());
+        final Object[] values = new Object[type.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = read(second, type.getter(i));
+            final int index = firstType.indexOf(type.getter(i).getName());
+            if (values[i] == null && index >= 0) {
+                values[i] = read(first, firstType.getter(index));
+            }
+        }
+        return ModelSnapshot.create(type, values, null);
+    }
+
+    private static Object read(Object o, Method getter) {
+        try {
+            return getter.invoke(o);
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unable to read property " + getter.getName() + " of " + o.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * An application of the union.
+     */
+    private static final class Application {
+
+        private final String name;
+        private final OpenAPI model;
+        private final Map<String, SortedSet<String>> names = new TreeMap<>();
+        private final RenderedDocument[] documents = new RenderedDocument[DocumentWriter.Format.values().length];
+        private final Splice.Fragment[] sections = new Splice.Fragment[Section.values().length];
+        private Renaming renaming;
+        private OpenAPI view;
+        private Splice.Fragment paths;
+
+        Application(String name, OpenAPI model) {
+            this.name = name;
+            this.model = model;
+            collectNames();
+        }
+
+        void setView(OpenAPI view) {
+            this.view = view;
+            this.paths = view.getPaths() != null ? new Splice.Fragment(view.getPaths()) : null;
+            final Components components = view.getComponents();
+            for (Section section : Section.values()) {
+                final Map<String, ?> map = components != null ? section.getMap(components) : null;
+                sections[section.ordinal()] = map != null ? new Splice.Fragment(map) : null;
+            }
+        }
+
+        /**
+         * Walks the model tree once, and collects the names which must be unique, by namespace.
+         */
+        private void collectNames() {
+            final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            final Deque<Object> pending = new ArrayDeque<>();
+            pending.push(model);
+            while (!pending.isEmpty()) {
+                final Object value = pending.pop();
+                if (!visited.add(value)) {
+                    continue;
+                }
+                if (value instanceof Operation) {
+                    final Operation operation = (Operation) value;
+                    add(OPERATION_IDS, operation.getOperationId());
+                    if (operation.getTags() != null) {
+                        for (String tag : operation.getTags()) {
+                            add(TAGS, tag);
+                        }
+                    }
+                }
+                else if (value instanceof Tag) {
+                    add(TAGS, ((Tag) value).getName());
+                }
+                else if (value instanceof Components) {
+                    for (Section section : Section.values()) {
+                        final Map<String, ?> map = section.getMap((Components) value);
+                        if (map != null) {
+                            for (String key : map.keySet()) {
+                                add(section.getPrefix(), key);
+                            }
+                        }
+                    }
+                }
+                final List<Map.Entry<String, Object>> entries = DocumentWriter.entries(value);
+                if (entries != null) {
+                    for (Map.Entry<String, Object> e : entries) {
+                        push(pending, e.getValue());
+                    }
+                }
+                else if (value instanceof Collection) {
+                    for (Object item : (Collection<?>) value) {
+                        push(pending, item);
+                    }
+                }
+            }
+        }
+
+        private void add(String namespace, String name) {
+            if (name != null) {
+                names.computeIfAbsent(namespace, k -> new TreeSet<>()).add(name);
+            }
+        }
+
+        private static void push(Deque<Object> pending, Object value) {
+            if (value instanceof Constructible || value instanceof Map || value instanceof Collection) {
+                pending.push(value);
+            }
+        }
+    }
+
+    /**
+     * The changes to make to the model tree of an application.
+     */
+    private static final class Renaming {
+
+        private final Map<String, Map<String, String>> names;
+        private final boolean moveServers;
+        private final boolean moveSecurity;
+
+        Renaming(Map<String, Map<String, String>> names, boolean moveServers, boolean moveSecurity) {
+            this.names = names;
+            this.moveServers = moveServers;
+            this.moveSecurity = moveSecurity;
+        }
+
+        String rename(String namespace, String name) {
+            final Map<String, String> renamed = names.get(namespace);
+            final String q = renamed != null && name != null ? renamed.get(name) : null;
+            return q != null ? q : name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Renaming)) {
+                return false;
+            }
+            final Renaming other = (Renaming) o;
+            return names.equals(other.names) && moveServers == other.moveServers && moveSecurity == other.moveSecurity;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(names, moveServers, moveSecurity);
+        }
+    }
+
+    /**
+     * Creates the view of the model tree of an application in which qualified names are used and servers and
+     * security requirements are moved. Only the elements which change, or which lead to elements which change, are
+     * copied, as in {@link Dereferencer}.
+     */
+    private static final class Rewrite {
+
+        private final OpenAPI model;
+        private final Renaming renaming;
+        private final Map<Object, Object> views = new IdentityHashMap<>();
+        private Object servers;
+        private Object security;
+
+        Rewrite(OpenAPI model, Renaming renaming) {
+            this.model = model;
+            this.renaming = renaming;
+        }
+
+        OpenAPI view() {
+            servers = renaming.moveServers ? view(model.getServers()) : null;
+            security = renaming.moveSecurity ? view(model.getSecurity()) : null;
+            return (OpenAPI) view(model);
+        }
+
+        private Object view(Object o) {
+            if (!(o instanceof Constructible || o instanceof Map || o instanceof List)) {
+                return o;
+            }
+            final Object existing = views.get(o);
+            if (existing != null) {
+                return existing;
+            }
+            // Elements met again while being copied are kept as they are.
+            views.put(o, o);
+            final Object view = copy(o);
+            views.put(o, view);
+            return view;
+        }
+
+        private Object copy(Object o) {
+            if (o instanceof Constructible) {
+                final ModelType type = ModelType.of(o.getClass());
+                if (type.isModel()) {
+                    final Object[] values = new Object[type.size()];
+                    boolean changed = false;
+                    for (int i = 0; i < values.length; ++i) {
+                        final Method getter = type.getter(i);
+                        final Object value = read(o, getter);
+                        values[i] = rewrite(o, getter.getName(), view(value));
+                        changed |= values[i] != value;
+                    }
+                    if (!type.isMap()) {
+                        return changed ? ModelSnapshot.create(type, values, null) : o;
+                    }
+                    Map<?, ?> entries = copyMap((Map<?, ?>) o);
+                    if (o instanceof SecurityRequirement) {
+                        entries = renameKeys(entries, Section.SECURITY_SCHEMES.getPrefix());
+                    }
+                    if (!changed && entries == o) {
+                        return o;
+                    }
+                    if (entries == o) {
+                        entries = new CompactMap<>(((Map<?, ?>) o).keySet().toArray(), ((Map<?, ?>) o).values().toArray());
+                    }
+                    return ModelSnapshot.create(type, values, entries);
+                }
+            }
+            if (o instanceof Map) {
+                return copyMap((Map<?, ?>) o);
+            }
+            if (o instanceof List) {
+                final Object[] elements = ((List<?>) o).toArray();
+                boolean changed = false;
+                for (int i = 0; i < elements.length; ++i) {
+                    final Object element = elements[i];
+                    elements[i] = view(element);
+                    changed |= elements[i] != element;
+                }
+                return changed ? new CompactList<>(elements) : o;
+            }
+            return o;
+        }
+
+        private Map<?, ?> copyMap(Map<?, ?> map) {
+            final Object[] keys = map.keySet().toArray();
+            final Object[] values = new Object[keys.length];
+            boolean changed = false;
+            int i = 0;
+            for (Object value : map.values()) {
+                values[i] = view(value);
+                changed |= values[i] != value;
+                ++i;
+            }
+            return changed ? new CompactMap<>(keys, values) : map;
+        }
+
+        /**
+         * Returns the value of the given property of the given element in the view.
+         */
+        private Object rewrite(Object o, String getterName, Object value) {
+            switch (getterName) {
+                case "getRef":
+                    return o instanceof Reference && value instanceof String ? renameRef(o, (String) value) : value;
+                case "getOperationId":
+                    return (o instanceof Operation || o instanceof Link) && value instanceof String
+                            ? renaming.rename(OPERATION_IDS, (String) value) : value;
+                case "getTags":
+                    return o instanceof Operation && value instanceof List ? renameAll(TAGS, (List<?>) value) : value;
+                case "getName":
+                    return o instanceof Tag && value instanceof String ? renaming.rename(TAGS, (String) value) : value;
+                case "getMapping":
+                    return o instanceof Discriminator && value instanceof Map ? renameMapping((Map<?, ?>) value) : value;
+                case "getServers":
+                    return o instanceof PathItem && value == null ? servers : value;
+                case "getSecurity":
+                    return o instanceof Operation && value == null ? security : value;
+                default:
+                    if (o instanceof Components && value instanceof Map) {
+                        for (Section section : Section.values()) {
+                            if (section.getGetterName().equals(getterName)) {
+                                return renameKeys((Map<?, ?>) value, section.getPrefix());
+                            }
+                        }
+                    }
+                    return value;
+            }
+        }
+
+        private String renameRef(Object element, String ref) {
+            if (!ReferenceResolver.isLocal(ref)) {
+                return ref;
+            }
+            final Section section = Section.forElement(element);
+            final String full = section != null ? ReferenceResolver.expand(ref, section) : ref;
+            final String renamed = renameRef(full);
+            return renamed == full ? ref : renamed;
+        }
+
+        private String renameRef(String ref) {
+            for (Section section : Section.values()) {
+                if (ref.startsWith(section.getPrefix())) {
+                    int end = ref.indexOf('/', section.getPrefix().length());
+                    if (end < 0) {
+                        end = ref.length();
+                    }
+                    final String name = ReferenceResolver.unescape(ref.substring(section.getPrefix().length(), end));
+                    final String renamed = renaming.rename(section.getPrefix(), name);
+                    return renamed == name ? ref : section.getPrefix() + ReferenceResolver.escape(renamed) + ref.substring(end);
+                }
+            }
+            return ref;
+        }
+
+        private Object renameAll(String namespace, List<?> names) {
+            final Object[] elements = names.toArray();
+            boolean changed = false;
+            for (int i = 0; i < elements.length; ++i) {
+                if (elements[i] instanceof String) {
+                    final String renamed = renaming.rename(namespace, (String) elements[i]);
+                    changed |= renamed != elements[i];
+                    elements[i] = renamed;
+                }
+            }
+            return changed ? new CompactList<>(elements) : names;
+        }
+
+        private Object renameMapping(Map<?, ?> mapping) {
+            final Object[] keys = mapping.keySet().toArray();
+            final Object[] values = mapping.values().toArray();
+            boolean changed = false;
+            for (int i = 0; i < values.length; ++i) {
+                if (values[i] instanceof String) {
+                    final String value = (String) values[i];
+                    final String renamed = value.indexOf('/') < 0 ? renaming.rename(Section.SCHEMAS.getPrefix(), value) : renameRef(value);
+                    changed |= renamed != value;
+                    values[i] = renamed;
+                }
+            }
+            return changed ? new CompactMap<>(keys, values) : mapping;
+        }
+
+        private Map<?, ?> renameKeys(Map<?, ?> map, String namespace) {
+            final Object[] keys = map.keySet().toArray();
+            boolean changed = false;
+            for (int i = 0; i < keys.length; ++i) {
+                if (keys[i] instanceof String) {
+                    final String renamed = renaming.rename(namespace, (String) keys[i]);
+                    changed |= renamed != keys[i];
+                    keys[i] = renamed;
+                }
+            }
+            return changed ? new CompactMap<>(keys, map.values().toArray()) : map;
+        }
+    }
+}
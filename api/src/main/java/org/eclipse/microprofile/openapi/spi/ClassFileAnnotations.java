@@ -0,0 +1,455 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The runtime-visible annotations of a class, read directly from its class file. Neither the class nor the annotation
+ * types are loaded, so scanning an application this way does not load, link or initialize its classes.
+ * <p>
+ * Synthetic and bridge members are ignored, as are static initializers. The annotations of each element are
+ * represented by {@link AnnotationDescriptor} instances, in the order of the class file.
+ * <p>
+ * Instances of this class are immutable and safe for use by multiple threads.
+ */
+public final class ClassFileAnnotations {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_BRIDGE = 0x0040;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final String VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String VISIBLE_PARAMETER_ANNOTATIONS = "RuntimeVisibleParameterAnnotations";
+
+    /**
+     * An annotated element of the class.
+     */
+    public static final class Element {
+
+        private final AnnotationIndex.Kind kind;
+        private final String memberName;
+        private final List<String> parameterTypes;
+        private final int parameterIndex;
+        private final List<AnnotationDescriptor> annotations;
+
+        Element(AnnotationIndex.Kind kind, String memberName, List<String> parameterTypes, int parameterIndex,
+                List<AnnotationDescriptor> annotations) {
+            this.kind = kind;
+            this.memberName = memberName;
+            this.parameterTypes = parameterTypes;
+            this.parameterIndex = parameterIndex;
+            this.annotations = Collections.unmodifiableList(annotations);
+        }
+
+        /**
+         * Returns the kind of the annotated element.
+         *
+         * @return the kind of the element
+         */
+        public AnnotationIndex.Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the name of the field or method, <code>&lt;init&gt;</code> for a constructor, or an empty string
+         * for the class itself.
+         *
+         * @return the name of the member
+         */
+        public String getMemberName() {
+            return memberName;
+        }
+
+        /**
+         * Returns the names of the parameter types of the method or constructor, as returned by
+         * {@link Class#getName()}. The list is empty for classes and fields.
+         *
+         * @return the names of the parameter types
+         */
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        /**
+         * Returns the position of the annotated parameter, or -1 if the element is not a parameter.
+         *
+         * @return the position of the parameter
+         */
+        public int getParameterIndex() {
+            return parameterIndex;
+        }
+
+        /**
+         * Returns the annotations of the element.
+         *
+         * @return the annotations of the element
+         */
+        public List<AnnotationDescriptor> getAnnotations() {
+            return annotations;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + memberName + parameterTypes + (parameterIndex >= 0 ? "#" + parameterIndex : "") + " " + annotations;
+        }
+    }
+
+    private final String className;
+    private final String superclassName;
+    private final List<String> interfaceNames;
+    private final List<Element> elements;
+
+    private ClassFileAnnotations(String className, String superclassName, List<String> interfaceNames, List<Element> elements) {
+        this.className = className;
+        this.superclassName = superclassName;
+        this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+        this.elements = Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Reads the annotations of a class from its class file. The stream is not closed.
+     *
+     * @param in the content of the class file
+     * @return the annotations of the class
+     *
+     * @throws IOException if reading fails or the content is not a valid class file
+     */
+    public static ClassFileAnnotations read(InputStream in) throws IOException {
+        return read(AnnotationIndex.readAll(in));
+    }
+
+    /**
+     * Reads the annotations of a class from its class file.
+     *
+     * @param classFile the content of the class file
+     * @return the annotations of the class
+     *
+     * @throws IOException if the content is not a valid class file
+     */
+    public static ClassFileAnnotations read(byte[] classFile) throws IOException {
+        try {
+            return new Parser(classFile).parse();
+        }
+        catch (EOFException | IndexOutOfBoundsException | ClassCastException | NullPointerException | IllegalArgumentException e) {
+            throw new IOException("Invalid class file", e);
+        }
+    }
+
+    /**
+     * Returns the fully qualified name of the class, as returned by {@link Class#getName()}.
+     *
+     * @return the name of the class
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Returns the fully qualified name of the superclass.
+     *
+     * @return the name of the superclass, or null if the class is <code>java.lang.Object</code>
+     */
+    public String getSuperclassName() {
+        return superclassName;
+    }
+
+    /**
+     * Returns the fully qualified names of the interfaces directly implemented by the class.
+     *
+     * @return the names of the interfaces
+     */
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * Returns the annotated elements of the class: the class itself, then its fields, methods and method parameters
+     * in the order of the class file.
+     *
+     * @return the annotated elements
+     */
+    public List<Element> getElements() {
+        return elements;
+    }
+
+    /**
+     * Converts a field descriptor (e.g. <code>Ljava/lang/String;</code>) into a type name as returned by
+     * {@link Class#getName()}.
+     */
+    static String typeName(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'D':
+                return "double";
+            case 'F':
+                return "float";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'S':
+                return "short";
+            case 'Z':
+                return "boolean";
+            case 'V':
+                return "void";
+            case 'L':
+                return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+            case '[':
+                return descriptor.replace('/', '.');
+            default:
+                throw new IllegalArgumentException(descriptor);
+        }
+    }
+
+    /**
+     * Returns the type names of the parameters of a method descriptor.
+     */
+    static List<String> parameterTypes(String descriptor) {
+        final List<String> types = new ArrayList<>();
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            int end = i;
+            while (descriptor.charAt(end) == '[') {
+                ++end;
+            }
+            end = descriptor.charAt(end) == 'L' ? descriptor.indexOf(';', end) + 1 : end + 1;
+            types.add(typeName(descriptor.substring(i, end)));
+            i = end;
+        }
+        return types;
+    }
+
+    /**
+     * Reads a class file, skipping everything but the names of the class and the runtime-visible annotations.
+     */
+    private static final class Parser {
+
+        private final DataInputStream in;
+        private String[] utf8;
+        private Object[] constants;
+        private int[] classNames;
+
+        Parser(byte[] classFile) {
+            this.in = new DataInputStream(new ByteArrayInputStream(classFile));
+        }
+
+        ClassFileAnnotations parse() throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Invalid class file");
+            }
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            readConstantPool();
+            in.readUnsignedShort();
+            final String className = className(in.readUnsignedShort());
+            final int superclass = in.readUnsignedShort();
+            final List<String> interfaceNames = new ArrayList<>();
+            for (int count = in.readUnsignedShort(); count > 0; --count) {
+                interfaceNames.add(className(in.readUnsignedShort()));
+            }
+            final List<Element> elements = new ArrayList<>();
+            for (int count = in.readUnsignedShort(); count > 0; --count) {
+                member(elements, false);
+            }
+            for (int count = in.readUnsignedShort(); count > 0; --count) {
+                member(elements, true);
+            }
+            final List<AnnotationDescriptor> classAnnotations = new ArrayList<>();
+            for (int count = in.readUnsignedShort(); count > 0; --count) {
+                final String name = utf8[in.readUnsignedShort()];
+                final int length = in.readInt();
+                if (name.equals(VISIBLE_ANNOTATIONS)) {
+                    annotations(classAnnotations);
+                }
+                else {
+                    skip(length);
+                }
+            }
+            if (!classAnnotations.isEmpty()) {
+                elements.add(0, new Element(AnnotationIndex.Kind.TYPE, "", Collections.emptyList(), -1, classAnnotations));
+            }
+            return new ClassFileAnnotations(className, superclass != 0 ? className(superclass) : null, interfaceNames, elements);
+        }
+
+        private void readConstantPool() throws IOException {
+            final int count = in.readUnsignedShort();
+            utf8 = new String[count];
+            constants = new Object[count];
+            classNames = new int[count];
+            for (int i = 1; i < count; ++i) {
+                final int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 1:
+                        utf8[i] = in.readUTF();
+                        break;
+                    case 3:
+                        constants[i] = in.readInt();
+                        break;
+                    case 4:
+                        constants[i] = in.readFloat();
+                        break;
+                    case 5:
+                        constants[i++] = in.readLong();
+                        break;
+                    case 6:
+                        constants[i++] = in.readDouble();
+                        break;
+                    case 7:
+                        classNames[i] = in.readUnsignedShort();
+                        break;
+                    case 8:
+                    case 16:
+                    case 19:
+                    case 20:
+                        skip(2);
+                        break;
+                    case 15:
+                        skip(3);
+                        break;
+                    case 9:
+                    case 10:
+                    case 11:
+                    case 12:
+                    case 17:
+                    case 18:
+                        skip(4);
+                        break;
+                    default:
+                        throw new IOException("Invalid constant pool tag " + tag);
+                }
+            }
+        }
+
+        private void member(List<Element> elements, boolean method) throws IOException {
+            final int access = in.readUnsignedShort();
+            final String name = utf8[in.readUnsignedShort()];
+            final String descriptor = utf8[in.readUnsignedShort()];
+            final boolean ignored = (access & ACC_SYNTHETIC) != 0 || (method && (access & ACC_BRIDGE) != 0) || name.equals("<clinit>");
+            final List<String> parameterTypes = method ? Collections.unmodifiableList(parameterTypes(descriptor)) : Collections.emptyList();
+            final List<AnnotationDescriptor> annotations = new ArrayList<>();
+            final List<Element> parameters = new ArrayList<>();
+            for (int count = in.readUnsignedShort(); count > 0; --count) {
+                final String attribute = utf8[in.readUnsignedShort()];
+                final int length = in.readInt();
+                if (ignored) {
+                    skip(length);
+                }
+                else if (attribute.equals(VISIBLE_ANNOTATIONS)) {
+                    annotations(annotations);
+                }
+                else if (method && attribute.equals(VISIBLE_PARAMETER_ANNOTATIONS)) {
+                    final int parameterCount = in.readUnsignedByte();
+                    // Compilers may leave out implicit leading parameters, such as the outer instance of the constructor
+                    // of an inner class, so the entries apply to the last parameters, as with reflection.
+                    final int offset = Math.max(parameterTypes.size() - parameterCount, 0);
+                    for (int i = 0; i < parameterCount; ++i) {
+                        final List<AnnotationDescriptor> parameterAnnotations = new ArrayList<>();
+                        annotations(parameterAnnotations);
+                        if (!parameterAnnotations.isEmpty()) {
+                            parameters.add(new Element(AnnotationIndex.Kind.PARAMETER, name, parameterTypes, offset + i,
+                                    parameterAnnotations));
+                        }
+                    }
+                }
+                else {
+                    skip(length);
+                }
+            }
+            if (!annotations.isEmpty()) {
+                elements.add(new Element(method ? AnnotationIndex.Kind.METHOD : AnnotationIndex.Kind.FIELD, name, parameterTypes, -1,
+                        annotations));
+            }
+            elements.addAll(parameters);
+        }
+
+        private void annotations(List<AnnotationDescriptor> annotations) throws IOException {
+            for (int count = in.readUnsignedShort(); count > 0; --count) {
+                annotations.add(annotation());
+            }
+        }
+
+        private AnnotationDescriptor annotation() throws IOException {
+            final String typeName = typeName(utf8[in.readUnsignedShort()]);
+            final Map<String, Object> values = new LinkedHashMap<>();
+            for (int count = in.readUnsignedShort(); count > 0; --count) {
+                final String name = utf8[in.readUnsignedShort()];
+                values.put(name, value());
+            }
+            return new AnnotationDescriptor(typeName, values);
+        }
+
+        private Object value() throws IOException {
+            final int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 'B':
+                    return (byte) (int) (Integer) constants[in.readUnsignedShort()];
+                case 'C':
+                    return (char) (int) (Integer) constants[in.readUnsignedShort()];
+                case 'S':
+                    return (short) (int) (Integer) constants[in.readUnsignedShort()];
+                case 'Z':
+                    return (Integer) constants[in.readUnsignedShort()] != 0;
+                case 'D':
+                case 'F':
+                case 'I':
+                case 'J':
+                    return constants[in.readUnsignedShort()];
+                case 's':
+                    return utf8[in.readUnsignedShort()];
+                case 'e':
+                    final String enumType = typeName(utf8[in.readUnsignedShort()]);
+                    return new AnnotationDescriptor.EnumConstant(enumType, utf8[in.readUnsignedShort()]);
+                case 'c':
+                    return new AnnotationDescriptor.ClassLiteral(typeName(utf8[in.readUnsignedShort()]));
+                case '@':
+                    return annotation();
+                case '[':
+                    final int count = in.readUnsignedShort();
+                    final List<Object> values = new ArrayList<>(count);
+                    for (int i = 0; i < count; ++i) {
+                        values.add(value());
+                    }
+                    return Collections.unmodifiableList(values);
+                default:
+                    throw new IOException("Invalid annotation value tag " + tag);
+            }
+        }
+
+        private String className(int index) {
+            return utf8[classNames[index]].replace('/', '.');
+        }
+
+        private void skip(int length) throws IOException {
+            if (in.skipBytes(length) != length) {
+                throw new EOFException();
+            }
+        }
+    }
+}
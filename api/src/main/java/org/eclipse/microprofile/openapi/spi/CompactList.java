@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list backed by a trimmed array.
+ * 
+ * @param <E> the type of elements
+ */
+final class CompactList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final Object[] elements;
+
+    /**
+     * Creates a list over the given array, which is not copied. The array may be populated after construction, but
+     * before the list is published.
+     * 
+     * @param elements the elements of the list
+     */
+    CompactList(Object[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Stores the element at the given index.
+     * 
+     * @param index the index of the element
+     * @param element the element
+     */
+    void setElement(int index, Object element) {
+        elements[index] = element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An unmodifiable map which keeps its entries in two trimmed arrays, in insertion order. Maps with more than a few
+ * entries are indexed by an open-addressing hash table with linear probing, which stores entry indexes only.
+ * 
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int LINEAR_SCAN_THRESHOLD = 8;
+
+    private final Object[] keys;
+    private final Object[] values;
+    // Slots hold (entry index + 1), zero marks an empty slot.
+    private final int[] table;
+
+    /**
+     * Creates a map over the given arrays, which are not copied. The keys must be distinct. The values array may be
+     * populated after construction, but before the map is published.
+     * 
+     * @param keys the keys, in iteration order
+     * @param values the values, parallel to the keys
+     */
+    CompactMap(Object[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        if (keys.length > LINEAR_SCAN_THRESHOLD) {
+            int capacity = Integer.highestOneBit(keys.length * 2 - 1) << 1;
+            this.table = new int[capacity];
+            final int mask = capacity - 1;
+            for (int i = 0; i < keys.length; ++i) {
+                int slot = hash(keys[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
+        else {
+            this.table = null;
+        }
+    }
+
+    /**
+     * Stores the value of the entry at the given index.
+     * 
+     * @param index the index of the entry
+     * @param value the value
+     */
+    void setValue(int index, Object value) {
+        values[index] = value;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        final int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        final int i = next++;
+                        return new SimpleImmutableEntry<>((K) keys[i], (V) values[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (table == null) {
+            for (int i = 0; i < keys.length; ++i) {
+                if (Objects.equals(keys[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            if (Objects.equals(keys[entry - 1], key)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(Object key) {
+        final int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * Creates a dereferenced view of an OpenAPI model tree, in which the elements holding a reference to the Components
+ * element are replaced by the elements they designate, for consumers such as client generators and validators.
+ * <p>
+ * The view is a directed acyclic graph which shares its elements instead of copying them:
+ * <ul>
+ * <li>each element of the model tree is dereferenced once, and all the references to the same element of the
+ * Components element are replaced by the same dereferenced element;</li>
+ * <li>an element which does not contain any reference to replace, directly or in its descendants, is the element of
+ * the original model tree itself;</li>
+ * <li>other elements are read-only copies, holding the dereferenced values of their properties.</li>
+ * </ul>
+ * The view thus costs memory proportional to the number of elements holding or leading to a reference, whatever the
+ * number of paths through which they are reached.
+ * <p>
+ * Cycles are broken where they are met: a reference to an element of the Components element which is being
+ * dereferenced, e.g. the reference of a recursive schema to itself, is kept as it is. The view of a recursive schema
+ * thus holds the references which close its cycles. References which cannot be resolved and references to other
+ * documents are kept as well.
+ * <p>
+ * The view must not be modified, as some of its elements are shared with the original model tree.
+ */
+public final class Dereferencer {
+
+    private final ReferenceResolver resolver;
+    private final Map<Object, Object> views = new IdentityHashMap<>();
+    private final Set<Object> active = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private Dereferencer(ReferenceResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Creates the dereferenced view of the given model tree.
+     *
+     * @param openAPI the model tree
+     * @return the view of the model tree, which is the model tree itself if it does not hold any reference to its
+     *         Components element
+     *
+     * @throws NullPointerException if the model tree is null
+     * @throws IllegalArgumentException if an element of the model tree could not be read
+     */
+    public static OpenAPI dereference(OpenAPI openAPI) {
+        final Components components = openAPI.getComponents();
+        return (OpenAPI) new Dereferencer(ReferenceResolver.create(components != null ? components
+                : OASFactory.createObject(Components.class))).view(openAPI);
+    }
+
+    private Object view(Object o) {
+        if (!(o instanceof Constructible || o instanceof Map || o instanceof List) || active.contains(o)) {
+            return o;
+        }
+        final Object existing = views.get(o);
+        if (existing != null) {
+            return existing;
+        }
+        final Object target = resolver.target(o);
+        if (target != null) {
+            if (active.contains(target)) {
+                // The reference closes a cycle, and may be replaced when the element is reached from elsewhere.
+                return o;
+            }
+            final Object view = view(target);
+            views.put(o, view);
+            return view;
+        }
+        active.add(o);
+        final Object view;
+        try {
+            view = copy(o);
+        }
+        finally {
+            active.remove(o);
+        }
+        views.put(o, view);
+        return view;
+    }
+
+    /**
+     * Returns a read-only copy of the given element holding the views of its values, or the element itself if all
+     * of its values are their own views.
+     */
+    private Object copy(Object o) {
+        if (o instanceof Constructible) {
+            final ModelType type = ModelType.of(o.getClass());
+            if (type.isModel()) {
+                final Object[] values = new Object[type.size()];
+                boolean changed = false;
+                for (int i = 0; i < values.length; ++i) {
+                    final Object value = read(o, type.getter(i));
+                    values[i] = view(value);
+                    changed |= values[i] != value;
+                }
+                if (!type.isMap()) {
+                    return changed ? ModelSnapshot.create(type, values, null) : o;
+                }
+                Map<?, ?> entries = copyMap((Map<?, ?>) o);
+                if (!changed && entries == o) {
+                    return o;
+                }
+                if (entries == o) {
+                    // The copy must not share its entries with the original element.
+                    entries = new CompactMap<>(((Map<?, ?>) o).keySet().toArray(), ((Map<?, ?>) o).values().toArray());
+                }
+                return ModelSnapshot.create(type, values, entries);
+            }
+        }
+        if (o instanceof Map) {
+            return copyMap((Map<?, ?>) o);
+        }
+        if (o instanceof List) {
+            final Object[] elements = ((List<?>) o).toArray();
+            boolean changed = false;
+            for (int i = 0; i < elements.length; ++i) {
+                final Object element = elements[i];
+                elements[i] = view(element);
+                changed |= elements[i] != element;
+            }
+            return changed ? new CompactList<>(elements) : o;
+        }
+        return o;
+    }
+
+    private Map<?, ?> copyMap(Map<?, ?> map) {
+        final Object[] keys = map.keySet().toArray();
+        final Object[] values = new Object[keys.length];
+        boolean changed = false;
+        int i = 0;
+        for (Object value : map.values()) {
+            values[i] = view(value);
+            changed |= values[i] != value;
+            ++i;
+        }
+        return changed ? new CompactMap<>(keys, values) : map;
+    }
+
+    private static Object read(Object o, Method getter) {
+        try {
+            return getter.invoke(o);
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unable to read property " + getter.getName() + " of " + o.getClass().getName(), e);
+        }
+    }
+}
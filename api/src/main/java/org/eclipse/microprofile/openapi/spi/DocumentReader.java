@@ -0,0 +1,409 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.Extensible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.spi.TokenReader.Token;
+
+/**
+ * Reads a YAML or JSON document, such as a static <code>META-INF/openapi.yaml</code> file, into an OpenAPI model
+ * tree. The document is read as a stream of tokens, and the model elements are created with {@link OASFactory} as
+ * the tokens are read, without building an intermediate representation of the whole document.
+ * <p>
+ * Properties which are not defined by the model interfaces are ignored, except for extensions (names starting with
+ * <code>x-</code>). For YAML documents, the subset of YAML used by OpenAPI documents is supported: anchors, aliases,
+ * tags, complex keys and multiple documents are not, and a document using them is reported as an {@link IOException}.
+ */
+public final class DocumentReader {
+
+    /**
+     * The size from which files are memory-mapped rather than read through a stream.
+     */
+    private static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+    private static final ClassValue<Map<String, Method[]>> SETTERS = new ClassValue<Map<String, Method[]>>() {
+        @Override
+        protected Map<String, Method[]> computeValue(Class<?> type) {
+            final Map<String, List<Method>> setters = new HashMap<>();
+            for (Method m : type.getMethods()) {
+                if (m.getName().startsWith("set") && m.getName().length() > 3 && m.getParameterCount() == 1
+                        && !Modifier.isStatic(m.getModifiers()) && !m.getName().equals("setExtensions")) {
+                    setters.computeIfAbsent(ModelType.propertyName(m.getName().substring(3)), k -> new ArrayList<>()).add(m);
+                }
+            }
+            final Map<String, Method[]> result = new HashMap<>();
+            for (Map.Entry<String, List<Method>> e : setters.entrySet()) {
+                result.put(e.getKey(), e.getValue().toArray(new Method[e.getValue().size()]));
+            }
+            return result;
+        }
+    };
+
+    private final TokenReader tokens;
+    private final StringPool strings;
+
+    private DocumentReader(TokenReader tokens, StringPool strings) {
+        this.tokens = tokens;
+        this.strings = strings;
+    }
+
+    /**
+     * Reads a document from the given stream. The stream is not closed. Equal strings of the document, including map
+     * keys, are deduplicated.
+     * <p>
+     * This is equivalent to <code>read(in, format, new StringPool())</code>.
+     *
+     * @param in the stream to read from, encoded in UTF-8
+     * @param format the format of the document
+     * @return the model tree, or null if the document is empty
+     *
+     * @throws IOException if reading fails or the document is invalid
+     * @throws NullPointerException if any argument is null
+     */
+    public static OpenAPI read(InputStream in, DocumentWriter.Format format) throws IOException {
+        return read(in, format, new StringPool());
+    }
+
+    /**
+     * Reads a document from the given stream. The stream is not closed. The strings of the model tree, including map
+     * keys, are replaced by their canonical instance from the given pool, e.g. a pool shared with the annotation scanner.
+     *
+     * @param in the stream to read from, encoded in UTF-8
+     * @param format the format of the document
+     * @param strings the pool of canonical strings
+     * @return the model tree, or null if the document is empty
+     *
+     * @throws IOException if reading fails or the document is invalid
+     * @throws NullPointerException if any argument is null
+     */
+    public static OpenAPI read(InputStream in, DocumentWriter.Format format, StringPool strings) throws IOException {
+        if (in == null || format == null || strings == null) {
+            throw new NullPointerException();
+        }
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        final TokenReader tokens = format == DocumentWriter.Format.JSON ? new JsonTokenReader(reader) : new YamlTokenReader(reader);
+        final DocumentReader documentReader = new DocumentReader(tokens, strings);
+        final OpenAPI openAPI = (OpenAPI) documentReader.value(tokens.next(), OpenAPI.class, "");
+        if (tokens.next() != Token.END) {
+            throw tokens.error("unexpected content after the document");
+        }
+        return openAPI;
+    }
+
+    /**
+     * Reads a document from the given file. The format of the document is given by the extension of the file name:
+     * <code>.json</code> for JSON, <code>.yaml</code> or <code>.yml</code> for YAML. Large files are memory-mapped.
+     * <p>
+     * This is equivalent to <code>read(file, new StringPool())</code>.
+     *
+     * @param file the file to read
+     * @return the model tree, or null if the document is empty
+     *
+     * @throws IOException if reading fails or the document is invalid
+     * @throws IllegalArgumentException if the extension of the file name is not one of the above
+     * @throws NullPointerException if the file is null
+     */
+    public static OpenAPI read(Path file) throws IOException {
+        return read(file, new StringPool());
+    }
+
+    /**
+     * Reads a document from the given file, as described in {@link #read(Path)}. The strings of the model tree,
+     * including map keys, are replaced by their canonical instance from the given pool.
+     *
+     * @param file the file to read
+     * @param strings the pool of canonical strings
+     * @return the model tree, or null if the document is empty
+     *
+     * @throws IOException if reading fails or the document is invalid
+     * @throws IllegalArgumentException if the extension of the file name is not one of the above
+     * @throws NullPointerException if any argument is null
+     */
+    public static OpenAPI read(Path file, StringPool strings) throws IOException {
+        final DocumentWriter.Format format = formatOf(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size >= MAPPING_THRESHOLD && size <= Integer.MAX_VALUE) {
+                return read(new BufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)), format, strings);
+            }
+            return read(Channels.newInputStream(channel), format, strings);
+        }
+    }
+
+    static DocumentWriter.Format formatOf(Path file) {
+        final Path fileName = file.getFileName();
+        final String name = fileName != null ? fileName.toString().toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".json")) {
+            return DocumentWriter.Format.JSON;
+        }
+        if (name.endsWith(".yaml") || name.endsWith(".yml")) {
+            return DocumentWriter.Format.YAML;
+        }
+        throw new IllegalArgumentException("Unknown document format: " + file);
+    }
+
+    /**
+     * Reads the value starting with the given token, as an instance of the given type.
+     */
+    private Object value(Token token, Type type, String path) throws IOException {
+        final Class<?> rawType = rawType(type);
+        switch (token) {
+            case SCALAR:
+                return scalar(rawType, path);
+            case START_MAP:
+                if (Constructible.class.isAssignableFrom(rawType) && rawType.isInterface() && rawType != Constructible.class) {
+                    return model(rawType.asSubclass(Constructible.class), path);
+                }
+                if (rawType == Map.class || rawType == Object.class) {
+                    final Map<String, Object> map = new LinkedHashMap<>();
+                    final Type valueType = typeArgument(type, Map.class, 1);
+                    for (Token t = tokens.next(); t != Token.END_MAP; t = tokens.next()) {
+                        final String key = key(t);
+                        map.put(key, value(tokens.next(), valueType, path + "/" + key));
+                    }
+                    return map;
+                }
+                throw tokens.error("unexpected mapping at " + path);
+            case START_LIST:
+                if (rawType == List.class || rawType == Object.class) {
+                    final List<Object> list = new ArrayList<>();
+                    final Type elementType = typeArgument(type, List.class, 0);
+                    for (Token t = tokens.next(); t != Token.END_LIST; t = tokens.next()) {
+                        list.add(value(t, elementType, path + "/" + list.size()));
+                    }
+                    return list;
+                }
+                throw tokens.error("unexpected sequence at " + path);
+            default:
+                throw tokens.error("unexpected " + token + " at " + path);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object model(Class<? extends Constructible> type, String path) throws IOException {
+        final Constructible model = OASFactory.createObject(type);
+        final Map<String, Method[]> setters = SETTERS.get(type);
+        final Type entryType = Map.class.isAssignableFrom(type) ? typeArgument(type, Map.class, 1) : null;
+        for (Token t = tokens.next(); t != Token.END_MAP; t = tokens.next()) {
+            final String key = key(t);
+            final Method[] candidates = setters.get(key);
+            final Token valueToken = tokens.next();
+            if (candidates != null) {
+                final Method setter = select(candidates, valueToken);
+                final Object value = value(valueToken, setter.getGenericParameterTypes()[0], path + "/" + key);
+                try {
+                    setter.invoke(model, value);
+                }
+                catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new IllegalArgumentException("Unable to set property " + setter.getName() + " of " + model.getClass().getName(), e);
+                }
+            }
+            else if (key.startsWith("x-") && model instanceof Extensible) {
+                ((Extensible) model).addExtension(key, value(valueToken, Object.class, path + "/" + key));
+            }
+            else if (entryType != null) {
+                ((Map<String, Object>) model).put(key, value(valueToken, entryType, path + "/" + key));
+            }
+            else {
+                tokens.skip(valueToken);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Selects the setter to use for a property which has several setters (e.g. additionalProperties of a Schema,
+     * which is either a Schema or a Boolean), according to the kind of value.
+     */
+    private static Method select(Method[] candidates, Token token) {
+        if (candidates.length > 1) {
+            for (Method m : candidates) {
+                final Class<?> type = m.getParameterTypes()[0];
+                final boolean scalarType = !Constructible.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type)
+                        && !List.class.isAssignableFrom(type);
+                if (scalarType == (token == Token.SCALAR)) {
+                    return m;
+                }
+            }
+        }
+        return candidates[0];
+    }
+
+    private String key(Token token) throws IOException {
+        if (token != Token.KEY) {
+            throw tokens.error("expected a key but found " + token);
+        }
+        return strings.canonicalize(tokens.text());
+    }
+
+    private Object scalar(Class<?> type, String path) throws IOException {
+        final String text = tokens.text();
+        final boolean plain = tokens.isPlain();
+        if (text == null || (plain && (text.equals("null") || text.equals("~") || text.equals("Null") || text.equals("NULL")))) {
+            return null;
+        }
+        try {
+            if (type == String.class) {
+                return strings.canonicalize(text);
+            }
+            if (type == Boolean.class || type == boolean.class) {
+                if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+                    return Boolean.valueOf(text);
+                }
+                throw tokens.error("expected a boolean at " + path);
+            }
+            if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(text);
+            }
+            if (type == BigDecimal.class) {
+                return new BigDecimal(text);
+            }
+            if (type.isEnum()) {
+                for (Object constant : type.getEnumConstants()) {
+                    if (constant.toString().equals(text) || ((Enum<?>) constant).name().equals(text)) {
+                        return constant;
+                    }
+                }
+                throw tokens.error("unexpected value '" + text + "' at " + path);
+            }
+            if (type == Object.class) {
+                final Object value = plain ? plainValue(text) : text;
+                return value instanceof String ? strings.canonicalize((String) value) : value;
+            }
+        }
+        catch (NumberFormatException e) {
+            throw tokens.error("expected a number at " + path);
+        }
+        throw tokens.error("unexpected scalar at " + path);
+    }
+
+    /**
+     * Returns the value of a plain scalar of unknown type: a boolean, an integer, a decimal number or a string.
+     */
+    private static Object plainValue(String text) {
+        if (text.equals("true") || text.equals("false")) {
+            return Boolean.valueOf(text);
+        }
+        if (text.matches("[-+]?[0-9]+")) {
+            final BigInteger value = new BigInteger(text);
+            if (value.bitLength() < 32) {
+                return value.intValue();
+            }
+            return value.bitLength() < 64 ? (Object) value.longValue() : value;
+        }
+        if (text.matches("[-+]?([0-9]+\\.?[0-9]*|\\.[0-9]+)([eE][-+]?[0-9]+)?")) {
+            return new BigDecimal(text);
+        }
+        return text;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    /**
+     * Returns a type argument of the given generic interface, as implemented or extended by the given type (e.g. the
+     * value type of <code>Map&lt;String, Schema&gt;</code>, or of the Paths interface).
+     */
+    private static Type typeArgument(Type type, Class<?> genericInterface, int index) {
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == genericInterface) {
+            return ((ParameterizedType) type).getActualTypeArguments()[index];
+        }
+        final Class<?> rawType = rawType(type);
+        if (rawType != genericInterface) {
+            for (Type superInterface : rawType.getGenericInterfaces()) {
+                if (genericInterface.isAssignableFrom(rawType(superInterface))) {
+                    return typeArgument(superInterface, genericInterface, index);
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * Reads the content of a buffer, typically a memory-mapped file.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,618 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.ExternalDocumentation;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.examples.Example;
+import org.eclipse.microprofile.openapi.models.headers.Header;
+import org.eclipse.microprofile.openapi.models.info.Contact;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.info.License;
+import org.eclipse.microprofile.openapi.models.links.Link;
+import org.eclipse.microprofile.openapi.models.media.Discriminator;
+import org.eclipse.microprofile.openapi.models.media.Encoding;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.media.XML;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.parameters.RequestBody;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.security.OAuthFlow;
+import org.eclipse.microprofile.openapi.models.security.OAuthFlows;
+import org.eclipse.microprofile.openapi.models.security.SecurityScheme;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.servers.ServerVariable;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+
+/**
+ * Writes an OpenAPI model tree as a YAML or JSON document. The model tree is walked once and written to the stream
+ * as it goes, without building an intermediate representation of the whole document.
+ * <p>
+ * Properties which are null are not written. The properties of a model element are written in the order in which the
+ * OpenAPI specification lists the fields of the corresponding object (e.g. <code>openapi</code>, <code>info</code>,
+ * <code>servers</code>, <code>paths</code> and <code>components</code> for the OpenAPI object), with
+ * <code>$ref</code> first and the properties not listed there last, in the alphabetical order of their names. They are
+ * followed by the entries of the element if it is a map (e.g. Paths), then by its extensions.
+ * Documents are encoded in UTF-8.
+ */
+public final class DocumentWriter {
+
+    /**
+     * The formats in which a document can be written.
+     */
+    public enum Format {
+        YAML("application/yaml"), JSON("application/json");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * Returns the media type of documents in this format.
+         *
+         * @return the media type
+         */
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private static final String EXTENSIONS = "extensions";
+
+    /**
+     * The fields of the objects of the OpenAPI specification, in the order in which the specification lists them.
+     */
+    private static final Map<Class<?>, List<String>> FIELDS = new HashMap<>();
+
+    static {
+        fields(OpenAPI.class, "openapi", "info", "servers", "paths", "components", "security", "tags", "externalDocs");
+        fields(Info.class, "title", "description", "termsOfService", "contact", "license", "version");
+        fields(Contact.class, "name", "url", "email");
+        fields(License.class, "name", "url");
+        fields(Server.class, "url", "description", "variables");
+        fields(ServerVariable.class, "enum", "default", "description");
+        fields(Components.class, "schemas", "responses", "parameters", "examples", "requestBodies", "headers", "securitySchemes",
+                "links", "callbacks");
+        fields(PathItem.class, "summary", "description", "get", "put", "post", "delete", "options", "head", "patch", "trace",
+                "servers", "parameters");
+        fields(Operation.class, "tags", "summary", "description", "externalDocs", "operationId", "parameters", "requestBody",
+                "responses", "callbacks", "deprecated", "security", "servers");
+        fields(ExternalDocumentation.class, "description", "url");
+        fields(Parameter.class, "name", "in", "description", "required", "deprecated", "allowEmptyValue", "style", "explode",
+                "allowReserved", "schema", "example", "examples", "content");
+        fields(RequestBody.class, "description", "content", "required");
+        fields(MediaType.class, "schema", "example", "examples", "encoding");
+        fields(Encoding.class, "contentType", "headers", "style", "explode", "allowReserved");
+        fields(APIResponse.class, "description", "headers", "content", "links");
+        fields(Example.class, "summary", "description", "value", "externalValue");
+        fields(Link.class, "operationRef", "operationId", "parameters", "requestBody", "description", "server");
+        fields(Header.class, "description", "required", "deprecated", "allowEmptyValue", "style", "explode", "allowReserved",
+                "schema", "example", "examples", "content");
+        fields(Tag.class, "name", "description", "externalDocs");
+        fields(Schema.class, "title", "multipleOf", "maximum", "exclusiveMaximum", "minimum", "exclusiveMinimum", "maxLength",
+                "minLength", "pattern", "maxItems", "minItems", "uniqueItems", "maxProperties", "minProperties", "required", "enum",
+                "type", "allOf", "oneOf", "anyOf", "not", "items", "properties", "additionalProperties", "description", "format",
+                "default", "nullable", "discriminator", "readOnly", "writeOnly", "xml", "externalDocs", "example", "deprecated");
+        fields(Discriminator.class, "propertyName", "mapping");
+        fields(XML.class, "name", "namespace", "prefix", "attribute", "wrapped");
+        fields(SecurityScheme.class, "type", "description", "name", "in", "scheme", "bearerFormat", "flows", "openIdConnectUrl");
+        fields(OAuthFlows.class, "implicit", "password", "clientCredentials", "authorizationCode");
+        fields(OAuthFlow.class, "authorizationUrl", "tokenUrl", "refreshUrl", "scopes");
+    }
+
+    /**
+     * The names of the properties of a model class, followed by their indexes in the model type in the order in which
+     * they are written.
+     */
+    private static final ClassValue<Properties> PROPERTIES = new ClassValue<Properties>() {
+        @Override
+        protected Properties computeValue(Class<?> type) {
+            return new Properties(ModelType.of(type));
+        }
+    };
+
+    private final Writer out;
+    private final Set<Object> active = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private DocumentWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes the given model tree to the given stream. The stream is flushed but not closed.
+     *
+     * @param openAPI the model tree to write
+     * @param format the format of the document
+     * @param out the stream to write to
+     *
+     * @throws IOException if writing to the stream fails
+     * @throws IllegalArgumentException if the model tree contains a cycle
+     * @throws NullPointerException if any argument is null
+     */
+    public static void write(OpenAPI openAPI, Format format, OutputStream out) throws IOException {
+        if (openAPI == null || format == null || out == null) {
+            throw new NullPointerException();
+        }
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        final DocumentWriter documentWriter = new DocumentWriter(writer);
+        if (format == Format.JSON) {
+            documentWriter.json(openAPI, 0);
+        }
+        else {
+            documentWriter.yamlDocument(openAPI);
+        }
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Writes the given model tree to the given channel. The channel is not closed.
+     *
+     * @param openAPI the model tree to write
+     * @param format the format of the document
+     * @param channel the channel to write to
+     *
+     * @throws IOException if writing to the channel fails
+     * @throws IllegalArgumentException if the model tree contains a cycle
+     * @throws NullPointerException if any argument is null
+     */
+    public static void write(OpenAPI openAPI, Format format, WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new NullPointerException();
+        }
+        write(openAPI, format, Channels.newOutputStream(channel));
+    }
+
+    private void json(Object value, int indent) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        final List<Map.Entry<String, Object>> entries = entries(value);
+        if (entries != null) {
+            enter(value);
+            if (entries.isEmpty()) {
+                out.write("{}");
+            }
+            else {
+                out.write('{');
+                boolean first = true;
+                for (Map.Entry<String, Object> e : entries) {
+                    out.write(first ? "\n" : ",\n");
+                    first = false;
+                    if (e.getValue() instanceof Splice) {
+                        out.write(((Splice) e.getValue()).text(Format.JSON, indent + 1));
+                        continue;
+                    }
+                    indent(indent + 1);
+                    quoted(e.getKey());
+                    out.write(": ");
+                    json(e.getValue(), indent + 1);
+                }
+                out.write('\n');
+                indent(indent);
+                out.write('}');
+            }
+            active.remove(value);
+        }
+        else if (value instanceof Collection) {
+            enter(value);
+            final Collection<?> items = (Collection<?>) value;
+            if (items.isEmpty()) {
+                out.write("[]");
+            }
+            else {
+                out.write('[');
+                boolean first = true;
+                for (Object item : items) {
+                    out.write(first ? "\n" : ",\n");
+                    first = false;
+                    indent(indent + 1);
+                    json(item, indent + 1);
+                }
+                out.write('\n');
+                indent(indent);
+                out.write(']');
+            }
+            active.remove(value);
+        }
+        else if (value instanceof Boolean || isFiniteNumber(value)) {
+            out.write(value.toString());
+        }
+        else {
+            quoted(value.toString());
+        }
+    }
+
+    private void yamlDocument(OpenAPI openAPI) throws IOException {
+        final List<Map.Entry<String, Object>> entries = entries(openAPI);
+        if (entries.isEmpty()) {
+            out.write("{}");
+        }
+        else {
+            enter(openAPI);
+            yamlMapping(entries, 0, true);
+            active.remove(openAPI);
+        }
+    }
+
+    /**
+     * Writes the entries of a non-empty mapping, one per line. When inline is true, the first entry is written on the
+     * current line, after a sequence indicator or at the start of the document.
+     */
+    private void yamlMapping(List<Map.Entry<String, Object>> entries, int indent, boolean inline) throws IOException {
+        boolean first = inline;
+        for (Map.Entry<String, Object> e : entries) {
+            if (e.getValue() instanceof Splice) {
+                out.write(((Splice) e.getValue()).text(Format.YAML, indent));
+                first = false;
+                continue;
+            }
+            if (!first) {
+                out.write('\n');
+                indent(indent);
+            }
+            first = false;
+            yamlScalar(e.getKey());
+            out.write(':');
+            yamlValue(e.getValue(), indent + 1, false);
+        }
+    }
+
+    /**
+     * Writes the items of a non-empty sequence, one per line.
+     */
+    private void yamlSequence(Collection<?> items, int indent, boolean inline) throws IOException {
+        boolean first = inline;
+        for (Object item : items) {
+            if (!first) {
+                out.write('\n');
+                indent(indent);
+            }
+            first = false;
+            out.write('-');
+            yamlValue(item, indent + 1, true);
+        }
+    }
+
+    /**
+     * Writes a value after a mapping key or a sequence indicator. Nested collections start on the same line when the
+     * value is a sequence item, and on the next line otherwise.
+     */
+    private void yamlValue(Object value, int indent, boolean inline) throws IOException {
+        if (value == null) {
+            out.write(" null");
+            return;
+        }
+        final List<Map.Entry<String, Object>> entries = entries(value);
+        if (entries != null) {
+            if (entries.isEmpty()) {
+                out.write(" {}");
+                return;
+            }
+            enter(value);
+            if (inline) {
+                out.write(' ');
+            }
+            yamlMapping(entries, indent, inline);
+            active.remove(value);
+        }
+        else if (value instanceof Collection) {
+            final Collection<?> items = (Collection<?>) value;
+            if (items.isEmpty()) {
+                out.write(" []");
+                return;
+            }
+            enter(value);
+            if (inline) {
+                out.write(' ');
+            }
+            yamlSequence(items, indent, inline);
+            active.remove(value);
+        }
+        else {
+            out.write(' ');
+            if (value instanceof Boolean || isFiniteNumber(value)) {
+                out.write(value.toString());
+            }
+            else {
+                yamlScalar(value.toString());
+            }
+        }
+    }
+
+    /**
+     * Renders the entries of the given map which are not null, as they are written within a mapping at the given
+     * depth: separated by commas in JSON, and each preceded by a line break in YAML.
+     */
+    static String render(Map<?, ?> map, Format format, int depth) {
+        final StringWriter text = new StringWriter();
+        final DocumentWriter writer = new DocumentWriter(text);
+        try {
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (e.getValue() == null) {
+                    continue;
+                }
+                if (format == Format.JSON) {
+                    if (text.getBuffer().length() > 0) {
+                        text.write(",\n");
+                    }
+                    writer.indent(depth);
+                    writer.quoted(String.valueOf(e.getKey()));
+                    text.write(": ");
+                    writer.json(e.getValue(), depth);
+                }
+                else {
+                    text.write('\n');
+                    writer.indent(depth);
+                    writer.yamlScalar(String.valueOf(e.getKey()));
+                    text.write(':');
+                    writer.yamlValue(e.getValue(), depth + 1, false);
+                }
+            }
+        }
+        catch (IOException e) {
+            // A StringWriter does not throw IOException.
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    private void yamlScalar(String s) throws IOException {
+        if (isPlain(s)) {
+            out.write(s);
+        }
+        else {
+            quoted(s);
+        }
+    }
+
+    /**
+     * Returns true if the given string can be written as a plain YAML scalar and read back as the same string, in
+     * both YAML 1.1 and 1.2.
+     */
+    private static boolean isPlain(String s) {
+        if (s.isEmpty() || "-?:,[]{}#&*!|>'\"%@`".indexOf(s.charAt(0)) >= 0) {
+            return false;
+        }
+        final char first = s.charAt(0);
+        final char last = s.charAt(s.length() - 1);
+        // Numbers, dates, versions and special floats are quoted so that they are read as strings.
+        if (first == ' ' || first == '.' || first == '+' || (first >= '0' && first <= '9') || last == ' ' || last == ':') {
+            return false;
+        }
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c < 0x20 || c >= 0x7F) {
+                return false;
+            }
+        }
+        if (s.contains(": ") || s.contains(" #")) {
+            return false;
+        }
+        switch (s.toLowerCase(Locale.ROOT)) {
+            case "null":
+            case "~":
+            case "true":
+            case "false":
+            case "yes":
+            case "no":
+            case "on":
+            case "off":
+            case "y":
+            case "n":
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Writes a double-quoted string. The escape sequences used are valid in both JSON and YAML.
+     */
+    private void quoted(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            final String escape;
+            switch (c) {
+                case '"':
+                    escape = "\\\"";
+                    break;
+                case '\\':
+                    escape = "\\\\";
+                    break;
+                case '\n':
+                    escape = "\\n";
+                    break;
+                case '\r':
+                    escape = "\\r";
+                    break;
+                case '\t':
+                    escape = "\\t";
+                    break;
+                default:
+                    escape = c < 0x20 || c == 0x7F || c == 0x85 || c == 0x2028 || c == 0x2029 ? String.format("\\u%04x", (int) c) : null;
+                    break;
+            }
+            if (escape != null) {
+                out.write(s, start, i - start);
+                out.write(escape);
+                start = i + 1;
+            }
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+
+    private void indent(int level) throws IOException {
+        for (int i = 0; i < level; ++i) {
+            out.write("  ");
+        }
+    }
+
+    private void enter(Object value) {
+        if (!active.add(value)) {
+            throw new IllegalArgumentException("The OpenAPI model tree contains a cycle through " + value.getClass().getName());
+        }
+    }
+
+    static boolean isFiniteNumber(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            final double d = ((Number) value).doubleValue();
+            return !Double.isNaN(d) && !Double.isInfinite(d);
+        }
+        return value instanceof Number;
+    }
+
+    /**
+     * Returns the entries of a model element or map, or null if the given value is neither. Only the entries of
+     * this element are collected, not those of its descendants.
+     */
+    static List<Map.Entry<String, Object>> entries(Object value) {
+        if (value instanceof Constructible) {
+            final ModelType type = ModelType.of(value.getClass());
+            if (type.isModel()) {
+                return modelEntries(value, type);
+            }
+        }
+        if (value instanceof Map) {
+            final List<Map.Entry<String, Object>> entries = new ArrayList<>(((Map<?, ?>) value).size());
+            addAll(entries, (Map<?, ?>) value);
+            return entries;
+        }
+        return null;
+    }
+
+    private static List<Map.Entry<String, Object>> modelEntries(Object value, ModelType type) {
+        final Properties properties = PROPERTIES.get(value.getClass());
+        final List<Map.Entry<String, Object>> entries = new ArrayList<>();
+        Map<?, ?> extensions = null;
+        for (int i : properties.order) {
+            final Object property = read(value, type.getter(i));
+            if (property == null) {
+                continue;
+            }
+            if (properties.names[i].equals(EXTENSIONS)) {
+                extensions = (Map<?, ?>) property;
+            }
+            else {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(properties.names[i], property));
+            }
+        }
+        if (type.isMap()) {
+            addAll(entries, (Map<?, ?>) value);
+        }
+        if (extensions != null) {
+            addAll(entries, extensions);
+        }
+        return entries;
+    }
+
+    private static void addAll(List<Map.Entry<String, Object>> entries, Map<?, ?> map) {
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(String.valueOf(e.getKey()), e.getValue()));
+        }
+    }
+
+    private static void fields(Class<?> type, String... names) {
+        FIELDS.put(type, Arrays.asList(names));
+    }
+
+    /**
+     * The names of the properties of a model class, indexed as in its model type, and the order in which they are
+     * written: <code>$ref</code> first, then the fields listed by the specification, then the other properties in the
+     * alphabetical order of their names.
+     */
+    private static final class Properties {
+
+        private final String[] names;
+        private final int[] order;
+
+        Properties(ModelType type) {
+            names = new String[type.size()];
+            for (int i = 0; i < names.length; ++i) {
+                final String getterName = type.getter(i).getName();
+                names[i] = ModelType.propertyName(getterName.substring(getterName.startsWith("is") ? 2 : 3));
+            }
+            List<String> fields = Collections.emptyList();
+            for (Class<?> i : type.getInterfaces()) {
+                fields = FIELDS.getOrDefault(i, fields);
+            }
+            final List<String> specified = fields;
+            final Integer[] indexes = new Integer[names.length];
+            for (int i = 0; i < indexes.length; ++i) {
+                indexes[i] = i;
+            }
+            Arrays.sort(indexes, Comparator.comparingInt((Integer i) -> rank(specified, names[i])).thenComparing(i -> names[i]));
+            order = new int[indexes.length];
+            for (int i = 0; i < indexes.length; ++i) {
+                order[i] = indexes[i];
+            }
+        }
+
+        private static int rank(List<String> fields, String name) {
+            if (name.equals("$ref")) {
+                return -1;
+            }
+            final int index = fields.indexOf(name);
+            return index >= 0 ? index : fields.size();
+        }
+    }
+
+    private static Object read(Object value, Method getter) {
+        try {
+            return getter.invoke(value);
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unable to read property " + getter.getName() + " of " + value.getClass().getName(), e);
+        }
+    }
+}
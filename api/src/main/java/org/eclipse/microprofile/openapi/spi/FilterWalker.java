@@ -0,0 +1,704 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.microprofile.openapi.OASFilter;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.callbacks.Callback;
+import org.eclipse.microprofile.openapi.models.headers.Header;
+import org.eclipse.microprofile.openapi.models.links.Link;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.Encoding;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.parameters.RequestBody;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.models.security.SecurityScheme;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+
+/**
+ * Walks an OpenAPI model tree and invokes the methods of an {@link OASFilter} for each filtered element, as required
+ * by step 5 of the processing rules. Vendors may use this class instead of writing their own traversal.
+ * <p>
+ * The model tree is updated in place. Elements for which the filter returns null are removed from their parent, and
+ * elements for which the filter returns a different instance are replaced. All filterable descendants of an element
+ * are filtered before the element itself, and {@link OASFilter#filterOpenAPI(OpenAPI)} is called last.
+ * <p>
+ * When the filter declares itself thread-safe (see {@link OASFilter#isThreadSafe()}) and a {@link ForkJoinPool} is
+ * given, the entries of the Paths element and of each map of the Components element are filtered concurrently. No
+ * element is filtered by two threads at once: the entries whose subtrees share an element with another entry, e.g.
+ * a schema used by several operations, are filtered one at a time by the calling thread, and only the other entries
+ * are filtered concurrently. The entries are replaced or removed by the calling thread, in their original order.
+ * The resulting model tree is the same as with a sequential walk as long as the result of the filter for an element
+ * does not depend on the order in which the other elements are filtered.
+ * <p>
+ * Only the subtrees which contain elements the filter is interested in are walked. A filter is interested in the
+ * elements of a given type when its class overrides the corresponding method of {@link OASFilter}; methods left to
+ * their default implementation do not cause any traversal.
+ */
+public final class FilterWalker {
+
+    private static final ClassValue<Dispatch> DISPATCH = new ClassValue<Dispatch>() {
+        @Override
+        protected Dispatch computeValue(Class<?> type) {
+            return new Dispatch(type);
+        }
+    };
+
+    private final OASFilter filter;
+    private final boolean parallel;
+    private final Dispatch dispatch;
+
+    private FilterWalker(OASFilter filter, boolean parallel) {
+        this.filter = filter;
+        this.parallel = parallel;
+        this.dispatch = DISPATCH.get(filter.getClass());
+    }
+
+    /**
+     * Filters the given model tree using the calling thread only.
+     *
+     * @param openAPI the model tree to filter
+     * @param filter the filter to invoke
+     *
+     * @throws NullPointerException if the model tree or the filter is null
+     */
+    public static void filter(OpenAPI openAPI, OASFilter filter) {
+        if (openAPI == null || filter == null) {
+            throw new NullPointerException();
+        }
+        new FilterWalker(filter, false).new Walk().openAPI(openAPI);
+    }
+
+    /**
+     * Filters the given model tree. Independent subtrees are filtered concurrently in the given pool if the filter
+     * declares itself thread-safe, otherwise the model tree is filtered using the calling thread only.
+     *
+     * @param openAPI the model tree to filter
+     * @param filter the filter to invoke
+     * @param pool the pool used to filter independent subtrees concurrently
+     *
+     * @throws NullPointerException if the model tree, the filter or the pool is null
+     */
+    public static void filter(OpenAPI openAPI, OASFilter filter, ForkJoinPool pool) {
+        if (openAPI == null || filter == null || pool == null) {
+            throw new NullPointerException();
+        }
+        if (!filter.isThreadSafe()) {
+            filter(openAPI, filter);
+            return;
+        }
+        final FilterWalker walker = new FilterWalker(filter, true);
+        pool.invoke(ForkJoinTask.adapt(() -> walker.new Walk().openAPI(openAPI)));
+    }
+
+    /**
+     * Filters the given values, concurrently when this walker is parallel and the calling thread runs in a
+     * ForkJoinPool. Each value filtered concurrently is filtered by a new Walk, as the walk state is not shared between
+     * threads. The values sharing elements with other values are filtered by the current walk, one at a time.
+     */
+    private <T> List<T> forEach(List<T> values, Walk current, WalkFunction<T> function) {
+        final List<T> results = new ArrayList<>(values.size());
+        if (!parallel || values.size() < 2 || !ForkJoinTask.inForkJoinPool()) {
+            for (T value : values) {
+                results.add(function.apply(current, value));
+            }
+            return results;
+        }
+        final boolean[] shared = shared(values);
+        final List<ForkJoinTask<T>> tasks = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); ++i) {
+            final T value = values.get(i);
+            tasks.add(shared[i] ? null : ForkJoinTask.adapt(() -> function.apply(new Walk(), value)).fork());
+        }
+        for (int i = 0; i < values.size(); ++i) {
+            results.add(shared[i] ? function.apply(current, values.get(i)) : null);
+        }
+        for (int i = 0; i < values.size(); ++i) {
+            if (!shared[i]) {
+                results.set(i, tasks.get(i).join());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns, for each of the given values, whether its subtree shares a model element with the subtree of another
+     * value. The subtrees are explored concurrently, without being modified.
+     */
+    private static boolean[] shared(List<?> values) {
+        final List<ForkJoinTask<Set<Object>>> tasks = new ArrayList<>(values.size());
+        for (Object value : values) {
+            tasks.add(ForkJoinTask.adapt(() -> elements(value)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        final Map<Object, Integer> owners = new IdentityHashMap<>();
+        final boolean[] shared = new boolean[values.size()];
+        for (int i = 0; i < shared.length; ++i) {
+            for (Object element : tasks.get(i).join()) {
+                final Integer owner = owners.putIfAbsent(element, i);
+                if (owner != null) {
+                    shared[owner] = true;
+                    shared[i] = true;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the model elements of the subtree of the given value, including the value itself.
+     */
+    private static Set<Object> elements(Object root) {
+        final Set<Object> elements = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Set<Object> containers = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Object o = pending.pop();
+            if (o instanceof Constructible) {
+                if (!elements.add(o)) {
+                    continue;
+                }
+                final ModelType type = ModelType.of(o.getClass());
+                for (int i = 0; i < type.size(); ++i) {
+                    push(pending, ModelMerger.read(o, type.getter(i)));
+                }
+            }
+            else if (!containers.add(o)) {
+                continue;
+            }
+            if (o instanceof Map) {
+                for (Object value : ((Map<?, ?>) o).values()) {
+                    push(pending, value);
+                }
+            }
+            else if (o instanceof List) {
+                for (Object element : (List<?>) o) {
+                    push(pending, element);
+                }
+            }
+        }
+        return elements;
+    }
+
+    private static void push(Deque<Object> pending, Object value) {
+        if (value instanceof Constructible || value instanceof Map || value instanceof List) {
+            pending.push(value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface WalkFunction<T> {
+        T apply(Walk walk, T value);
+    }
+
+    /**
+     * The state of a walk over a subtree, confined to a single thread. It keeps track of the elements being
+     * filtered so that cycles in the model tree do not cause an infinite recursion.
+     */
+    private final class Walk {
+
+        private final Set<Object> active = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        void openAPI(OpenAPI openAPI) {
+            final List<Server> servers = dispatch.servers ? list(openAPI.getServers(), this::server) : null;
+            if (servers != null) {
+                openAPI.setServers(servers);
+            }
+            if (dispatch.pathItems && openAPI.getPaths() != null) {
+                paths(openAPI.getPaths());
+            }
+            if (openAPI.getComponents() != null) {
+                components(openAPI.getComponents());
+            }
+            final List<Tag> tags = dispatch.tags ? list(openAPI.getTags(), this::tag) : null;
+            if (tags != null) {
+                openAPI.setTags(tags);
+            }
+            filter.filterOpenAPI(openAPI);
+        }
+
+        private void paths(Paths paths) {
+            final List<String> keys = new ArrayList<>(paths.keySet());
+            final List<PathItem> results = forEach(new ArrayList<>(paths.values()), this, Walk::pathItem);
+            update(paths, keys, results);
+        }
+
+        private void components(Components c) {
+            final Map<String, Schema> schemas = dispatch.schemas ? parallelMap(c.getSchemas(), Walk::schema) : null;
+            if (schemas != null) {
+                c.setSchemas(schemas);
+            }
+            final Map<String, APIResponse> responses = dispatch.responses ? parallelMap(c.getResponses(), Walk::response) : null;
+            if (responses != null) {
+                c.setResponses(responses);
+            }
+            final Map<String, Parameter> parameters = dispatch.parameters ? parallelMap(c.getParameters(), Walk::parameter) : null;
+            if (parameters != null) {
+                c.setParameters(parameters);
+            }
+            final Map<String, RequestBody> requestBodies = dispatch.requestBodies ? parallelMap(c.getRequestBodies(), Walk::requestBody) : null;
+            if (requestBodies != null) {
+                c.setRequestBodies(requestBodies);
+            }
+            final Map<String, Header> headers = dispatch.headers ? parallelMap(c.getHeaders(), Walk::header) : null;
+            if (headers != null) {
+                c.setHeaders(headers);
+            }
+            final Map<String, SecurityScheme> securitySchemes = dispatch.securitySchemes
+                    ? parallelMap(c.getSecuritySchemes(), Walk::securityScheme) : null;
+            if (securitySchemes != null) {
+                c.setSecuritySchemes(securitySchemes);
+            }
+            final Map<String, Link> links = dispatch.links ? parallelMap(c.getLinks(), Walk::link) : null;
+            if (links != null) {
+                c.setLinks(links);
+            }
+            final Map<String, Callback> callbacks = dispatch.pathItems ? parallelMap(c.getCallbacks(), Walk::callback) : null;
+            if (callbacks != null) {
+                c.setCallbacks(callbacks);
+            }
+        }
+
+        private PathItem pathItem(PathItem item) {
+            if (item == null || !active.add(item)) {
+                return item;
+            }
+            try {
+                final List<Parameter> parameters = dispatch.parameters ? list(item.getParameters(), this::parameter) : null;
+                if (parameters != null) {
+                    item.setParameters(parameters);
+                }
+                for (Map.Entry<PathItem.HttpMethod, Operation> e : new ArrayList<>(item.readOperationsMap().entrySet())) {
+                    final Operation result = operation(e.getValue());
+                    if (result != e.getValue()) {
+                        setOperation(item, e.getKey(), result);
+                    }
+                }
+                final List<Server> servers = dispatch.servers ? list(item.getServers(), this::server) : null;
+                if (servers != null) {
+                    item.setServers(servers);
+                }
+                return filter.filterPathItem(item);
+            }
+            finally {
+                active.remove(item);
+            }
+        }
+
+        private Operation operation(Operation operation) {
+            if (operation == null || !active.add(operation)) {
+                return operation;
+            }
+            try {
+                final List<Parameter> parameters = dispatch.parameters ? list(operation.getParameters(), this::parameter) : null;
+                if (parameters != null) {
+                    operation.setParameters(parameters);
+                }
+                final RequestBody requestBody = operation.getRequestBody();
+                if (dispatch.requestBodies && requestBody != null) {
+                    final RequestBody result = requestBody(requestBody);
+                    if (result != requestBody) {
+                        operation.setRequestBody(result);
+                    }
+                }
+                if (dispatch.responses && operation.getResponses() != null) {
+                    responses(operation.getResponses());
+                }
+                final Map<String, Callback> callbacks = map(operation.getCallbacks(), this::callback);
+                if (callbacks != null) {
+                    operation.setCallbacks(callbacks);
+                }
+                final List<Server> servers = dispatch.servers ? list(operation.getServers(), this::server) : null;
+                if (servers != null) {
+                    operation.setServers(servers);
+                }
+                return filter.filterOperation(operation);
+            }
+            finally {
+                active.remove(operation);
+            }
+        }
+
+        private void responses(APIResponses responses) {
+            final List<String> keys = new ArrayList<>(responses.keySet());
+            final List<APIResponse> results = new ArrayList<>(keys.size());
+            for (APIResponse response : new ArrayList<>(responses.values())) {
+                results.add(response(response));
+            }
+            update(responses, keys, results);
+        }
+
+        private APIResponse response(APIResponse response) {
+            if (response == null) {
+                return null;
+            }
+            final Map<String, Header> headers = dispatch.headers ? map(response.getHeaders(), this::header) : null;
+            if (headers != null) {
+                response.setHeaders(headers);
+            }
+            content(response.getContent());
+            final Map<String, Link> links = dispatch.links ? map(response.getLinks(), this::link) : null;
+            if (links != null) {
+                response.setLinks(links);
+            }
+            return filter.filterAPIResponse(response);
+        }
+
+        private Parameter parameter(Parameter parameter) {
+            if (parameter == null) {
+                return null;
+            }
+            final Schema schema = parameter.getSchema();
+            if (dispatch.schemas && schema != null) {
+                final Schema result = schema(schema);
+                if (result != schema) {
+                    parameter.setSchema(result);
+                }
+            }
+            content(parameter.getContent());
+            return filter.filterParameter(parameter);
+        }
+
+        private RequestBody requestBody(RequestBody requestBody) {
+            if (requestBody == null) {
+                return null;
+            }
+            content(requestBody.getContent());
+            return filter.filterRequestBody(requestBody);
+        }
+
+        private Header header(Header header) {
+            if (header == null) {
+                return null;
+            }
+            final Schema schema = header.getSchema();
+            if (dispatch.schemas && schema != null) {
+                final Schema result = schema(schema);
+                if (result != schema) {
+                    header.setSchema(result);
+                }
+            }
+            content(header.getContent());
+            return filter.filterHeader(header);
+        }
+
+        private void content(Content content) {
+            if (!dispatch.headers || content == null) {
+                return;
+            }
+            for (MediaType mediaType : content.values()) {
+                if (mediaType == null) {
+                    continue;
+                }
+                final Schema schema = mediaType.getSchema();
+                if (dispatch.schemas && schema != null) {
+                    final Schema result = schema(schema);
+                    if (result != schema) {
+                        mediaType.setSchema(result);
+                    }
+                }
+                if (mediaType.getEncoding() != null) {
+                    for (Encoding encoding : mediaType.getEncoding().values()) {
+                        if (encoding != null) {
+                            final Map<String, Header> headers = map(encoding.getHeaders(), this::header);
+                            if (headers != null) {
+                                encoding.setHeaders(headers);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private Schema schema(Schema schema) {
+            if (schema == null || !active.add(schema)) {
+                return schema;
+            }
+            try {
+                final Map<String, Schema> properties = map(schema.getProperties(), this::schema);
+                if (properties != null) {
+                    schema.setProperties(properties);
+                }
+                if (schema.getAdditionalProperties() instanceof Schema) {
+                    final Schema additionalProperties = (Schema) schema.getAdditionalProperties();
+                    final Schema result = schema(additionalProperties);
+                    if (result != additionalProperties) {
+                        schema.setAdditionalProperties(result);
+                    }
+                }
+                final Schema items = schema.getItems();
+                if (items != null) {
+                    final Schema result = schema(items);
+                    if (result != items) {
+                        schema.setItems(result);
+                    }
+                }
+                final Schema not = schema.getNot();
+                if (not != null) {
+                    final Schema result = schema(not);
+                    if (result != not) {
+                        schema.setNot(result);
+                    }
+                }
+                final List<Schema> allOf = list(schema.getAllOf(), this::schema);
+                if (allOf != null) {
+                    schema.setAllOf(allOf);
+                }
+                final List<Schema> anyOf = list(schema.getAnyOf(), this::schema);
+                if (anyOf != null) {
+                    schema.setAnyOf(anyOf);
+                }
+                final List<Schema> oneOf = list(schema.getOneOf(), this::schema);
+                if (oneOf != null) {
+                    schema.setOneOf(oneOf);
+                }
+                return filter.filterSchema(schema);
+            }
+            finally {
+                active.remove(schema);
+            }
+        }
+
+        private Link link(Link link) {
+            if (link == null) {
+                return null;
+            }
+            final Server server = link.getServer();
+            if (dispatch.servers && server != null) {
+                final Server result = server(server);
+                if (result != server) {
+                    link.setServer(result);
+                }
+            }
+            return filter.filterLink(link);
+        }
+
+        private Callback callback(Callback callback) {
+            if (callback == null || !active.add(callback)) {
+                return callback;
+            }
+            try {
+                final List<String> keys = new ArrayList<>(callback.keySet());
+                final List<PathItem> results = new ArrayList<>(keys.size());
+                for (PathItem item : new ArrayList<>(callback.values())) {
+                    results.add(pathItem(item));
+                }
+                update(callback, keys, results);
+                return filter.filterCallback(callback);
+            }
+            finally {
+                active.remove(callback);
+            }
+        }
+
+        private SecurityScheme securityScheme(SecurityScheme securityScheme) {
+            return securityScheme != null ? filter.filterSecurityScheme(securityScheme) : null;
+        }
+
+        private Server server(Server server) {
+            return server != null ? filter.filterServer(server) : null;
+        }
+
+        private Tag tag(Tag tag) {
+            return tag != null ? filter.filterTag(tag) : null;
+        }
+
+        /**
+         * Filters the values of a map property, possibly concurrently.
+         *
+         * @return the filtered map, or null if no value was removed or replaced
+         */
+        private <T> Map<String, T> parallelMap(Map<String, T> map, WalkFunction<T> function) {
+            if (map == null || map.isEmpty()) {
+                return null;
+            }
+            final List<String> keys = new ArrayList<>(map.keySet());
+            return changes(keys, new ArrayList<>(map.values()), forEach(new ArrayList<>(map.values()), this, function));
+        }
+    }
+
+    /**
+     * Filters the values of a map property.
+     *
+     * @return the filtered map, or null if no value was removed or replaced
+     */
+    private static <T> Map<String, T> map(Map<String, T> map, UnaryOperator<T> function) {
+        if (map == null || map.isEmpty()) {
+            return null;
+        }
+        final List<String> keys = new ArrayList<>(map.keySet());
+        final List<T> values = new ArrayList<>(map.values());
+        final List<T> results = new ArrayList<>(values.size());
+        for (T value : values) {
+            results.add(function.apply(value));
+        }
+        return changes(keys, values, results);
+    }
+
+    private static <T> Map<String, T> changes(List<String> keys, List<T> values, List<T> results) {
+        boolean changed = false;
+        for (int i = 0; i < values.size() && !changed; ++i) {
+            changed = values.get(i) != results.get(i);
+        }
+        if (!changed) {
+            return null;
+        }
+        final Map<String, T> result = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); ++i) {
+            if (results.get(i) != null) {
+                result.put(keys.get(i), results.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Filters the elements of a list property.
+     *
+     * @return the filtered list, or null if no element was removed or replaced
+     */
+    private static <T> List<T> list(List<T> list, UnaryOperator<T> function) {
+        if (list == null || list.isEmpty()) {
+            return null;
+        }
+        boolean changed = false;
+        final List<T> result = new ArrayList<>(list.size());
+        for (T element : new ArrayList<>(list)) {
+            final T filtered = function.apply(element);
+            changed |= filtered != element;
+            if (filtered != null) {
+                result.add(filtered);
+            }
+        }
+        return changed ? result : null;
+    }
+
+    /**
+     * Applies filtered values to a model element which is itself a map (e.g. Paths), in place.
+     */
+    private static <T> void update(Map<String, T> map, List<String> keys, List<T> results) {
+        final List<T> values = new ArrayList<>(map.values());
+        for (int i = 0; i < keys.size(); ++i) {
+            final T result = results.get(i);
+            if (result == null) {
+                map.remove(keys.get(i));
+            }
+            else if (result != values.get(i)) {
+                map.put(keys.get(i), result);
+            }
+        }
+    }
+
+    /**
+     * Records which kinds of subtrees must be walked for a filter class. Each flag is true when the filter overrides
+     * the method for the corresponding element type, or for any element type which may appear below it.
+     */
+    private static final class Dispatch {
+
+        private final boolean servers;
+        private final boolean tags;
+        private final boolean securitySchemes;
+        private final boolean schemas;
+        private final boolean links;
+        private final boolean headers;
+        private final boolean parameters;
+        private final boolean requestBodies;
+        private final boolean responses;
+        // Operations, path items and callbacks are nested in each other, so they share a single flag.
+        private final boolean pathItems;
+
+        Dispatch(Class<?> filterClass) {
+            servers = overrides(filterClass, "filterServer", Server.class);
+            tags = overrides(filterClass, "filterTag", Tag.class);
+            securitySchemes = overrides(filterClass, "filterSecurityScheme", SecurityScheme.class);
+            schemas = overrides(filterClass, "filterSchema", Schema.class);
+            links = overrides(filterClass, "filterLink", Link.class) || servers;
+            // Content may hold headers as well as schemas, so the headers flag covers content too.
+            headers = overrides(filterClass, "filterHeader", Header.class) || schemas;
+            parameters = overrides(filterClass, "filterParameter", Parameter.class) || headers;
+            requestBodies = overrides(filterClass, "filterRequestBody", RequestBody.class) || headers;
+            responses = overrides(filterClass, "filterAPIResponse", APIResponse.class) || headers || links;
+            pathItems = overrides(filterClass, "filterPathItem", PathItem.class)
+                    || overrides(filterClass, "filterOperation", Operation.class)
+                    || overrides(filterClass, "filterCallback", Callback.class)
+                    || parameters || requestBodies || responses || servers;
+        }
+
+        private static boolean overrides(Class<?> filterClass, String name, Class<?> parameterType) {
+            try {
+                return filterClass.getMethod(name, parameterType).getDeclaringClass() != OASFilter.class;
+            }
+            catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    }
+
+    private static void setOperation(PathItem item, PathItem.HttpMethod method, Operation operation) {
+        switch (method) {
+            case GET:
+                item.setGET(operation);
+                break;
+            case PUT:
+                item.setPUT(operation);
+                break;
+            case POST:
+                item.setPOST(operation);
+                break;
+            case DELETE:
+                item.setDELETE(operation);
+                break;
+            case OPTIONS:
+                item.setOPTIONS(operation);
+                break;
+            case HEAD:
+                item.setHEAD(operation);
+                break;
+            case PATCH:
+                item.setPATCH(operation);
+                break;
+            case TRACE:
+                item.setTRACE(operation);
+                break;
+            default:
+                throw new IllegalArgumentException(method.name());
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * The final OpenAPI document of an application, generated when the application is built.
+ * <p>
+ * When none of the sources of the document depends on the runtime environment, a build step can run all the
+ * processing rules (model reader, static file, annotations and filter) and {@link #write(OpenAPI, Map, Path) write}
+ * the resulting document into the archive, in both YAML and JSON, together with a digest of the configuration
+ * properties of the <code>mp.openapi</code> namespace used for the build. At runtime, vendors {@link #load(ClassLoader,
+ * Map) load} the generated document and serve it as is, and process the application as usual if there is no generated
+ * document or if the configuration has changed since the build.
+ * <p>
+ * Instances of this class are immutable and safe for use by multiple threads.
+ */
+public final class GeneratedDocument {
+
+    /**
+     * The location of the generated YAML document in an application archive.
+     */
+    public static final String YAML_LOCATION = "META-INF/openapi-generated.yaml";
+
+    /**
+     * The location of the generated JSON document in an application archive.
+     */
+    public static final String JSON_LOCATION = "META-INF/openapi-generated.json";
+
+    /**
+     * The location of the description of the configuration used to generate the documents, in an application archive.
+     */
+    public static final String CONFIG_LOCATION = "META-INF/openapi-generated.properties";
+
+    private static final String CONFIG_PREFIX = "mp.openapi.";
+    private static final String CONFIG_DIGEST = "config.digest";
+
+    private final Map<DocumentWriter.Format, RenderedDocument> documents;
+
+    private GeneratedDocument(Map<DocumentWriter.Format, RenderedDocument> documents) {
+        this.documents = documents;
+    }
+
+    /**
+     * Writes the final model of an application into an archive, as generated documents in both formats.
+     *
+     * @param openAPI the final model, after all the processing rules have been applied
+     * @param config the configuration properties used to create the model; only the properties of the
+     *            <code>mp.openapi</code> namespace are taken into account
+     * @param root the root directory of the archive, which contains the <code>META-INF</code> directory
+     *
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the model contains a cycle
+     * @throws NullPointerException if any argument is null
+     */
+    public static void write(OpenAPI openAPI, Map<String, String> config, Path root) throws IOException {
+        if (openAPI == null || config == null || root == null) {
+            throw new NullPointerException();
+        }
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            final Path file = root.resolve(location(format));
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                DocumentWriter.write(openAPI, format, out);
+            }
+        }
+        final Map<String, String> properties = new TreeMap<>();
+        properties.put(CONFIG_DIGEST, configDigest(config));
+        Files.write(root.resolve(CONFIG_LOCATION), properties(properties));
+    }
+
+    /**
+     * Returns the content of a properties file holding the given properties, in the order of the map. Unlike
+     * {@link Properties#store(OutputStream, String)}, no date is written, so that builds are reproducible. The keys
+     * and values are not escaped, they must not contain characters which are special in properties files.
+     */
+    private static byte[] properties(Map<String, String> properties) {
+        final StringBuilder sb = new StringBuilder("# Configuration of the generated OpenAPI documents\n");
+        for (Map.Entry<String, String> e : properties.entrySet()) {
+            sb.append(e.getKey()).append('=').append(e.getValue()).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Loads the generated documents of an application, if they were generated with the given configuration.
+     *
+     * @param loader the class loader of the application
+     * @param config the current configuration properties; only the properties of the <code>mp.openapi</code>
+     *            namespace are taken into account
+     * @return the generated documents, or null if the application has none or if they were generated with a different
+     *         configuration
+     *
+     * @throws IOException if reading fails
+     * @throws NullPointerException if the configuration is null
+     */
+    public static GeneratedDocument load(ClassLoader loader, Map<String, String> config) throws IOException {
+        final String digest = configDigest(config);
+        final ClassLoader classLoader = loader != null ? loader : ClassLoader.getSystemClassLoader();
+        final byte[] configFile = read(classLoader, CONFIG_LOCATION);
+        if (configFile == null) {
+            return null;
+        }
+        final Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(configFile));
+        if (!digest.equals(properties.getProperty(CONFIG_DIGEST))) {
+            return null;
+        }
+        final Map<DocumentWriter.Format, RenderedDocument> documents = new EnumMap<>(DocumentWriter.Format.class);
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            final byte[] body = read(classLoader, location(format));
+            if (body == null) {
+                return null;
+            }
+            documents.put(format, RenderedDocument.of(format.getMediaType(), body));
+        }
+        return new GeneratedDocument(documents);
+    }
+
+    /**
+     * Returns the location of the generated document of the given format in an application archive.
+     *
+     * @param format the format of the document
+     * @return {@link #YAML_LOCATION} or {@link #JSON_LOCATION}
+     */
+    public static String location(DocumentWriter.Format format) {
+        return format == DocumentWriter.Format.JSON ? JSON_LOCATION : YAML_LOCATION;
+    }
+
+    /**
+     * Returns the generated document in the given format, ready to be served by the <code>/openapi</code> endpoint.
+     *
+     * @param format the format of the document
+     * @return the generated document
+     */
+    public RenderedDocument get(DocumentWriter.Format format) {
+        return documents.get(format);
+    }
+
+    /**
+     * Computes a digest of the properties of the <code>mp.openapi</code> namespace, independent of their order.
+     */
+    static String configDigest(Map<String, String> config) {
+        final Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<String, String> e : config.entrySet()) {
+            if (e.getKey().startsWith(CONFIG_PREFIX)) {
+                sorted.put(e.getKey(), e.getValue());
+            }
+        }
+        final MessageDigest digest = sha256();
+        for (Map.Entry<String, String> e : sorted.entrySet()) {
+            update(digest, e.getKey());
+            update(digest, e.getValue());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    /**
+     * Returns a new SHA-256 digest, which every Java platform is required to support.
+     */
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void update(MessageDigest digest, String s) {
+        final byte[] bytes = String.valueOf(s).getBytes(StandardCharsets.UTF_8);
+        // The length prefix keeps "a" + "bc" distinct from "ab" + "c".
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static byte[] read(ClassLoader loader, String location) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(location)) {
+            if (in == null) {
+                return null;
+            }
+            return AnnotationIndex.readAll(in);
+        }
+    }
+}
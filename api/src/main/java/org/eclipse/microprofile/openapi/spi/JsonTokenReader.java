@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reads the tokens of a JSON document, one character at a time.
+ */
+final class JsonTokenReader extends TokenReader {
+
+    private final Reader in;
+    // For each open object or array: true for an object which expects a key next, false otherwise.
+    private final Deque<Boolean> expectKey = new ArrayDeque<>();
+    private final Deque<Boolean> objects = new ArrayDeque<>();
+    private final StringBuilder text = new StringBuilder();
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private boolean plain;
+    private boolean started;
+
+    JsonTokenReader(Reader in) {
+        this.in = in;
+    }
+
+    @Override
+    Token next() throws IOException {
+        int c = skipWhitespace();
+        final boolean inObject = !objects.isEmpty() && objects.peek();
+        if (c == ',') {
+            if (objects.isEmpty()) {
+                throw error("unexpected ','");
+            }
+            ++position;
+            c = skipWhitespace();
+        }
+        if (c == -1) {
+            if (!objects.isEmpty() || !started) {
+                throw error("unexpected end of document");
+            }
+            return Token.END;
+        }
+        if (inObject && expectKey.peek()) {
+            if (c == '}') {
+                ++position;
+                return close(true);
+            }
+            if (c != '"') {
+                throw error("expected a key");
+            }
+            ++position;
+            string();
+            if (skipWhitespace() != ':') {
+                throw error("expected ':'");
+            }
+            ++position;
+            replaceTop(false);
+            return Token.KEY;
+        }
+        if (!objects.isEmpty() && !inObject && c == ']') {
+            ++position;
+            return close(false);
+        }
+        if (objects.isEmpty() && started) {
+            throw error("unexpected content after the document");
+        }
+        started = true;
+        if (inObject) {
+            replaceTop(true);
+        }
+        switch (c) {
+            case '{':
+                ++position;
+                objects.push(true);
+                expectKey.push(true);
+                return Token.START_MAP;
+            case '[':
+                ++position;
+                objects.push(false);
+                expectKey.push(false);
+                return Token.START_LIST;
+            case '"':
+                ++position;
+                string();
+                plain = false;
+                return Token.SCALAR;
+            default:
+                literal();
+                plain = true;
+                return Token.SCALAR;
+        }
+    }
+
+    @Override
+    String text() {
+        return text.toString();
+    }
+
+    @Override
+    boolean isPlain() {
+        return plain;
+    }
+
+    @Override
+    int line() {
+        return line;
+    }
+
+    private Token close(boolean object) {
+        objects.pop();
+        expectKey.pop();
+        return object ? Token.END_MAP : Token.END_LIST;
+    }
+
+    private void replaceTop(boolean value) {
+        expectKey.pop();
+        expectKey.push(value);
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        final int c = peek();
+        if (c != -1) {
+            ++position;
+        }
+        return c;
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\uFEFF') {
+            if (c == '\n') {
+                ++line;
+            }
+            ++position;
+            c = peek();
+        }
+        return c;
+    }
+
+    private void string() throws IOException {
+        text.setLength(0);
+        while (true) {
+            final int c = read();
+            if (c == -1 || c == '\n') {
+                throw error("unterminated string");
+            }
+            if (c == '"') {
+                return;
+            }
+            if (c != '\\') {
+                text.append((char) c);
+                continue;
+            }
+            final int e = read();
+            switch (e) {
+                case '"':
+                case '\\':
+                case '/':
+                    text.append((char) e);
+                    break;
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; ++i) {
+                        final int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw error("invalid unicode escape");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    text.append((char) code);
+                    break;
+                default:
+                    throw error("invalid escape sequence");
+            }
+        }
+    }
+
+    private void literal() throws IOException {
+        text.setLength(0);
+        int c = peek();
+        while (c != -1 && c != ',' && c != '}' && c != ']' && c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+            text.append((char) c);
+            ++position;
+            c = peek();
+        }
+        final String literal = text.toString();
+        if (!literal.equals("true") && !literal.equals("false") && !literal.equals("null") && !isNumber(literal)) {
+            throw error("unexpected value '" + literal + "'");
+        }
+    }
+
+    private static boolean isNumber(String s) {
+        return s.matches("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][-+]?[0-9]+)?");
+    }
+}
@@ -0,0 +1,717 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+
+/**
+ * Encodes elements of the OpenAPI model tree in a compact binary form, and decodes them, e.g. to persist the model tree
+ * of an application between two starts or to share it between the instances of a cluster. Decoding skips the parsing of
+ * a YAML or JSON document, and the decoded model tree is identical to the encoded one: every property of every model
+ * interface is kept, including extensions and the values of examples and defaults, and an element shared by several
+ * parents of the encoded tree, e.g. the schema of a Java type used in several places, is shared in the decoded tree
+ * too.
+ * <p>
+ * An encoded element starts with the bytes <code>MPOA</code> and a format version, followed by a value. Each value
+ * starts with a tag byte:
+ * <ul>
+ * <li>model elements give the name of their model interface, the number of their non-null properties, and the name
+ * and value of each of them, followed by their entries if they are maps (e.g. Paths); an element met again is
+ * encoded as the index of its first occurrence;</li>
+ * <li>strings, and the names of model interfaces, properties and map keys, are encoded once, in UTF-8, and then as
+ * their index in the table of the strings met so far, so repeated keys and references take one or two bytes;</li>
+ * <li>lengths, indexes and integers are variable-length integers, seven bits per byte, with negative integers in
+ * zig-zag form;</li>
+ * <li>the constants of {@link Schema.SchemaType} and {@link PathItem.HttpMethod} have their own tags, followed by
+ * their ordinal, and the constants of other enumerations give their class name and constant name;</li>
+ * <li>booleans and null are tags alone, and lists and maps give their size before their elements.</li>
+ * </ul>
+ * Values of other types than the above, and other numbers than <code>Integer</code>, <code>Long</code>,
+ * <code>Float</code>, <code>Double</code>, <code>BigInteger</code> and <code>BigDecimal</code>, cannot be encoded.
+ */
+public final class ModelCodec {
+
+    private static final byte[] MAGIC = { 'M', 'P', 'O', 'A' };
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int STRING = 3;
+    private static final int INT = 4;
+    private static final int LONG = 5;
+    private static final int FLOAT = 6;
+    private static final int DOUBLE = 7;
+    private static final int BIG_INTEGER = 8;
+    private static final int BIG_DECIMAL = 9;
+    private static final int LIST = 10;
+    private static final int MAP = 11;
+    private static final int STRING_MAP = 12;
+    private static final int MODEL = 13;
+    private static final int MODEL_REF = 14;
+    private static final int SCHEMA_TYPE = 15;
+    private static final int HTTP_METHOD = 16;
+    private static final int ENUM = 17;
+
+    private static final Schema.SchemaType[] SCHEMA_TYPES = Schema.SchemaType.values();
+    private static final PathItem.HttpMethod[] HTTP_METHODS = PathItem.HttpMethod.values();
+
+    private ModelCodec() {
+    }
+
+    /**
+     * Encodes the given element of the model tree, and its descendants, to the given stream. The stream is flushed but
+     * not closed.
+     *
+     * @param element the element to encode, e.g. an OpenAPI element
+     * @param out the stream to write to
+     *
+     * @throws IOException if writing to the stream fails
+     * @throws IllegalArgumentException if a value of the model tree cannot be encoded
+     * @throws NullPointerException if any argument is null
+     */
+    public static void write(Constructible element, OutputStream out) throws IOException {
+        if (element == null || out == null) {
+            throw new NullPointerException();
+        }
+        final Encoder encoder = new Encoder(out);
+        encoder.bytes(MAGIC, 0, MAGIC.length);
+        encoder.varint(VERSION);
+        encoder.value(element);
+        encoder.flush();
+    }
+
+    /**
+     * Decodes an element of the model tree from the given stream. The stream is read ahead of the end of the encoded
+     * element, and is not closed.
+     *
+     * @param in the stream to read from
+     * @return the decoded element
+     *
+     * @throws IOException if reading fails, or if the stream does not hold an encoded element of the model tree
+     * @throws NullPointerException if the stream is null
+     */
+    public static Constructible read(InputStream in) throws IOException {
+        return read(in, Constructible.class);
+    }
+
+    /**
+     * Decodes an element of the given type from the given stream. The stream is read ahead of the end of the encoded
+     * element, and is not closed.
+     *
+     * @param in the stream to read from
+     * @param type the expected model interface, e.g. OpenAPI
+     * @param <T> the type of the element
+     * @return the decoded element
+     *
+     * @throws IOException if reading fails, or if the stream does not hold an encoded element of the given type
+     * @throws NullPointerException if any argument is null
+     */
+    public static <T extends Constructible> T read(InputStream in, Class<T> type) throws IOException {
+        if (in == null || type == null) {
+            throw new NullPointerException();
+        }
+        return decode(new Decoder(in, null), type);
+    }
+
+    /**
+     * Decodes an element of the given type from the given stream, as described in {@link #read(InputStream, Class)}.
+     * The strings of the decoded element, including map keys, are replaced by their canonical instance from the given
+     * pool, e.g. a pool shared with the annotation scanner.
+     *
+     * @param in the stream to read from
+     * @param type the expected model interface, e.g. OpenAPI
+     * @param strings the pool of canonical strings
+     * @param <T> the type of the element
+     * @return the decoded element
+     *
+     * @throws IOException if reading fails, or if the stream does not hold an encoded element of the given type
+     * @throws NullPointerException if any argument is null
+     */
+    public static <T extends Constructible> T read(InputStream in, Class<T> type, StringPool strings) throws IOException {
+        if (in == null || type == null || strings == null) {
+            throw new NullPointerException();
+        }
+        return decode(new Decoder(in, strings), type);
+    }
+
+    private static <T extends Constructible> T decode(Decoder decoder, Class<T> type) throws IOException {
+        for (byte b : MAGIC) {
+            if (decoder.readByte() != b) {
+                throw new IOException("Not an encoded OpenAPI model tree");
+            }
+        }
+        final int version = decoder.varint();
+        if (version != VERSION) {
+            throw new IOException("Unsupported format version: " + version);
+        }
+        final Object value;
+        try {
+            value = decoder.value();
+        }
+        catch (RuntimeException e) {
+            // Damaged input may hold values which the model elements reject, e.g. a property of another type.
+            throw new IOException("Invalid encoded model tree", e);
+        }
+        if (!type.isInstance(value)) {
+            throw new IOException("Expected " + type.getName() + ", found " + (value != null ? value.getClass().getName() : "null"));
+        }
+        return type.cast(value);
+    }
+
+    /**
+     * Writes values, through a buffer, and keeps the tables of the strings and the model elements written so far.
+     */
+    private static final class Encoder {
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[8192];
+        private int count;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Object, Integer> models = new IdentityHashMap<>();
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        void value(Object value) throws IOException {
+            if (value == null) {
+                tag(NULL);
+            }
+            else if (value instanceof String) {
+                tag(STRING);
+                string((String) value);
+            }
+            else if (value instanceof Boolean) {
+                tag((Boolean) value ? TRUE : FALSE);
+            }
+            else if (value instanceof Constructible && ModelType.of(value.getClass()).isModel()) {
+                model(value);
+            }
+            else if (value instanceof Map) {
+                map((Map<?, ?>) value);
+            }
+            else if (value instanceof List) {
+                final List<?> list = (List<?>) value;
+                tag(LIST);
+                varint(list.size());
+                for (Object element : list) {
+                    value(element);
+                }
+            }
+            else if (value instanceof Number) {
+                number((Number) value);
+            }
+            else if (value instanceof Schema.SchemaType) {
+                tag(SCHEMA_TYPE);
+                varint(((Schema.SchemaType) value).ordinal());
+            }
+            else if (value instanceof PathItem.HttpMethod) {
+                tag(HTTP_METHOD);
+                varint(((PathItem.HttpMethod) value).ordinal());
+            }
+            else if (value instanceof Enum) {
+                tag(ENUM);
+                string(((Enum<?>) value).getDeclaringClass().getName());
+                string(((Enum<?>) value).name());
+            }
+            else {
+                throw new IllegalArgumentException("Unable to encode a value of type " + value.getClass().getName());
+            }
+        }
+
+        private void model(Object model) throws IOException {
+            final Integer index = models.get(model);
+            if (index != null) {
+                tag(MODEL_REF);
+                varint(index);
+                return;
+            }
+            models.put(model, models.size());
+            final ModelType type = ModelType.of(model.getClass());
+            final Object[] values = new Object[type.size()];
+            int size = 0;
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = ModelMerger.read(model, type.getter(i));
+                if (values[i] != null) {
+                    ++size;
+                }
+            }
+            tag(MODEL);
+            string(type.getInterfaces()[0].getName());
+            varint(size);
+            for (int i = 0; i < values.length; ++i) {
+                if (values[i] != null) {
+                    string(type.getter(i).getName());
+                    value(values[i]);
+                }
+            }
+            if (type.isMap()) {
+                entries((Map<?, ?>) model);
+            }
+        }
+
+        private void map(Map<?, ?> map) throws IOException {
+            for (Object key : map.keySet()) {
+                if (!(key instanceof String)) {
+                    tag(MAP);
+                    varint(map.size());
+                    for (Map.Entry<?, ?> e : map.entrySet()) {
+                        value(e.getKey());
+                        value(e.getValue());
+                    }
+                    return;
+                }
+            }
+            tag(STRING_MAP);
+            entries(map);
+        }
+
+        /**
+         * Writes the entries of a map whose keys are strings.
+         */
+        private void entries(Map<?, ?> map) throws IOException {
+            varint(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                string((String) e.getKey());
+                value(e.getValue());
+            }
+        }
+
+        private void number(Number number) throws IOException {
+            if (number instanceof Integer) {
+                tag(INT);
+                varlong(zigzag(number.intValue()));
+            }
+            else if (number instanceof Long) {
+                tag(LONG);
+                varlong(zigzag(number.longValue()));
+            }
+            else if (number instanceof Float) {
+                tag(FLOAT);
+                fixed(Float.floatToRawIntBits(number.floatValue()) & 0xFFFFFFFFL, 4);
+            }
+            else if (number instanceof Double) {
+                tag(DOUBLE);
+                fixed(Double.doubleToRawLongBits(number.doubleValue()), 8);
+            }
+            else if (number instanceof BigInteger) {
+                tag(BIG_INTEGER);
+                bigInteger((BigInteger) number);
+            }
+            else if (number instanceof BigDecimal) {
+                tag(BIG_DECIMAL);
+                varlong(zigzag(((BigDecimal) number).scale()));
+                bigInteger(((BigDecimal) number).unscaledValue());
+            }
+            else {
+                throw new IllegalArgumentException("Unable to encode a value of type " + number.getClass().getName());
+            }
+        }
+
+        private void bigInteger(BigInteger value) throws IOException {
+            final byte[] bytes = value.toByteArray();
+            varint(bytes.length);
+            bytes(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Writes a string as its index in the table of strings plus one, or as 0 followed by its UTF-8 bytes the first
+         * time it is met.
+         */
+        private void string(String s) throws IOException {
+            final Integer index = strings.get(s);
+            if (index != null) {
+                varint(index + 1);
+                return;
+            }
+            strings.put(s, strings.size());
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varint(0);
+            varint(bytes.length);
+            bytes(bytes, 0, bytes.length);
+        }
+
+        private void tag(int tag) throws IOException {
+            if (count == buffer.length) {
+                drain();
+            }
+            buffer[count++] = (byte) tag;
+        }
+
+        void varint(int value) throws IOException {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        private void varlong(long value) throws IOException {
+            if (buffer.length - count < 10) {
+                drain();
+            }
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                buffer[count++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buffer[count++] = (byte) v;
+        }
+
+        private void fixed(long value, int length) throws IOException {
+            if (buffer.length - count < length) {
+                drain();
+            }
+            for (int i = 0; i < length; ++i) {
+                buffer[count++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        void bytes(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.length - count) {
+                drain();
+                if (length > buffer.length) {
+                    out.write(bytes, offset, length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+
+        void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    /**
+     * Reads values, through a buffer, and keeps the tables of the strings and the model elements read so far.
+     */
+    private static final class Decoder {
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int limit;
+        private final StringPool pool;
+        private final List<String> strings = new ArrayList<>();
+        private final List<Object> models = new ArrayList<>();
+        private final Map<String, Model> types = new HashMap<>();
+
+        Decoder(InputStream in, StringPool pool) {
+            this.in = in;
+            this.pool = pool;
+        }
+
+        Object value() throws IOException {
+            final int tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case STRING:
+                    return string();
+                case INT:
+                    return (int) unzigzag(varlong());
+                case LONG:
+                    return unzigzag(varlong());
+                case FLOAT:
+                    return Float.intBitsToFloat((int) fixed(4));
+                case DOUBLE:
+                    return Double.longBitsToDouble(fixed(8));
+                case BIG_INTEGER:
+                    return bigInteger();
+                case BIG_DECIMAL:
+                    return bigDecimal();
+                case LIST:
+                    return list();
+                case MAP:
+                    return map();
+                case STRING_MAP:
+                    return entries(new LinkedHashMap<>());
+                case MODEL:
+                    return model();
+                case MODEL_REF:
+                    return modelReference();
+                case SCHEMA_TYPE:
+                    return constant(SCHEMA_TYPES, varint());
+                case HTTP_METHOD:
+                    return constant(HTTP_METHODS, varint());
+                case ENUM:
+                    return enumConstant(string(), string());
+                default:
+                    throw new IOException("Invalid tag: " + tag);
+            }
+        }
+
+        private BigDecimal bigDecimal() throws IOException {
+            final int scale = (int) unzigzag(varlong());
+            return new BigDecimal(bigInteger(), scale);
+        }
+
+        private List<Object> list() throws IOException {
+            final int size = varint();
+            final List<Object> list = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; ++i) {
+                list.add(value());
+            }
+            return list;
+        }
+
+        private Map<Object, Object> map() throws IOException {
+            final int size = varint();
+            final Map<Object, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < size; ++i) {
+                map.put(value(), value());
+            }
+            return map;
+        }
+
+        private Object modelReference() throws IOException {
+            final int index = varint();
+            if (index >= models.size()) {
+                throw new IOException("Invalid model reference: " + index);
+            }
+            return models.get(index);
+        }
+
+        private Object model() throws IOException {
+            final Model type = type(string());
+            final Object model = type.supplier.get();
+            models.add(model);
+            final ModelType modelType = ModelType.of(model.getClass());
+            final int size = varint();
+            for (int i = 0; i < size; ++i) {
+                final String getterName = string();
+                final int index = modelType.indexOf(getterName);
+                if (index < 0) {
+                    throw new IOException("Unknown property " + getterName + " of " + type.name);
+                }
+                ModelMerger.write(model, modelType, index, value());
+            }
+            if (modelType.isMap()) {
+                entries(asMap(model));
+            }
+            return model;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<Object, Object> asMap(Object model) {
+            return (Map<Object, Object>) model;
+        }
+
+        private Map<Object, Object> entries(Map<Object, Object> map) throws IOException {
+            final int size = varint();
+            for (int i = 0; i < size; ++i) {
+                map.put(string(), value());
+            }
+            return map;
+        }
+
+        private Model type(String name) throws IOException {
+            Model type = types.get(name);
+            if (type == null) {
+                type = new Model(name, modelClass(name));
+                types.put(name, type);
+            }
+            return type;
+        }
+
+        private static Class<? extends Constructible> modelClass(String name) throws IOException {
+            try {
+                final Class<?> c = Class.forName(name, false, Constructible.class.getClassLoader());
+                if (c.isInterface() && Constructible.class.isAssignableFrom(c) && ModelType.of(c).isModel()) {
+                    return c.asSubclass(Constructible.class);
+                }
+            }
+            catch (ClassNotFoundException e) {
+                throw new IOException("Unknown model interface: " + name, e);
+            }
+            throw new IOException("Not a model interface: " + name);
+        }
+
+        private static <E> E constant(E[] constants, int ordinal) throws IOException {
+            if (ordinal >= constants.length) {
+                throw new IOException("Invalid constant: " + ordinal);
+            }
+            return constants[ordinal];
+        }
+
+        private static Object enumConstant(String className, String name) throws IOException {
+            final Class<?> c;
+            try {
+                c = Class.forName(className, false, Constructible.class.getClassLoader());
+            }
+            catch (ClassNotFoundException e) {
+                throw new IOException("Unknown enumeration: " + className, e);
+            }
+            if (c.isEnum()) {
+                for (Object constant : c.getEnumConstants()) {
+                    if (((Enum<?>) constant).name().equals(name)) {
+                        return constant;
+                    }
+                }
+            }
+            throw new IOException("Unknown constant " + name + " of " + className);
+        }
+
+        private BigInteger bigInteger() throws IOException {
+            final int length = varint();
+            if (length == 0) {
+                throw new IOException("Invalid big integer");
+            }
+            return new BigInteger(bytes(length));
+        }
+
+        private String string() throws IOException {
+            final int index = varint();
+            if (index > 0) {
+                if (index > strings.size()) {
+                    throw new IOException("Invalid string reference: " + index);
+                }
+                return strings.get(index - 1);
+            }
+            final int length = varint();
+            String s;
+            if (length <= limit - position) {
+                s = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+            }
+            else {
+                s = new String(bytes(length), StandardCharsets.UTF_8);
+            }
+            if (pool != null) {
+                // Each distinct string is decoded once, so it is looked up in the pool once.
+                s = pool.canonicalize(s);
+            }
+            strings.add(s);
+            return s;
+        }
+
+        /**
+         * Reads the given number of bytes. The length is read from the input, so it is not trusted: the array grows as
+         * the bytes are actually read, and damaged input ends with an EOFException rather than a huge allocation.
+         */
+        private byte[] bytes(int length) throws IOException {
+            byte[] bytes = new byte[Math.min(length, buffer.length)];
+            int offset = 0;
+            while (offset < length) {
+                if (offset == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+                }
+                if (position == limit) {
+                    fill();
+                }
+                final int n = Math.min(bytes.length - offset, limit - position);
+                System.arraycopy(buffer, position, bytes, offset, n);
+                position += n;
+                offset += n;
+            }
+            return bytes;
+        }
+
+        int readByte() throws IOException {
+            if (position == limit) {
+                fill();
+            }
+            return buffer[position++];
+        }
+
+        private void fill() throws IOException {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                throw new EOFException();
+            }
+        }
+
+        int varint() throws IOException {
+            final long value = varlong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IOException("Invalid length: " + value);
+            }
+            return (int) value;
+        }
+
+        private long varlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Invalid variable-length integer");
+        }
+
+        private long fixed(int length) throws IOException {
+            long value = 0;
+            for (int i = 0; i < length; ++i) {
+                value |= (long) (readByte() & 0xFF) << (8 * i);
+            }
+            return value;
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    /**
+     * A model interface met while decoding, with the supplier of its instances.
+     */
+    private static final class Model {
+
+        private final String name;
+        private final Supplier<? extends Constructible> supplier;
+
+        Model(String name, Class<? extends Constructible> type) {
+            this.name = name;
+            this.supplier = OASFactoryResolver.instance().getSupplier(type);
+        }
+    }
+}
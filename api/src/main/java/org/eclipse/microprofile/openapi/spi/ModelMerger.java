@@ -0,0 +1,373 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Reference;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+
+/**
+ * Merges OpenAPI model trees in place, e.g. the model trees produced by the stages of the processing rules: the model
+ * reader, the static file and the annotations, in this order.
+ * <p>
+ * The elements of the source tree override the elements of the target tree at the level of their properties:
+ * <ul>
+ * <li>a property which is null in the source element leaves the target element unchanged;</li>
+ * <li>a property which is null in the target element takes the value of the source element;</li>
+ * <li>when both elements hold a model element of the same type, the source element is merged into the target element,
+ * unless one of them holds a reference (<code>$ref</code>), in which case the source element replaces the target
+ * element;</li>
+ * <li>entries of maps, including the entries of the models which are maps (e.g. Paths or APIResponses) and
+ * extensions, are merged by key in the same way;</li>
+ * <li>elements of lists are merged by identity: tags with the same name, parameters with the same location and name,
+ * and servers with the same URL are merged, and other elements are appended unless an equal element is already
+ * present;</li>
+ * <li>other values are replaced by the values of the source element.</li>
+ * </ul>
+ * Merging is linear in the size of the source trees and of the target lists into which source lists are merged. Nothing
+ * is copied: the target tree is modified through the setters of its elements and the methods of its maps and lists, and
+ * takes the elements of the source tree where it does not hold a corresponding element. The source tree must thus not
+ * be used after the merge. Maps and lists of the target tree which are not modifiable are replaced by modifiable copies
+ * when they need to be changed.
+ * <p>
+ * As the target tree is modified in place, an element which is shared by several parents of the target tree, e.g.
+ * the schema of a Java type used in several places, is changed for all of them.
+ */
+public final class ModelMerger {
+
+    // The target elements into which source elements have been merged, so that shared elements are merged once.
+    private final Map<Object, Object> merged = new IdentityHashMap<>();
+    // The copies of the source elements taken by the target tree, or null if source elements are taken as they are.
+    private final Map<Object, Object> copies;
+    // The positions of the elements of the target lists by key, built once per list so that merging many source trees
+    // into the same target tree is linear.
+    private final Map<Object, Map<Object, Integer>> listIndexes = new IdentityHashMap<>();
+
+    private ModelMerger(boolean copy) {
+        this.copies = copy ? new IdentityHashMap<>() : null;
+    }
+
+    /**
+     * Merges the given model trees, in order, into the first one which is not null.
+     *
+     * @param stages the model trees produced by the stages of the processing rules, some of which may be null
+     * @return the first non-null model tree, into which the following ones have been merged, or null if all the
+     *         model trees are null
+     *
+     * @throws NullPointerException if the list is null
+     * @throws IllegalArgumentException if an element could not be read or modified
+     */
+    public static OpenAPI merge(List<OpenAPI> stages) {
+        return merge(stages, false);
+    }
+
+    /**
+     * Merges copies of the given model trees, in order, into a new model tree. Unlike {@link #merge(List)}, the given
+     * model trees are only read, so they may be read-only (e.g. snapshots) and may be merged again later.
+     *
+     * @param stages the model trees produced by the stages of the processing rules, some of which may be null
+     * @return a new, modifiable model tree, or null if all the model trees are null
+     *
+     * @throws NullPointerException if the list is null
+     * @throws IllegalArgumentException if an element could not be read or created
+     */
+    static OpenAPI mergeCopies(List<OpenAPI> stages) {
+        return merge(stages, true);
+    }
+
+    private static OpenAPI merge(List<OpenAPI> stages, boolean copy) {
+        final ModelMerger merger = new ModelMerger(copy);
+        OpenAPI result = null;
+        for (OpenAPI stage : stages) {
+            result = (OpenAPI) merger.mergeValue(result, stage);
+        }
+        return result;
+    }
+
+    /**
+     * Merges an element of a model tree into another element of the same type.
+     *
+     * @param target the element to modify, or null
+     * @param source the element to merge into the target element, or null
+     * @param <T> the type of the elements
+     * @return the target element, or the source element if the target element is null or if the source element
+     *         replaces it, as is the case when one of them holds a reference
+     *
+     * @throws IllegalArgumentException if an element could not be read or modified
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Constructible> T merge(T target, T source) {
+        return (T) new ModelMerger(false).mergeValue(target, source);
+    }
+
+    /**
+     * Returns the value resulting from the merge of the given values, after merging the source value into the target
+     * value if they can be merged.
+     */
+    private Object mergeValue(Object target, Object source) {
+        if (source == null) {
+            return target;
+        }
+        if (target == null || target == source) {
+            return copy(source);
+        }
+        if (target instanceof Constructible && source instanceof Constructible) {
+            if (!isMergeable(target, source)) {
+                return copy(source);
+            }
+            mergeElement(target, source);
+            return target;
+        }
+        if (target instanceof Map && source instanceof Map) {
+            return mergeMap(target, source, true);
+        }
+        if (target instanceof List && source instanceof List) {
+            return mergeList(target, source);
+        }
+        return copy(source);
+    }
+
+    private static boolean isMergeable(Object target, Object source) {
+        if (target instanceof Reference && (((Reference<?>) target).getRef() != null || ((Reference<?>) source).getRef() != null)) {
+            return false;
+        }
+        final Class<?>[] interfaces = ModelType.of(source.getClass()).getInterfaces();
+        for (Class<?> i : interfaces) {
+            if (!i.isInstance(target)) {
+                return false;
+            }
+        }
+        return interfaces.length > 0;
+    }
+
+    private void mergeElement(Object target, Object source) {
+        if (merged.put(source, target) == target) {
+            return;
+        }
+        final ModelType sourceType = ModelType.of(source.getClass());
+        final ModelType targetType = ModelType.of(target.getClass());
+        for (int i = 0; i < sourceType.size(); ++i) {
+            final Method getter = sourceType.getter(i);
+            final Object sourceValue = read(source, getter);
+            if (sourceValue == null) {
+                continue;
+            }
+            final int index = targetType.indexOf(getter.getName());
+            final Object targetValue = read(target, targetType.getter(index));
+            final Object value = mergeValue(targetValue, sourceValue);
+            if (value != targetValue) {
+                write(target, targetType, index, value);
+            }
+        }
+        if (sourceType.isMap()) {
+            mergeMap(target, source, false);
+        }
+    }
+
+    /**
+     * Merges the entries of the source map into the target map, which is replaced by a modifiable copy if it is not
+     * modifiable and replaceable.
+     */
+    @SuppressWarnings("unchecked")
+    private Object mergeMap(Object target, Object source, boolean replaceable) {
+        Map<Object, Object> result = (Map<Object, Object>) target;
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) source).entrySet()) {
+            final Object targetValue = result.get(e.getKey());
+            final Object value = mergeValue(targetValue, e.getValue());
+            if (value != targetValue) {
+                try {
+                    result.put(e.getKey(), value);
+                }
+                catch (UnsupportedOperationException ex) {
+                    if (!replaceable) {
+                        throw ex;
+                    }
+                    result = new LinkedHashMap<>(result);
+                    result.put(e.getKey(), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges the elements of the source list into the target list, which is replaced by a modifiable copy if it is
+     * not modifiable.
+     */
+    @SuppressWarnings("unchecked")
+    private Object mergeList(Object target, Object source) {
+        List<Object> result = (List<Object>) target;
+        Map<Object, Integer> indexes = listIndexes.get(result);
+        if (indexes == null) {
+            indexes = new HashMap<>();
+            for (int i = 0; i < result.size(); ++i) {
+                indexes.putIfAbsent(key(result.get(i)), i);
+            }
+            listIndexes.put(result, indexes);
+        }
+        for (Object element : (List<?>) source) {
+            final Object key = key(element);
+            final Integer index = indexes.get(key);
+            if (index == null) {
+                indexes.put(key, result.size());
+                final Object value = copy(element);
+                try {
+                    result.add(value);
+                }
+                catch (UnsupportedOperationException e) {
+                    result = new ArrayList<>(result);
+                    result.add(value);
+                    listIndexes.put(result, indexes);
+                }
+                continue;
+            }
+            final Object targetElement = result.get(index);
+            final Object value = mergeValue(targetElement, element);
+            if (value != targetElement) {
+                try {
+                    result.set(index, value);
+                }
+                catch (UnsupportedOperationException e) {
+                    result = new ArrayList<>(result);
+                    result.set(index, value);
+                    listIndexes.put(result, indexes);
+                }
+                // A replacing element, e.g. one holding a reference, may have another key.
+                final Object valueKey = key(value);
+                if (!valueKey.equals(key)) {
+                    indexes.remove(key, index);
+                    indexes.putIfAbsent(valueKey, index);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a deep copy of the given value if source elements must be copied, or the value itself. Elements shared
+     * within the source tree are copied once, so they remain shared in the target tree.
+     */
+    private Object copy(Object o) {
+        if (copies == null || o == null) {
+            return o;
+        }
+        final Object existing = copies.get(o);
+        if (existing != null) {
+            return existing;
+        }
+        if (o instanceof Constructible) {
+            final ModelType type = ModelType.of(o.getClass());
+            if (type.isModel()) {
+                return copyElement(o, type);
+            }
+        }
+        if (o instanceof Map) {
+            final Map<Object, Object> copy = new LinkedHashMap<>();
+            copies.put(o, copy);
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) o).entrySet()) {
+                copy.put(e.getKey(), copy(e.getValue()));
+            }
+            return copy;
+        }
+        if (o instanceof List) {
+            final List<Object> copy = new ArrayList<>(((List<?>) o).size());
+            copies.put(o, copy);
+            for (Object element : (List<?>) o) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+        return o;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object copyElement(Object o, ModelType type) {
+        final Object copy = OASFactory.createObject((Class<? extends Constructible>) type.getInterfaces()[0]);
+        copies.put(o, copy);
+        final ModelType copyType = ModelType.of(copy.getClass());
+        for (int i = 0; i < type.size(); ++i) {
+            final Method getter = type.getter(i);
+            final Object value = read(o, getter);
+            if (value != null) {
+                write(copy, copyType, copyType.indexOf(getter.getName()), copy(value));
+            }
+        }
+        if (type.isMap()) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) o).entrySet()) {
+                ((Map<Object, Object>) copy).put(e.getKey(), copy(e.getValue()));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the key identifying an element of a list: its name, location or URL for tags, parameters and servers,
+     * or the element itself.
+     */
+    private static Object key(Object element) {
+        if (element instanceof Tag && ((Tag) element).getName() != null) {
+            return Arrays.asList(Tag.class, ((Tag) element).getName());
+        }
+        if (element instanceof Parameter) {
+            final Parameter parameter = (Parameter) element;
+            if (parameter.getRef() == null && parameter.getName() != null) {
+                return Arrays.asList(Parameter.class, parameter.getIn(), parameter.getName());
+            }
+        }
+        if (element instanceof Server && ((Server) element).getUrl() != null) {
+            return Arrays.asList(Server.class, ((Server) element).getUrl());
+        }
+        return element;
+    }
+
+    static Object read(Object o, Method getter) {
+        try {
+            return getter.invoke(o);
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unable to read property " + getter.getName() + " of " + o.getClass().getName(), e);
+        }
+    }
+
+    static void write(Object o, ModelType type, int index, Object value) {
+        final Method setter = type.setter(index, value);
+        if (setter == null) {
+            throw new IllegalArgumentException("Unable to set property " + type.getter(index).getName() + " of " + o.getClass().getName()
+                    + " to " + value.getClass().getName());
+        }
+        try {
+            setter.invoke(o, value);
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unable to set property " + type.getter(index).getName() + " of " + o.getClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.openapi.OASModelReader;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * Persists the model trees built by the model readers which declare a {@link OASModelReader#getCacheKey() cache key},
+ * so that the model tree is reloaded on the next start instead of being built again.
+ * <p>
+ * Each model tree is stored, encoded with {@link ModelCodec}, in a file of the cache directory named after the model
+ * reader class, together with a fingerprint of the model reader class name, the digest of its class file, its cache key
+ * and the properties of the <code>mp.openapi</code> namespace. The stored model tree is reused as long as the
+ * fingerprint is unchanged, so a change of the model reader class or of the configuration invalidates it. Changes of
+ * the other classes, resources and libraries used by the model reader are not detected: the model reader must change
+ * its cache key when they change, as specified by {@link OASModelReader#getCacheKey()}. A file which cannot be read
+ * is ignored, and replaced by the model tree built again. The cache is best effort: a model tree which cannot be
+ * stored is logged and returned all the same. Files are replaced atomically where the file system supports it, so
+ * several instances of an application may share a cache directory.
+ * <p>
+ * Instances of this class are safe for use by multiple threads.
+ */
+public final class ModelReaderCache {
+
+    /**
+     * The extension of the names of the files of a cache directory.
+     */
+    public static final String EXTENSION = ".model";
+
+    private static final Logger LOGGER = Logger.getLogger(ModelReaderCache.class.getName());
+
+    private final Path directory;
+
+    /**
+     * Creates a cache storing the model trees in the given directory, which is created when the first model tree is
+     * stored.
+     *
+     * @param directory the cache directory
+     *
+     * @throws NullPointerException if the directory is null
+     */
+    public ModelReaderCache(Path directory) {
+        if (directory == null) {
+            throw new NullPointerException();
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the model tree of the given model reader: the stored model tree if the model reader declares a cache
+     * key and its fingerprint is unchanged, otherwise the model tree built by the model reader, which is then stored
+     * if the model reader declares a cache key.
+     *
+     * @param reader the model reader
+     * @param config the current configuration properties; only the properties of the <code>mp.openapi</code>
+     *            namespace are taken into account
+     * @return the model tree, or null if the model reader built none; a model tree read from the cache is modifiable
+     *
+     * @throws IOException if the class file of the model reader cannot be read
+     * @throws NullPointerException if the model reader or the configuration is null
+     */
+    public OpenAPI buildModel(OASModelReader reader, Map<String, String> config) throws IOException {
+        final String key = reader.getCacheKey();
+        if (key == null) {
+            return reader.buildModel();
+        }
+        final Path file = directory.resolve(reader.getClass().getName() + EXTENSION);
+        final byte[] fingerprint = fingerprint(reader.getClass(), key, config);
+        final byte[] stored = read(file);
+        if (stored != null && startsWith(stored, fingerprint)) {
+            try {
+                return decode(stored, fingerprint.length);
+            }
+            catch (IOException | RuntimeException e) {
+                // The file is damaged, build the model tree again.
+            }
+        }
+        final OpenAPI model = reader.buildModel();
+        try {
+            write(file, fingerprint, model);
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to store the model tree of " + reader.getClass().getName() + " in " + file, e);
+        }
+        return model;
+    }
+
+    /**
+     * Returns the fingerprint of a model tree, as stored at the beginning of its file: a digest of the model reader
+     * class name, its class file, its cache key and the <code>mp.openapi</code> properties, followed by a new line.
+     */
+    private static byte[] fingerprint(Class<?> readerClass, String key, Map<String, String> config) throws IOException {
+        final byte[] classFile = AnnotationIndex.read(AnnotationIndex.classLoader(readerClass.getClassLoader()), readerClass.getName());
+        final MessageDigest digest = GeneratedDocument.sha256();
+        GeneratedDocument.update(digest, readerClass.getName());
+        digest.update(AnnotationIndex.digest(classFile));
+        GeneratedDocument.update(digest, key);
+        GeneratedDocument.update(digest, GeneratedDocument.configDigest(config));
+        return (Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()) + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static OpenAPI decode(byte[] stored, int offset) throws IOException {
+        if (offset == stored.length) {
+            return null;
+        }
+        return ModelCodec.read(new ByteArrayInputStream(stored, offset, stored.length - offset), OpenAPI.class);
+    }
+
+    private void write(Path file, byte[] fingerprint, OpenAPI model) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(fingerprint);
+        if (model != null) {
+            ModelCodec.write(model, bytes);
+        }
+        Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static byte[] read(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        }
+        catch (IOException e) {
+            // A missing or unreadable file is rebuilt.
+            return null;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; ++i) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
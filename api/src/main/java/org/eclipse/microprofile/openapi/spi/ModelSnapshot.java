@@ -0,0 +1,293 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+
+/**
+ * Default implementation of {@link OASFactoryResolver#createSnapshot(OpenAPI, StringPool)}.
+ * <p>
+ * Each model element of the snapshot is a dynamic proxy implementing the same model interfaces as the original element.
+ * Only the properties which are set are stored, in two trimmed arrays holding their indexes and their values, so an
+ * element takes the same space whatever the number of properties of its model interface. Maps are held in a
+ * {@link CompactMap} and lists in a {@link CompactList}. Elements which are shared by several parents in the original
+ * tree are shared in the snapshot as well.
+ */
+final class ModelSnapshot implements InvocationHandler {
+
+    private static final char[] NO_SLOTS = {};
+    private static final Object[] NO_VALUES = {};
+
+    private final ModelType type;
+    private final Map<?, ?> entries;
+    private char[] slots = NO_SLOTS;
+    private Object[] values = NO_VALUES;
+
+    private ModelSnapshot(ModelType type, Map<?, ?> entries) {
+        this.type = type;
+        this.entries = entries;
+    }
+
+    /**
+     * Creates a read-only snapshot of the given model tree.
+     *
+     * @param openAPI the model tree
+     * @param strings the pool of canonical strings
+     * @return the snapshot, or null if the given model tree is null
+     */
+    static OpenAPI of(OpenAPI openAPI, StringPool strings) {
+        if (strings == null) {
+            throw new NullPointerException();
+        }
+        return (OpenAPI) new Freezer(strings).freeze(openAPI);
+    }
+
+    /**
+     * Creates a read-only element implementing the model interfaces of the given type.
+     *
+     * @param type the model type of the element
+     * @param values the values of the properties, indexed as in the model type, of which only the non-null ones are kept
+     * @param entries the entries of the element if it is a map, or null
+     * @return the element
+     */
+    static Object create(ModelType type, Object[] values, Map<?, ?> entries) {
+        final ModelSnapshot handler = new ModelSnapshot(type, entries);
+        handler.setValues(values);
+        return handler.newProxy();
+    }
+
+    /**
+     * Returns true if the given object is an element of a snapshot.
+     *
+     * @param o an object
+     * @return whether the object is read-only snapshot element
+     */
+    static boolean isSnapshot(Object o) {
+        return o != null && Proxy.isProxyClass(o.getClass()) && Proxy.getInvocationHandler(o) instanceof ModelSnapshot;
+    }
+
+    private Object newProxy() {
+        final Class<?>[] interfaces = type.getInterfaces();
+        return Proxy.newProxyInstance(interfaces[0].getClassLoader(), interfaces, this);
+    }
+
+    /**
+     * Keeps the non-null values of the given array, indexed as in the model type.
+     */
+    private void setValues(Object[] all) {
+        int count = 0;
+        for (Object value : all) {
+            if (value != null) {
+                ++count;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        final char[] slots = new char[count];
+        final Object[] values = new Object[count];
+        count = 0;
+        for (int i = 0; i < all.length; ++i) {
+            if (all[i] != null) {
+                slots[count] = (char) i;
+                values[count++] = all[i];
+            }
+        }
+        this.slots = slots;
+        this.values = values;
+    }
+
+    private Object get(int index) {
+        final int slot = Arrays.binarySearch(slots, (char) index);
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final String name = method.getName();
+        final Class<?> declaringClass = method.getDeclaringClass();
+        if (declaringClass == Object.class) {
+            switch (name) {
+                case "equals":
+                    return entries != null ? entries.equals(args[0]) : proxy == args[0];
+                case "hashCode":
+                    return entries != null ? entries.hashCode() : System.identityHashCode(proxy);
+                default:
+                    return type.getInterfaces()[0].getSimpleName() + (entries != null ? entries.toString() : "");
+            }
+        }
+        if (declaringClass == Map.class) {
+            try {
+                return method.invoke(entries, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        if (args == null || args.length == 0) {
+            final int index = type.indexOf(name);
+            if (index >= 0) {
+                return get(index);
+            }
+            if (entries != null && name.equals("getDefault") && APIResponses.class.isAssignableFrom(declaringClass)) {
+                return entries.get(APIResponses.DEFAULT);
+            }
+            if (name.equals("readOperationsMap") && declaringClass == PathItem.class) {
+                return readOperationsMap();
+            }
+            if (name.equals("readOperations") && declaringClass == PathItem.class) {
+                return Collections.unmodifiableList(new ArrayList<>(readOperationsMap().values()));
+            }
+        }
+        throw new UnsupportedOperationException("The OpenAPI model snapshot is read-only: " + declaringClass.getSimpleName() + "." + name);
+    }
+
+    private Map<PathItem.HttpMethod, Operation> readOperationsMap() {
+        final Map<PathItem.HttpMethod, Operation> operations = new EnumMap<>(PathItem.HttpMethod.class);
+        for (PathItem.HttpMethod httpMethod : PathItem.HttpMethod.values()) {
+            final int index = type.indexOf("get" + httpMethod.name());
+            final Object operation = index >= 0 ? get(index) : null;
+            if (operation != null) {
+                operations.put(httpMethod, (Operation) operation);
+            }
+        }
+        return Collections.unmodifiableMap(operations);
+    }
+
+    /**
+     * Copies a model tree, one element at a time. The identity map makes sure shared elements are copied once and
+     * that cycles terminate. Copies are created empty and filled from a work list rather than recursively, so deep
+     * trees do not exhaust the stack.
+     */
+    private static final class Freezer {
+
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+        private final Deque<Object> pending = new ArrayDeque<>();
+        private final StringPool strings;
+
+        Freezer(StringPool strings) {
+            this.strings = strings;
+        }
+
+        Object freeze(Object root) {
+            final Object copy = copyOf(root);
+            while (!pending.isEmpty()) {
+                fill(pending.pop());
+            }
+            return copy;
+        }
+
+        /**
+         * Returns the copy of the given value, creating it empty and scheduling it to be filled if the value was not
+         * met before.
+         */
+        private Object copyOf(Object o) {
+            if (o instanceof String) {
+                return strings.canonicalize((String) o);
+            }
+            if (o == null || isSnapshot(o)) {
+                return o;
+            }
+            final Object existing = copies.get(o);
+            if (existing != null) {
+                return existing;
+            }
+            final Object copy;
+            final ModelType type = o instanceof Constructible ? ModelType.of(o.getClass()) : null;
+            if (type != null && type.isModel()) {
+                copy = new ModelSnapshot(type, type.isMap() ? newMap((Map<?, ?>) o) : null).newProxy();
+            }
+            else if (o instanceof Map) {
+                copy = ((Map<?, ?>) o).isEmpty() ? Collections.emptyMap() : newMap((Map<?, ?>) o);
+            }
+            else if (o instanceof List) {
+                copy = ((List<?>) o).isEmpty() ? Collections.emptyList() : new CompactList<>(new Object[((List<?>) o).size()]);
+            }
+            else {
+                return o;
+            }
+            copies.put(o, copy);
+            pending.push(o);
+            return copy;
+        }
+
+        private void fill(Object o) {
+            final Object copy = copies.get(o);
+            if (copy instanceof CompactList) {
+                final Object[] elements = ((List<?>) o).toArray();
+                for (int i = 0; i < elements.length; ++i) {
+                    ((CompactList<?>) copy).setElement(i, copyOf(elements[i]));
+                }
+            }
+            else if (copy instanceof CompactMap) {
+                fillMap((CompactMap<?, ?>) copy, (Map<?, ?>) o);
+            }
+            else if (isSnapshot(copy)) {
+                final ModelSnapshot handler = (ModelSnapshot) Proxy.getInvocationHandler(copy);
+                final Object[] values = new Object[handler.type.size()];
+                for (int i = 0; i < values.length; ++i) {
+                    final Method getter = handler.type.getter(i);
+                    try {
+                        values[i] = copyOf(getter.invoke(o));
+                    }
+                    catch (IllegalAccessException | InvocationTargetException e) {
+                        throw new IllegalArgumentException("Unable to read property " + getter.getName() + " of " + o.getClass().getName(), e);
+                    }
+                }
+                handler.setValues(values);
+                if (handler.entries != null) {
+                    fillMap((CompactMap<?, ?>) handler.entries, (Map<?, ?>) o);
+                }
+            }
+        }
+
+        private CompactMap<?, ?> newMap(Map<?, ?> map) {
+            final Object[] keys = map.keySet().toArray();
+            for (int i = 0; i < keys.length; ++i) {
+                if (keys[i] instanceof String) {
+                    keys[i] = strings.canonicalize((String) keys[i]);
+                }
+            }
+            return new CompactMap<>(keys, new Object[keys.length]);
+        }
+
+        private void fillMap(CompactMap<?, ?> copy, Map<?, ?> map) {
+            int i = 0;
+            for (Object value : map.values()) {
+                copy.setValue(i++, copyOf(value));
+            }
+        }
+    }
+}
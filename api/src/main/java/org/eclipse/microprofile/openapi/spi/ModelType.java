@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.microprofile.openapi.models.Constructible;
+
+/**
+ * Describes the OpenAPI model interfaces implemented by a class and the properties exposed by them. A property is a
+ * getter (<code>getX</code> or <code>isX</code>) for which the same interface also declares a setter named <code>setX</code>.
+ * <p>
+ * Instances are computed once per class and cached.
+ */
+final class ModelType {
+
+    private static final String MODELS_PACKAGE = "org.eclipse.microprofile.openapi.models.";
+
+    private static final ClassValue<ModelType> TYPES = new ClassValue<ModelType>() {
+        @Override
+        protected ModelType computeValue(Class<?> type) {
+            return new ModelType(type);
+        }
+    };
+
+    private final Class<?>[] interfaces;
+    private final Method[] getters;
+    private final Method[][] setters;
+    private final Map<String, Integer> indexes;
+
+    private ModelType(Class<?> type) {
+        this.interfaces = modelInterfaces(type);
+
+        final Map<String, Method> properties = new TreeMap<>();
+        for (Class<?> i : interfaces) {
+            for (Method m : i.getMethods()) {
+                if (isPropertyGetter(i, m)) {
+                    properties.putIfAbsent(m.getName(), m);
+                }
+            }
+        }
+        this.getters = properties.values().toArray(new Method[properties.size()]);
+        this.setters = new Method[getters.length][];
+        final Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < getters.length; ++i) {
+            indexes.put(getters[i].getName(), i);
+            setters[i] = findSetters(interfaces, "set" + accessorSuffix(getters[i].getName()));
+        }
+        this.indexes = Collections.unmodifiableMap(indexes);
+    }
+
+    /**
+     * Returns the description of the given class.
+     *
+     * @param type a class implementing zero or more OpenAPI model interfaces
+     * @return the model type of the class
+     */
+    static ModelType of(Class<?> type) {
+        return TYPES.get(type);
+    }
+
+    /**
+     * Returns the most specific OpenAPI model interfaces implemented by the described class.
+     *
+     * @return the model interfaces, or an empty array if the class is not an OpenAPI model class
+     */
+    Class<?>[] getInterfaces() {
+        return interfaces.clone();
+    }
+
+    /**
+     * Returns true if the described class implements at least one OpenAPI model interface.
+     *
+     * @return whether this is a model type
+     */
+    boolean isModel() {
+        return interfaces.length > 0;
+    }
+
+    /**
+     * Returns true if the described class is a model which is also a map (e.g. Paths or Content).
+     *
+     * @return whether this model type is a map
+     */
+    boolean isMap() {
+        for (Class<?> i : interfaces) {
+            if (Map.class.isAssignableFrom(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of properties of the described class.
+     *
+     * @return the number of properties
+     */
+    int size() {
+        return getters.length;
+    }
+
+    /**
+     * Returns the getter of the property at the given index. Properties are ordered by the name of their getter.
+     *
+     * @param index the index of the property
+     * @return the getter method
+     */
+    Method getter(int index) {
+        return getters[index];
+    }
+
+    /**
+     * Returns a setter of the property at the given index which accepts the given value. Some properties have several
+     * setters, e.g. <code>additionalProperties</code> of Schema, which accepts a Schema or a Boolean.
+     *
+     * @param index the index of the property
+     * @param value the value to set, which may be null
+     * @return the setter method, or null if none of the setters accepts the value
+     */
+    Method setter(int index, Object value) {
+        for (Method setter : setters[index]) {
+            if (value == null || setter.getParameterTypes()[0].isInstance(value)) {
+                return setter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the property read by the getter with the given name.
+     *
+     * @param getterName the name of a getter method
+     * @return the index of the property, or -1 if there is no such property
+     */
+    int indexOf(String getterName) {
+        final Integer index = indexes.get(getterName);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the name under which a property appears in an OpenAPI document, given the name of its accessors without
+     * the <code>get</code>, <code>is</code> or <code>set</code> prefix. For example, the name of <code>getRef</code> is
+     * <code>$ref</code> and the name of <code>getGET</code> is <code>get</code>.
+     *
+     * @param accessorSuffix the name of an accessor without its prefix
+     * @return the name of the property in a document
+     */
+    static String propertyName(String accessorSuffix) {
+        switch (accessorSuffix) {
+            case "Ref":
+                return "$ref";
+            case "DefaultValue":
+                return "default";
+            case "Enumeration":
+                return "enum";
+            default:
+                if (accessorSuffix.equals(accessorSuffix.toUpperCase(Locale.ROOT))) {
+                    return accessorSuffix.toLowerCase(Locale.ROOT);
+                }
+                return Character.toLowerCase(accessorSuffix.charAt(0)) + accessorSuffix.substring(1);
+        }
+    }
+
+    private static boolean isPropertyGetter(Class<?> declaringInterface, Method m) {
+        if (m.getParameterCount() != 0 || m.getReturnType() == void.class || Modifier.isStatic(m.getModifiers())) {
+            return false;
+        }
+        final String suffix = accessorSuffix(m.getName());
+        if (suffix == null) {
+            return false;
+        }
+        for (Method s : declaringInterface.getMethods()) {
+            if (s.getParameterCount() == 1 && s.getName().equals("set" + suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String accessorSuffix(String getterName) {
+        if (getterName.startsWith("get") && getterName.length() > 3) {
+            return getterName.substring(3);
+        }
+        if (getterName.startsWith("is") && getterName.length() > 2) {
+            return getterName.substring(2);
+        }
+        return null;
+    }
+
+    private static Method[] findSetters(Class<?>[] interfaces, String name) {
+        final Map<Class<?>, Method> setters = new LinkedHashMap<>();
+        for (Class<?> i : interfaces) {
+            for (Method m : i.getMethods()) {
+                if (m.getParameterCount() == 1 && m.getName().equals(name) && !Modifier.isStatic(m.getModifiers())) {
+                    setters.putIfAbsent(m.getParameterTypes()[0], m);
+                }
+            }
+        }
+        return setters.values().toArray(new Method[setters.size()]);
+    }
+
+    private static Class<?>[] modelInterfaces(Class<?> type) {
+        final Set<Class<?>> all = new LinkedHashSet<>();
+        collectInterfaces(type, all);
+        final List<Class<?>> models = new ArrayList<>();
+        for (Class<?> i : all) {
+            if (i != Constructible.class && Constructible.class.isAssignableFrom(i) && i.getName().startsWith(MODELS_PACKAGE)) {
+                models.add(i);
+            }
+        }
+        // Keep only the most specific interfaces.
+        final List<Class<?>> result = new ArrayList<>();
+        for (Class<?> i : models) {
+            boolean specific = true;
+            for (Class<?> j : models) {
+                if (i != j && i.isAssignableFrom(j)) {
+                    specific = false;
+                    break;
+                }
+            }
+            if (specific) {
+                result.add(i);
+            }
+        }
+        return result.toArray(new Class<?>[result.size()]);
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> result) {
+        if (type == null) {
+            return;
+        }
+        if (type.isInterface()) {
+            if (!result.add(type)) {
+                return;
+            }
+        }
+        for (Class<?> i : type.getInterfaces()) {
+            collectInterfaces(i, result);
+        }
+        collectInterfaces(type.getSuperclass(), result);
+    }
+}
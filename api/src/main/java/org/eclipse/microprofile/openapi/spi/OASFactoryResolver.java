@@ -17,10 +17,16 @@
 package org.eclipse.microprofile.openapi.spi;
 
 import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * This class is not intended to be used by end-users. It should
@@ -35,6 +41,12 @@ public abstract class OASFactoryResolver {
 
     private static volatile OASFactoryResolver instance = null;
 
+    /**
+     * The suppliers of the model interfaces, held by the resolver rather than by the model interfaces (as a ClassValue
+     * would do), so that a resolver and its class loader can be collected once no longer in use.
+     */
+    private final ConcurrentMap<Class<?>, Supplier<?>> suppliers = new ConcurrentHashMap<>();
+
     /**
      * Create a new instance of a constructible element from the OpenAPI model tree.
      * 
@@ -48,6 +60,131 @@ public abstract class OASFactoryResolver {
      */
     public abstract <T extends Constructible> T createObject(Class<T> clazz);
 
+    /**
+     * Create a supplier of new instances of a constructible element from the OpenAPI model tree.
+     * This method is called at most once per model interface and per OASFactoryResolver instance, after which the supplier is
+     * cached and returned by {@link #getSupplier(Class)}.
+     * <p>
+     * The default implementation delegates every invocation of the supplier to {@link #createObject(Class)}. Vendors
+     * are encouraged to override this method and return a supplier which directly allocates their implementation
+     * class (e.g. a constructor reference), so that creating model elements does not involve any reflection.
+     * <p>
+     * The returned supplier must create a new instance on each invocation and must be safe to use from multiple threads.
+     * 
+     * @param <T> describes the type parameter
+     * @param clazz represents a model which extends the org.eclipse.microprofile.openapi.models.Constructible interface
+     *
+     * @return a supplier of new instances of the requested model class
+     * 
+     * @throws NullPointerException if the specified class is null
+     * @throws IllegalArgumentException if instances could not be created, most likely, due to an illegal or inappropriate class
+     */
+    protected <T extends Constructible> Supplier<T> createSupplier(Class<T> clazz) {
+        if (clazz == null) {
+            throw new NullPointerException();
+        }
+        return () -> createObject(clazz);
+    }
+
+    /**
+     * Returns the cached supplier of new instances of a constructible element from the OpenAPI model tree. The supplier is
+     * created on first use by {@link #createSupplier(Class)} and is shared by all subsequent callers without locking.
+     * Only the suppliers of the interfaces of the model API are cached; for other classes, a new supplier is created on
+     * each invocation.
+     * 
+     * @param <T> describes the type parameter
+     * @param clazz represents a model which extends the org.eclipse.microprofile.openapi.models.Constructible interface
+     *
+     * @return a supplier of new instances of the requested model class
+     * 
+     * @throws NullPointerException if the specified class is null
+     * @throws IllegalArgumentException if instances could not be created, most likely, due to an illegal or inappropriate class
+     */
+    @SuppressWarnings("unchecked")
+    public final <T extends Constructible> Supplier<T> getSupplier(Class<T> clazz) {
+        final Supplier<T> supplier = (Supplier<T>) suppliers.get(clazz);
+        if (supplier != null) {
+            return supplier;
+        }
+        if (clazz.getClassLoader() != Constructible.class.getClassLoader()) {
+            // Do not let the resolver hold on to the classes of other class loaders, e.g. of an application.
+            return createSupplier(clazz);
+        }
+        return (Supplier<T>) suppliers.computeIfAbsent(clazz, type -> createSupplier(clazz));
+    }
+
+    /**
+     * Create the given number of new instances of a constructible element from the OpenAPI model tree.
+     * <p>
+     * The default implementation resolves the supplier for the class once and invokes it for each instance. Vendors
+     * may override this method to pre-size or pool the storage backing the new instances.
+     * 
+     * @param <T> describes the type parameter
+     * @param clazz represents a model which extends the org.eclipse.microprofile.openapi.models.Constructible interface
+     * @param count the number of instances to create
+     *
+     * @return a modifiable list containing <code>count</code> distinct new instances of the requested model class
+     * 
+     * @throws NullPointerException if the specified class is null
+     * @throws IllegalArgumentException if the count is negative or if an instance could not be created, most likely,
+     * due to an illegal or inappropriate class
+     */
+    public <T extends Constructible> List<T> createObjects(Class<T> clazz, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Illegal count: " + count);
+        }
+        final Supplier<T> supplier = getSupplier(clazz);
+        final List<T> objects = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            objects.add(supplier.get());
+        }
+        return objects;
+    }
+
+    /**
+     * Create a read-only snapshot of the given OpenAPI model tree. Vendors typically call this method once the final
+     * model has been filtered (step 5 of the processing rules), since the model does not change after that point.
+     * <p>
+     * The snapshot is a deep copy of the given tree: later changes to the given tree are not reflected in the snapshot.
+     * Every element of the snapshot implements the same model interfaces as the corresponding element of the given tree.
+     * All methods which would modify the snapshot, including setters, builder methods and the modifying methods of
+     * the maps and lists it contains, throw an {@link UnsupportedOperationException}. Once published, the snapshot can
+     * be read by multiple threads concurrently without further synchronization.
+     * <p>
+     * Equal strings of the snapshot, including map keys, are deduplicated.
+     * <p>
+     * This is equivalent to <code>createSnapshot(openAPI, new StringPool())</code>.
+     * 
+     * @param openAPI the OpenAPI model tree to copy
+     *
+     * @return a read-only snapshot of the model tree, or null if the given model tree is null
+     * 
+     * @throws IllegalArgumentException if an element of the model tree could not be read
+     */
+    public final OpenAPI createSnapshot(OpenAPI openAPI) {
+        return createSnapshot(openAPI, new StringPool());
+    }
+
+    /**
+     * Create a read-only snapshot of the given OpenAPI model tree, as described in {@link #createSnapshot(OpenAPI)}.
+     * The strings of the snapshot, including map keys, are replaced by their canonical instance from the given pool.
+     * <p>
+     * The default implementation stores only the properties which are set, in trimmed arrays, and maps in compact
+     * open-addressing tables.
+     * Vendors may override this method to return immutable variants of their own model classes.
+     * 
+     * @param openAPI the OpenAPI model tree to copy
+     * @param strings the pool of canonical strings
+     *
+     * @return a read-only snapshot of the model tree, or null if the given model tree is null
+     * 
+     * @throws NullPointerException if the specified pool is null
+     * @throws IllegalArgumentException if an element of the model tree could not be read
+     */
+    public OpenAPI createSnapshot(OpenAPI openAPI, StringPool strings) {
+        return ModelSnapshot.of(openAPI, strings);
+    }
+
     /**
      * Creates an OASFactoryResolver object.
      * Only used internally from within {@link org.eclipse.microprofile.openapi.OASFactory}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * Runs the annotation scanning of step 4 of the processing rules one class at a time, and merges the resulting
+ * fragments into a single model tree. Vendors provide the scanning of a single class, which returns a fragment of the
+ * model (typically Paths and Components elements, and tags), and may run it concurrently in a {@link ForkJoinPool}.
+ * <p>
+ * Only the classes accepted by the given class filter are scanned, e.g. a
+ * {@link org.eclipse.microprofile.openapi.ScanFilter} created from the <code>mp.openapi.scan.*</code> configuration
+ * properties. The fragments are merged with the {@link ModelMerger}, in the alphabetical order of the class names,
+ * whatever the order in which they were produced, so the resulting model tree is the same with a sequential and a
+ * parallel scan. When two fragments define the same element, the one merged
+ * last overrides the other one property by property, e.g. the operations of the path items of the same path are
+ * combined. The fragments, which the scanner creates for each scan, are merged in place without being copied: the
+ * resulting model tree is the first fragment, and the fragments must not be used after the scan.
+ */
+public final class ParallelScanner {
+
+    private ParallelScanner() {
+    }
+
+    /**
+     * Scans the given classes using the calling thread, and merges the resulting fragments.
+     *
+     * @param classNames the fully qualified names of the candidate classes
+     * @param classFilter accepts the names of the classes to scan
+     * @param scanner scans the class of the given name, and returns the fragment of the model it defines, or null
+     * @return the first fragment, into which the following ones have been merged, or a new empty model tree if the
+     *         scanner returned no fragment
+     *
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if an element of a fragment could not be read or modified
+     */
+    public static OpenAPI scan(Collection<String> classNames, Predicate<String> classFilter, Function<String, OpenAPI> scanner) {
+        if (scanner == null) {
+            throw new NullPointerException();
+        }
+        final List<OpenAPI> fragments = new ArrayList<>();
+        for (String className : select(classNames, classFilter)) {
+            fragments.add(scanner.apply(className));
+        }
+        return merge(fragments);
+    }
+
+    /**
+     * Scans the given classes concurrently in the given pool, and merges the resulting fragments in the calling
+     * thread, in the alphabetical order of the class names. The scanner must be safe for use by multiple threads.
+     *
+     * @param classNames the fully qualified names of the candidate classes
+     * @param classFilter accepts the names of the classes to scan
+     * @param scanner scans the class of the given name, and returns the fragment of the model it defines, or null
+     * @param pool the pool in which the classes are scanned
+     * @return the first fragment, into which the following ones have been merged, or a new empty model tree if the
+     *         scanner returned no fragment
+     *
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if an element of a fragment could not be read or modified
+     */
+    public static OpenAPI scan(Collection<String> classNames, Predicate<String> classFilter, Function<String, OpenAPI> scanner,
+            ForkJoinPool pool) {
+        if (scanner == null || pool == null) {
+            throw new NullPointerException();
+        }
+        final List<ForkJoinTask<OpenAPI>> tasks = new ArrayList<>();
+        for (String className : select(classNames, classFilter)) {
+            tasks.add(pool.submit(() -> scanner.apply(className)));
+        }
+        final List<OpenAPI> fragments = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<OpenAPI> task : tasks) {
+            fragments.add(task.join());
+        }
+        return merge(fragments);
+    }
+
+    private static Collection<String> select(Collection<String> classNames, Predicate<String> classFilter) {
+        if (classFilter == null) {
+            throw new NullPointerException();
+        }
+        final Collection<String> selected = new TreeSet<>();
+        for (String className : classNames) {
+            if (classFilter.test(className)) {
+                selected.add(className);
+            }
+        }
+        return selected;
+    }
+
+    private static OpenAPI merge(List<OpenAPI> fragments) {
+        final OpenAPI result = ModelMerger.merge(fragments);
+        return result != null ? result : OASFactory.createObject(OpenAPI.class);
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.Reference;
+import org.eclipse.microprofile.openapi.models.callbacks.Callback;
+import org.eclipse.microprofile.openapi.models.examples.Example;
+import org.eclipse.microprofile.openapi.models.headers.Header;
+import org.eclipse.microprofile.openapi.models.links.Link;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.parameters.RequestBody;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.security.SecurityScheme;
+
+/**
+ * Resolves the references of an OpenAPI model tree to the elements of its Components element.
+ * <p>
+ * The elements of the nine maps of the Components element are indexed once, by their full reference (e.g.
+ * <code>#/components/schemas/Pet</code>), so that a reference is resolved with a single hash table lookup. Short
+ * names, as accepted by {@link Reference#ref(String)}, are resolved in the map of the type of the referring element.
+ * Names containing <code>/</code> or <code>~</code> are escaped in references as required by JSON pointers.
+ * <p>
+ * Elements added with {@link #add(Class, String, Reference)} are added to the Components element and to the index
+ * at once. The index does not see changes made to the Components element directly; {@link #refresh()} rebuilds it
+ * after such changes.
+ * <p>
+ * Instances of this class may be used by multiple threads to resolve references, as long as no thread adds elements
+ * or refreshes the index at the same time.
+ */
+public final class ReferenceResolver {
+
+    static final String COMPONENTS_PREFIX = "#/components/";
+
+    /**
+     * The maps of the Components element, by type of element.
+     */
+    enum Section {
+        SCHEMAS("schemas", Schema.class, Components::getSchemas),
+        RESPONSES("responses", APIResponse.class, Components::getResponses),
+        PARAMETERS("parameters", Parameter.class, Components::getParameters),
+        EXAMPLES("examples", Example.class, Components::getExamples),
+        REQUEST_BODIES("requestBodies", RequestBody.class, Components::getRequestBodies),
+        HEADERS("headers", Header.class, Components::getHeaders),
+        SECURITY_SCHEMES("securitySchemes", SecurityScheme.class, Components::getSecuritySchemes),
+        LINKS("links", Link.class, Components::getLinks),
+        CALLBACKS("callbacks", Callback.class, Components::getCallbacks);
+
+        private final String prefix;
+        private final String getterName;
+        private final Class<?> type;
+        private final Function<Components, Map<String, ?>> getter;
+
+        Section(String name, Class<?> type, Function<Components, Map<String, ?>> getter) {
+            this.prefix = COMPONENTS_PREFIX + name + "/";
+            this.getterName = "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            this.type = type;
+            this.getter = getter;
+        }
+
+        /**
+         * Returns the prefix of the references to the elements of this section, e.g. <code>#/components/schemas/</code>.
+         */
+        String getPrefix() {
+            return prefix;
+        }
+
+        /**
+         * Returns the name of the method of Components which returns the map of this section, e.g. <code>getSchemas</code>.
+         */
+        String getGetterName() {
+            return getterName;
+        }
+
+        /**
+         * Returns the type of the elements of this section.
+         */
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Returns the map of this section in the given Components element, or null if it has none.
+         */
+        Map<String, ?> getMap(Components components) {
+            return getter.apply(components);
+        }
+
+        static Section forElement(Object element) {
+            for (Section section : values()) {
+                if (section.getType().isInstance(element)) {
+                    return section;
+                }
+            }
+            return null;
+        }
+
+        static Section forType(Class<?> type) {
+            for (Section section : values()) {
+                if (section.getType() == type) {
+                    return section;
+                }
+            }
+            throw new IllegalArgumentException(type.getName() + " is not a type of component");
+        }
+    }
+
+    private final Components components;
+    private final Map<String, Object> targets = new HashMap<>();
+
+    private ReferenceResolver(Components components) {
+        this.components = components;
+        refresh();
+    }
+
+    /**
+     * Creates a resolver for the references to the given Components element, and indexes its elements.
+     *
+     * @param components the Components element of an OpenAPI model tree
+     * @return a new resolver
+     *
+     * @throws NullPointerException if the Components element is null
+     */
+    public static ReferenceResolver create(Components components) {
+        if (components == null) {
+            throw new NullPointerException();
+        }
+        return new ReferenceResolver(components);
+    }
+
+    /**
+     * Rebuilds the index from the current content of the Components element.
+     */
+    public void refresh() {
+        targets.clear();
+        for (Section section : Section.values()) {
+            final Map<String, ?> map = section.getMap(components);
+            if (map != null) {
+                for (Map.Entry<String, ?> e : map.entrySet()) {
+                    if (e.getValue() != null) {
+                        targets.put(section.getPrefix() + escape(e.getKey()), e.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of indexed elements.
+     *
+     * @return the number of elements of the Components element
+     */
+    public int size() {
+        return targets.size();
+    }
+
+    /**
+     * Returns the element designated by a full reference, e.g. <code>#/components/schemas/Pet</code>.
+     *
+     * @param ref a reference
+     * @return the element, or null if the reference does not designate an element of the Components element
+     *
+     * @throws NullPointerException if the reference is null
+     */
+    public Object resolve(String ref) {
+        if (ref == null) {
+            throw new NullPointerException();
+        }
+        return targets.get(ref);
+    }
+
+    /**
+     * Returns the element of the given type designated by a full reference or a short name.
+     *
+     * @param ref a reference, or the name of an element of the map of the given type
+     * @param type the type of the element, e.g. <code>Schema.class</code>
+     * @param <T> the type of the element
+     * @return the element, or null if the reference does not designate an element of the given type
+     *
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if the type is not the type of the elements of a map of the Components
+     *         element
+     */
+    public <T extends Reference<T>> T resolve(String ref, Class<T> type) {
+        final Section section = Section.forType(type);
+        final Object target = targets.get(expand(ref, section));
+        return type.isInstance(target) ? type.cast(target) : null;
+    }
+
+    /**
+     * Returns the element designated by the reference held by the given element.
+     *
+     * @param element an element of an OpenAPI model tree, e.g. a Schema
+     * @param <T> the type of the element
+     * @return the designated element, the given element itself if it does not hold a reference, or null if its
+     *         reference does not designate an element of the same type
+     *
+     * @throws NullPointerException if the element is null
+     * @throws IllegalArgumentException if the element is not of the type of the elements of a map of the Components
+     *         element
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Reference<T>> T resolve(T element) {
+        final Section section = Section.forElement(element);
+        if (section == null) {
+            throw new IllegalArgumentException(element.getClass().getName() + " is not a type of component");
+        }
+        final String ref = element.getRef();
+        if (ref == null) {
+            return element;
+        }
+        final Object target = targets.get(expand(ref, section));
+        return section.getType().isInstance(target) ? (T) target : null;
+    }
+
+    /**
+     * Returns the element designated by the reference held by the given element, whatever its type.
+     *
+     * @param element an element of an OpenAPI model tree
+     * @return the designated element, or null if the given element does not hold a local reference which designates
+     *         an element of the same type
+     */
+    Object target(Object element) {
+        final Section section = element instanceof Reference ? Section.forElement(element) : null;
+        final String ref = section != null ? ((Reference<?>) element).getRef() : null;
+        if (ref == null || !isLocal(ref)) {
+            return null;
+        }
+        final Object target = targets.get(expand(ref, section));
+        return section.getType().isInstance(target) ? target : null;
+    }
+
+    /**
+     * Adds an element to the map of its type in the Components element, and to the index.
+     *
+     * @param type the type of the element, e.g. <code>Schema.class</code>
+     * @param name the name of the element
+     * @param element the element
+     * @param <T> the type of the element
+     * @return the current instance
+     *
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if the type is not the type of the elements of a map of the Components
+     *         element
+     */
+    public <T extends Reference<T>> ReferenceResolver add(Class<T> type, String name, T element) {
+        if (name == null || element == null) {
+            throw new NullPointerException();
+        }
+        final Section section = Section.forType(type);
+        switch (section) {
+            case SCHEMAS:
+                components.addSchema(name, (Schema) element);
+                break;
+            case RESPONSES:
+                components.addResponse(name, (APIResponse) element);
+                break;
+            case PARAMETERS:
+                components.addParameter(name, (Parameter) element);
+                break;
+            case EXAMPLES:
+                components.addExample(name, (Example) element);
+                break;
+            case REQUEST_BODIES:
+                components.addRequestBody(name, (RequestBody) element);
+                break;
+            case HEADERS:
+                components.addHeader(name, (Header) element);
+                break;
+            case SECURITY_SCHEMES:
+                components.addSecurityScheme(name, (SecurityScheme) element);
+                break;
+            case LINKS:
+                components.addLink(name, (Link) element);
+                break;
+            case CALLBACKS:
+                components.addCallback(name, (Callback) element);
+                break;
+            default:
+                throw new IllegalArgumentException(type.getName());
+        }
+        targets.put(section.getPrefix() + escape(name), element);
+        return this;
+    }
+
+    /**
+     * Walks the given model tree once, and returns the local references which do not designate an element of the
+     * Components element of the type of the referring element. Local references start with <code>#</code>;
+     * references to other documents are not checked.
+     *
+     * @param root an OpenAPI model tree, or any of its elements
+     * @return the dangling references, sorted
+     *
+     * @throws NullPointerException if the root is null
+     */
+    public SortedSet<String> findDanglingReferences(Object root) {
+        if (root == null) {
+            throw new NullPointerException();
+        }
+        final SortedSet<String> dangling = new TreeSet<>();
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Object value = pending.pop();
+            if (!visited.add(value)) {
+                continue;
+            }
+            if (value instanceof Reference) {
+                final String ref = ((Reference<?>) value).getRef();
+                if (ref != null && isLocal(ref) && Section.forElement(value) != null && target(value) == null) {
+                    dangling.add(ref);
+                }
+            }
+            final List<Map.Entry<String, Object>> entries = DocumentWriter.entries(value);
+            if (entries != null) {
+                for (Map.Entry<String, Object> e : entries) {
+                    push(pending, e.getValue());
+                }
+            }
+            else if (value instanceof Collection) {
+                for (Object item : (Collection<?>) value) {
+                    push(pending, item);
+                }
+            }
+        }
+        return dangling;
+    }
+
+    private static void push(Deque<Object> pending, Object value) {
+        if (value instanceof Constructible || value instanceof Map || value instanceof Collection) {
+            pending.push(value);
+        }
+    }
+
+    static boolean isLocal(String ref) {
+        return ref.startsWith("#") || ref.indexOf('/') < 0;
+    }
+
+    static String expand(String ref, Section section) {
+        return ref.indexOf('/') < 0 ? section.getPrefix() + escape(ref) : ref;
+    }
+
+    /**
+     * Escapes a name for use in a JSON pointer, as specified by RFC 6901.
+     */
+    static String escape(String name) {
+        if (name.indexOf('~') < 0 && name.indexOf('/') < 0) {
+            return name;
+        }
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Unescapes a name escaped for use in a JSON pointer.
+     */
+    static String unescape(String name) {
+        if (name.indexOf('~') < 0) {
+            return name;
+        }
+        return name.replace("~1", "/").replace("~0", "~");
+    }
+}
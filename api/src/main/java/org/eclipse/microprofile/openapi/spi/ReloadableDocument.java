@@ -0,0 +1,361 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.openapi.OASConfig;
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.OASFilter;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * The processed document of an application, rebuilt when its sources change, for the development and test
+ * environments in which the static file or the configuration are edited while the application runs.
+ * <p>
+ * The model tree produced by each stage of the processing rules is kept: the model reader, the static file and the
+ * annotations. {@link #reload()} checks the sources of the stages and runs again only the stages whose sources
+ * changed:
+ * <ul>
+ * <li>the model reader, when the <code>mp.openapi.model.reader</code> property changes;</li>
+ * <li>the static file, when its modification time or size changes and its content differs from the content last
+ * read;</li>
+ * <li>the annotation scanning, when a <code>mp.openapi.scan.*</code> property changes.</li>
+ * </ul>
+ * The kept model trees are then merged again with {@link ModelMerger}, in the order of the processing rules, and the
+ * filter is applied when any of them or any <code>mp.openapi.*</code> property changed. A change to the static file
+ * thus neither calls the model reader nor scans the annotations. Checking the sources costs a file status and a read of
+ * the configuration, so runtimes may call {@link #reload()} before serving each request, or periodically.
+ * <p>
+ * The kept model trees and the processed model tree are read-only snapshots. The processed model tree is published by
+ * replacing a single volatile reference once it is complete, and its documents are rendered from it on first request,
+ * so a request served during a reload gets either the previous document or the new one, never a partially built one.
+ * When a stage fails, e.g. because the static file is being written, the previous document remains published and the
+ * next reload tries again.
+ * <p>
+ * Instances of this class are safe for use by multiple threads.
+ */
+public final class ReloadableDocument {
+
+    private static final String CONFIG_PREFIX = "mp.openapi.";
+    private static final String SCAN_PREFIX = "mp.openapi.scan.";
+
+    /**
+     * Sets up a reloadable document.
+     */
+    public static final class Builder {
+
+        private Function<Map<String, String>, OpenAPI> modelReader;
+        private Path staticFile;
+        private Function<Map<String, String>, OpenAPI> annotations;
+        private Function<Map<String, String>, OASFilter> filter;
+        private Supplier<Map<String, String>> config = Collections::emptyMap;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the first stage of the processing rules, which calls the model reader named by the configuration.
+         *
+         * @param modelReader returns the model tree built by the model reader for the given <code>mp.openapi.*</code>
+         *            properties, or null
+         * @return the current Builder instance
+         */
+        public Builder modelReader(Function<Map<String, String>, OpenAPI> modelReader) {
+            this.modelReader = modelReader;
+            return this;
+        }
+
+        /**
+         * Sets the static file of the second stage of the processing rules. The format of the file is given by the
+         * extension of its name, as for {@link DocumentReader#read(Path)}. The file may be created and deleted while
+         * the application runs.
+         *
+         * @param staticFile the static file, e.g. <code>META-INF/openapi.yaml</code> in the exploded application
+         * @return the current Builder instance
+         */
+        public Builder staticFile(Path staticFile) {
+            this.staticFile = staticFile;
+            return this;
+        }
+
+        /**
+         * Sets the third stage of the processing rules, which scans the annotations of the application.
+         *
+         * @param annotations returns the model tree built from the annotations for the given <code>mp.openapi.*</code>
+         *            properties, or null
+         * @return the current Builder instance
+         */
+        public Builder annotations(Function<Map<String, String>, OpenAPI> annotations) {
+            this.annotations = annotations;
+            return this;
+        }
+
+        /**
+         * Sets the filter of the fourth stage of the processing rules, which is created again for each processed
+         * model tree.
+         *
+         * @param filter returns the filter named by the given <code>mp.openapi.*</code> properties, or null
+         * @return the current Builder instance
+         */
+        public Builder filter(Function<Map<String, String>, OASFilter> filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        /**
+         * Sets the source of the configuration, which is read at each reload. Only the <code>mp.openapi.*</code>
+         * properties are taken into account.
+         *
+         * @param config returns the current configuration properties
+         * @return the current Builder instance
+         *
+         * @throws NullPointerException if the source is null
+         */
+        public Builder config(Supplier<Map<String, String>> config) {
+            this.config = Objects.requireNonNull(config);
+            return this;
+        }
+
+        /**
+         * Creates the reloadable document. Nothing is built until the document is first reloaded or requested.
+         *
+         * @return a new reloadable document
+         */
+        public ReloadableDocument build() {
+            return new ReloadableDocument(this);
+        }
+    }
+
+    /**
+     * A processed model tree and its documents, published together.
+     */
+    private static final class Version {
+
+        private final OpenAPI model;
+        private final AtomicReferenceArray<RenderedDocument> documents = new AtomicReferenceArray<>(DocumentWriter.Format.values().length);
+
+        Version(OpenAPI model) {
+            this.model = model;
+        }
+
+        RenderedDocument getDocument(DocumentWriter.Format format) {
+            final int i = format.ordinal();
+            final RenderedDocument document = documents.get(i);
+            if (document != null) {
+                return document;
+            }
+            documents.compareAndSet(i, null, RenderedDocument.render(model, format));
+            return documents.get(i);
+        }
+    }
+
+    private final Function<Map<String, String>, OpenAPI> modelReader;
+    private final Path staticFile;
+    private final Function<Map<String, String>, OpenAPI> annotations;
+    private final Function<Map<String, String>, OASFilter> filter;
+    private final Supplier<Map<String, String>> config;
+
+    // The sources and results of the stages as of the published version, guarded by this.
+    private SortedMap<String, String> properties;
+    private OpenAPI readerModel;
+    private List<Object> fileStatus;
+    private byte[] fileContent;
+    private OpenAPI fileModel;
+    private OpenAPI annotationsModel;
+
+    private volatile Version current;
+
+    private ReloadableDocument(Builder builder) {
+        this.modelReader = builder.modelReader;
+        this.staticFile = builder.staticFile;
+        this.annotations = builder.annotations;
+        this.filter = builder.filter;
+        this.config = builder.config;
+    }
+
+    /**
+     * Creates a new Builder instance.
+     *
+     * @return a new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Checks the sources of the document, and rebuilds and publishes the document if any of them changed since the
+     * last reload. The first reload runs every stage.
+     *
+     * @return true if a new document was published, false if the sources did not change
+     *
+     * @throws IOException if the static file cannot be read or is invalid, in which case the previous document
+     *             remains published
+     */
+    public synchronized boolean reload() throws IOException {
+        final boolean initial = current == null;
+        final SortedMap<String, String> newProperties = properties(config.get());
+
+        OpenAPI newReaderModel = readerModel;
+        if (initial || !Objects.equals(newProperties.get(OASConfig.MODEL_READER), properties.get(OASConfig.MODEL_READER))) {
+            newReaderModel = snapshot(modelReader, newProperties);
+        }
+
+        final List<Object> newFileStatus = fileStatus();
+        byte[] newFileContent = fileContent;
+        OpenAPI newFileModel = fileModel;
+        if (initial || !Objects.equals(newFileStatus, fileStatus)) {
+            newFileContent = newFileStatus != null ? Files.readAllBytes(staticFile) : null;
+            if (initial || !Arrays.equals(newFileContent, fileContent)) {
+                newFileModel = newFileContent != null ? snapshot(DocumentReader.read(new ByteArrayInputStream(newFileContent),
+                        DocumentReader.formatOf(staticFile))) : null;
+            }
+        }
+
+        OpenAPI newAnnotationsModel = annotationsModel;
+        if (initial || !scanProperties(newProperties).equals(scanProperties(properties))) {
+            newAnnotationsModel = snapshot(annotations, newProperties);
+        }
+
+        final boolean changed = initial || !newProperties.equals(properties) || newReaderModel != readerModel
+                || newFileModel != fileModel || newAnnotationsModel != annotationsModel;
+        if (changed) {
+            // The state of the stages is committed only once the document is processed, so that a failed reload is
+            // tried again by the next one.
+            current = new Version(process(Arrays.asList(newReaderModel, newFileModel, newAnnotationsModel), newProperties));
+            properties = newProperties;
+            readerModel = newReaderModel;
+            fileModel = newFileModel;
+            annotationsModel = newAnnotationsModel;
+        }
+        fileStatus = newFileStatus;
+        fileContent = newFileContent;
+        return changed;
+    }
+
+    /**
+     * Returns the processed model tree currently published, building it if the document was never reloaded.
+     *
+     * @return a read-only model tree
+     *
+     * @throws UncheckedIOException if the document is built and the static file cannot be read or is invalid
+     */
+    public OpenAPI getModel() {
+        return version().model;
+    }
+
+    /**
+     * Returns the document currently published in the given format, building it if the document was never reloaded.
+     * The document is rendered once per published version.
+     *
+     * @param format the format of the document
+     * @return the rendered document
+     *
+     * @throws UncheckedIOException if the document is built and the static file cannot be read or is invalid
+     * @throws NullPointerException if the format is null
+     */
+    public RenderedDocument getDocument(DocumentWriter.Format format) {
+        return version().getDocument(format);
+    }
+
+    private Version version() {
+        final Version version = current;
+        if (version != null) {
+            return version;
+        }
+        synchronized (this) {
+            if (current == null) {
+                try {
+                    reload();
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Merges copies of the model trees of the stages, so that they can be merged again later, and applies the filter.
+     */
+    private OpenAPI process(List<OpenAPI> stages, Map<String, String> properties) {
+        OpenAPI model = ModelMerger.mergeCopies(stages);
+        if (model == null) {
+            model = OASFactory.createObject(OpenAPI.class).openapi("3.0.0");
+        }
+        final OASFilter oasFilter = filter != null ? filter.apply(properties) : null;
+        if (oasFilter != null) {
+            FilterWalker.filter(model, oasFilter);
+        }
+        return snapshot(model);
+    }
+
+    /**
+     * Returns the modification time and size of the static file, or null if there is none.
+     */
+    private List<Object> fileStatus() throws IOException {
+        if (staticFile == null) {
+            return null;
+        }
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(staticFile, BasicFileAttributes.class);
+            return Arrays.asList(attributes.lastModifiedTime(), attributes.size());
+        }
+        catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static OpenAPI snapshot(Function<Map<String, String>, OpenAPI> stage, Map<String, String> properties) {
+        return stage != null ? snapshot(stage.apply(properties)) : null;
+    }
+
+    private static OpenAPI snapshot(OpenAPI model) {
+        return model != null ? OASFactoryResolver.instance().createSnapshot(model) : null;
+    }
+
+    private static SortedMap<String, String> properties(Map<String, String> config) {
+        final SortedMap<String, String> properties = new TreeMap<>();
+        for (Map.Entry<String, String> e : config.entrySet()) {
+            if (e.getKey().startsWith(CONFIG_PREFIX)) {
+                properties.put(e.getKey(), e.getValue());
+            }
+        }
+        return properties;
+    }
+
+    private static Map<String, String> scanProperties(SortedMap<String, String> properties) {
+        return properties.subMap(SCAN_PREFIX, SCAN_PREFIX + Character.MAX_VALUE);
+    }
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * The body of a response of the <code>/openapi</code> endpoint, rendered once in a given format.
+ * <p>
+ * As the OpenAPI document does not change once the processing rules have completed, vendors can render it once per
+ * format (YAML and JSON), keep the resulting instances and answer every request from them. Each instance carries a
+ * strong entity tag computed from its content, which vendors send in the <code>ETag</code> header, and supports the
+ * evaluation of the <code>If-None-Match</code> request header so that unchanged documents can be answered with
+ * <code>304 Not Modified</code>.
+ * <p>
+ * The <code>gzip</code> and <code>deflate</code> encoded variants of the document are computed once, when the
+ * document is created. {@link #negotiate(String)} selects the variant to send for a given
+ * <code>Accept-Encoding</code> request header. Each variant has its own entity tag.
+ * <p>
+ * Instances of this class are immutable and safe for use by multiple threads.
+ */
+public final class RenderedDocument {
+
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+
+    private final String mediaType;
+    private final String contentEncoding;
+    private final byte[] body;
+    private final String entityTag;
+    private final RenderedDocument identity;
+    private final RenderedDocument gzip;
+    private final RenderedDocument deflate;
+
+    private RenderedDocument(String mediaType, byte[] body) {
+        final String digest = digest(body);
+        this.mediaType = mediaType;
+        this.contentEncoding = null;
+        this.body = body;
+        this.entityTag = '"' + digest + '"';
+        this.identity = this;
+        this.gzip = new RenderedDocument(this, GZIP, compress(body, true), digest);
+        this.deflate = new RenderedDocument(this, DEFLATE, compress(body, false), digest);
+    }
+
+    private RenderedDocument(RenderedDocument identity, String contentEncoding, byte[] body, String digest) {
+        this.mediaType = identity.mediaType;
+        this.contentEncoding = contentEncoding;
+        this.body = body;
+        this.entityTag = '"' + digest + '-' + contentEncoding + '"';
+        this.identity = identity;
+        this.gzip = null;
+        this.deflate = null;
+    }
+
+    /**
+     * Creates a rendered document, along with its encoded variants. The given array is copied, so later changes to it
+     * do not affect the document.
+     *
+     * @param mediaType the media type of the document (e.g. <code>application/json</code>)
+     * @param body the serialized document
+     * @return the rendered document
+     *
+     * @throws NullPointerException if the media type or the body is null
+     */
+    public static RenderedDocument of(String mediaType, byte[] body) {
+        if (mediaType == null || body == null) {
+            throw new NullPointerException();
+        }
+        return new RenderedDocument(mediaType, body.clone());
+    }
+
+    /**
+     * Renders the given model tree in the given format, along with its encoded variants.
+     *
+     * @param openAPI the model tree to render
+     * @param format the format of the document
+     * @return the rendered document
+     *
+     * @throws IllegalArgumentException if the model tree contains a cycle
+     * @throws NullPointerException if the model tree or the format is null
+     *
+     * @see DocumentWriter
+     */
+    public static RenderedDocument render(OpenAPI openAPI, DocumentWriter.Format format) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DocumentWriter.write(openAPI, format, bytes);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RenderedDocument(format.getMediaType(), bytes.toByteArray());
+    }
+
+    /**
+     * Returns the media type of this document, to be sent in the <code>Content-Type</code> header.
+     *
+     * @return the media type
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the content coding of this document, to be sent in the <code>Content-Encoding</code> header.
+     *
+     * @return <code>gzip</code> or <code>deflate</code> for an encoded variant, or null if the document is not encoded
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Selects the variant of this document to send for a request with the given <code>Accept-Encoding</code>
+     * header. The variant with the highest quality value among <code>gzip</code> and <code>deflate</code> is
+     * selected, <code>gzip</code> being preferred when both are equally acceptable. The document which is not
+     * encoded is selected when neither is acceptable, or when encoding does not make the document smaller.
+     * <p>
+     * As the response then depends on the <code>Accept-Encoding</code> header, vendors should include
+     * <code>Vary: Accept-Encoding</code> in every response.
+     *
+     * @param acceptEncoding the value of the <code>Accept-Encoding</code> header, or null if the request has no such header
+     * @return the variant to send
+     */
+    public RenderedDocument negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return identity;
+        }
+        float gzipQuality = -1;
+        float deflateQuality = -1;
+        float anyQuality = 0;
+        for (String element : acceptEncoding.split(",")) {
+            final String[] parts = element.split(";");
+            final String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            final float quality = quality(parts);
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            }
+            else if (coding.equals(DEFLATE)) {
+                deflateQuality = Math.max(deflateQuality, quality);
+            }
+            else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality < 0) {
+            gzipQuality = anyQuality;
+        }
+        if (deflateQuality < 0) {
+            deflateQuality = anyQuality;
+        }
+        final RenderedDocument selected;
+        if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+            selected = identity.gzip;
+        }
+        else if (deflateQuality > 0) {
+            selected = identity.deflate;
+        }
+        else {
+            return identity;
+        }
+        return selected.body.length < identity.body.length ? selected : identity;
+    }
+
+    /**
+     * Returns the strong entity tag of this document, including the surrounding double quotes, to be sent in the
+     * <code>ETag</code> header. Documents with the same content have the same entity tag.
+     *
+     * @return the entity tag
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * Returns the length of this document in bytes, to be sent in the <code>Content-Length</code> header.
+     *
+     * @return the length of the document
+     */
+    public int getLength() {
+        return body.length;
+    }
+
+    /**
+     * Returns true if a request with the given <code>If-None-Match</code> header must be answered with
+     * <code>304 Not Modified</code>, i.e. if the header is <code>*</code> or lists the entity tag of this document.
+     * As required for this header, entity tags are compared using the weak comparison function.
+     *
+     * @param ifNoneMatch the value of the <code>If-None-Match</code> header, or null if the request has no such header
+     * @return whether the document has not been modified
+     */
+    public boolean isNotModified(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes this document to the given stream.
+     *
+     * @param out the stream to write to
+     *
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(body);
+    }
+
+    /**
+     * Returns a read-only view of the content of this document, which vendors can write to a channel without
+     * copying it.
+     *
+     * @return the serialized document
+     */
+    public ByteBuffer getBody() {
+        return ByteBuffer.wrap(body).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a copy of the content of this document.
+     *
+     * @return the serialized document
+     */
+    public byte[] toByteArray() {
+        return body.clone();
+    }
+
+    private static float quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; ++i) {
+            final String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                }
+                catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] compress(byte[] body, boolean gzip) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (DeflaterOutputStream out = gzip ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            out.write(body);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String digest(byte[] body) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(GeneratedDocument.sha256().digest(body));
+    }
+}
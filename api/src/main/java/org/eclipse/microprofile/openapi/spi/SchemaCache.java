@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+
+/**
+ * Memoizes the schemas of the Java types met while scanning the annotations of an application, so that a type used by
+ * many operations, fields or parameters is introspected only once per scan.
+ * <p>
+ * Vendors provide the introspection of a single type, which creates its schema and resolves the schemas of the types
+ * it refers to (e.g. the types of its properties) through this cache. Types are the keys of a hash table, and are
+ * compared with {@link Object#equals(Object)}: classes, and the parameterized types, array types, type variables and
+ * wildcard types of the Java platform, implement it as expected.
+ * <p>
+ * A type which refers to itself, directly or through other types, is not introspected again while its own
+ * introspection is in progress: a reference to <code>#/components/schemas/</code> followed by the component name of
+ * the type is returned instead. The schemas of these types are then returned by {@link #getReferencedSchemas()}, and
+ * must be added to the Components element of the model tree so that the references can be resolved.
+ * <p>
+ * The same schema instance is returned for every use of a type. Vendors which modify the schemas of the model tree
+ * afterwards, for instance while filtering, must take into account that a change applies to every use of the type.
+ * <p>
+ * Instances of this class are safe for use by multiple threads, e.g. by the scanners of a {@link ParallelScanner},
+ * as long as the introspection is. A type may then be introspected concurrently by several threads, in which case
+ * all of them use the schema created first.
+ */
+public final class SchemaCache {
+
+    private static final String SCHEMAS_PREFIX = "#/components/schemas/";
+
+    private final BiFunction<Type, SchemaCache, Schema> introspector;
+    private final Function<Type, String> namer;
+    private final Map<Type, Schema> schemas = new ConcurrentHashMap<>();
+    // The types referred to while being introspected, by component name.
+    private final Map<String, Type> referencedTypes = new ConcurrentHashMap<>();
+    // The types being introspected by the current thread.
+    private final ThreadLocal<Set<Type>> resolving = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * Creates a cache, which names the components of self-referencing types after the simple names of their classes,
+     * as described in {@link #componentName(Type)}.
+     *
+     * @param introspector creates the schema of the given type, resolving the types it refers to through the given
+     *        cache
+     *
+     * @throws NullPointerException if the introspector is null
+     */
+    public SchemaCache(BiFunction<Type, SchemaCache, Schema> introspector) {
+        this(introspector, SchemaCache::componentName);
+    }
+
+    /**
+     * Creates a cache, which names the components of self-referencing types with the given function.
+     *
+     * @param introspector creates the schema of the given type, resolving the types it refers to through the given
+     *        cache
+     * @param namer returns the component name of the given type
+     *
+     * @throws NullPointerException if any argument is null
+     */
+    public SchemaCache(BiFunction<Type, SchemaCache, Schema> introspector, Function<Type, String> namer) {
+        if (introspector == null || namer == null) {
+            throw new NullPointerException();
+        }
+        this.introspector = introspector;
+        this.namer = namer;
+    }
+
+    /**
+     * Returns the schema of the given type, introspecting it on first use. If the type is being introspected by the
+     * current thread, a new schema holding a reference to the component of the type is returned instead.
+     *
+     * @param type a Java type
+     * @return the schema of the type
+     *
+     * @throws NullPointerException if the type is null
+     * @throws IllegalStateException if the component name of a self-referencing type is already used by another type
+     */
+    public Schema resolve(Type type) {
+        final Schema cached = schemas.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        final Set<Type> current = resolving.get();
+        if (!current.add(type)) {
+            final String name = namer.apply(type);
+            final Type previous = referencedTypes.putIfAbsent(name, type);
+            if (previous != null && !previous.equals(type)) {
+                throw new IllegalStateException("Component name " + name + " used by both " + previous.getTypeName() + " and "
+                        + type.getTypeName());
+            }
+            return OASFactory.createObject(Schema.class).ref(SCHEMAS_PREFIX + name);
+        }
+        try {
+            final Schema schema = introspector.apply(type, this);
+            final Schema previous = schemas.putIfAbsent(type, schema);
+            return previous != null ? previous : schema;
+        }
+        finally {
+            current.remove(type);
+            if (current.isEmpty()) {
+                resolving.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of types introspected so far.
+     *
+     * @return the number of cached schemas
+     */
+    public int size() {
+        return schemas.size();
+    }
+
+    /**
+     * Returns the schemas of the types which are referred to by a reference returned by {@link #resolve(Type)}, by
+     * component name.
+     *
+     * @return the schemas to add to the Components element, sorted by name
+     */
+    public SortedMap<String, Schema> getReferencedSchemas() {
+        final SortedMap<String, Schema> referenced = new TreeMap<>();
+        for (Map.Entry<String, Type> entry : referencedTypes.entrySet()) {
+            referenced.put(entry.getKey(), resolve(entry.getValue()));
+        }
+        return Collections.unmodifiableSortedMap(referenced);
+    }
+
+    /**
+     * Returns the default component name of the given type: the simple name of a class, the name of the component
+     * type followed by <code>Array</code> for an array type, and the names of the raw type and of the type arguments
+     * joined by <code>_</code> for a parameterized type (e.g. <code>Page_Booking</code>). For anonymous classes and
+     * other types, the characters of the type name which are not allowed in component names are replaced by
+     * <code>_</code>.
+     *
+     * @param type a Java type
+     * @return the component name of the type
+     */
+    public static String componentName(Type type) {
+        if (type instanceof Class) {
+            final Class<?> c = (Class<?>) type;
+            if (c.isArray()) {
+                return componentName(c.getComponentType()) + "Array";
+            }
+            if (!c.getSimpleName().isEmpty()) {
+                return c.getSimpleName();
+            }
+        }
+        if (type instanceof GenericArrayType) {
+            return componentName(((GenericArrayType) type).getGenericComponentType()) + "Array";
+        }
+        if (type instanceof ParameterizedType) {
+            final StringBuilder name = new StringBuilder(componentName(((ParameterizedType) type).getRawType()));
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                name.append('_').append(componentName(argument));
+            }
+            return name.toString();
+        }
+        return type.getTypeName().replaceAll("[^a-zA-Z0-9.\\-_]", "_");
+    }
+}
@@ -0,0 +1,512 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.openapi.OASConfig;
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.OASFilter;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+
+/**
+ * Replaces the structurally identical schemas of an OpenAPI model tree by references to a single schema of the
+ * Components element. Vendors may run this stage once the model tree is built and before it is filtered, when the
+ * {@link #ENABLED} configuration property is true.
+ * <p>
+ * Two schemas are identical when they would be written the same way in a document: same properties, with the same
+ * values, and identical nested schemas. Each schema is reduced to a structural key computed from its own properties
+ * and the keys of its nested schemas, so the model tree is analyzed in a single walk, whatever its depth. Then, from
+ * the outermost schemas to the innermost ones:
+ * <ul>
+ * <li>the occurrences of a schema identical to a schema of the Components element are replaced by references to
+ * it;</li>
+ * <li>a schema which occurs at least twice is added to the Components element, and its occurrences are replaced by
+ * references to it, as long as this makes the document smaller.</li>
+ * </ul>
+ * Occurrences nested in a schema which is itself replaced are counted once, as they remain only in the schema of the
+ * Components element. Schemas holding a reference, and schemas which are part of a cycle of the model tree, are left
+ * as they are.
+ * <p>
+ * The savings are measured on the compact JSON encoding of the schemas of the model tree, before and after
+ * deduplication, and returned as a {@link Result}.
+ */
+public final class SchemaDeduplicator {
+
+    /**
+     * Configuration property to enable the deduplication of schemas. The default value is <code>false</code>.
+     */
+    public static final String ENABLED = OASConfig.EXTENSIONS_PREFIX + "schema.deduplicate";
+
+    /**
+     * Configuration property to specify the prefix of the names of the schemas added to the Components element. The
+     * names are made of the prefix followed by a sequence number. The default value is <code>Schema</code>.
+     */
+    public static final String NAME_PREFIX = OASConfig.EXTENSIONS_PREFIX + "schema.deduplicate.prefix";
+
+    private static final String DEFAULT_NAME_PREFIX = "Schema";
+    private static final String SCHEMAS_PREFIX = "#/components/schemas/";
+    // Marks the position of a nested schema in a structural key.
+    private static final char NESTED = '\u0000';
+
+    private SchemaDeduplicator() {
+    }
+
+    /**
+     * Deduplicates the schemas of the given model tree if the {@link #ENABLED} configuration property is true.
+     *
+     * @param openAPI the model tree to update in place
+     * @param config returns the value of the configuration property of the given name, or null if it is not set
+     * @return the savings, all zero if the deduplication is not enabled
+     *
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if the name prefix contains characters not allowed in component names
+     */
+    public static Result deduplicate(OpenAPI openAPI, Function<String, String> config) {
+        if (openAPI == null) {
+            throw new NullPointerException();
+        }
+        final String enabled = config.apply(ENABLED);
+        if (enabled == null || !Boolean.parseBoolean(enabled.trim())) {
+            return new Result(0, 0, 0, 0);
+        }
+        final String prefix = config.apply(NAME_PREFIX);
+        return deduplicate(openAPI, prefix == null || prefix.trim().isEmpty() ? DEFAULT_NAME_PREFIX : prefix.trim());
+    }
+
+    /**
+     * Deduplicates the schemas of the given model tree, whatever the configuration.
+     *
+     * @param openAPI the model tree to update in place
+     * @return the savings
+     *
+     * @throws NullPointerException if the model tree is null
+     */
+    public static Result deduplicate(OpenAPI openAPI) {
+        return deduplicate(openAPI, DEFAULT_NAME_PREFIX);
+    }
+
+    private static Result deduplicate(OpenAPI openAPI, String prefix) {
+        if (!prefix.matches("[a-zA-Z0-9.\\-_]+")) {
+            throw new IllegalArgumentException("Invalid component name prefix: " + prefix);
+        }
+        final Analysis before = new Analysis();
+        FilterWalker.filter(openAPI, before);
+        final Map<String, Schema> components = openAPI.getComponents() != null && openAPI.getComponents().getSchemas() != null
+                ? new LinkedHashMap<>(openAPI.getComponents().getSchemas()) : new LinkedHashMap<>();
+        final Plan plan = new Plan(before, components, prefix);
+        if (plan.replaced == 0) {
+            return new Result(0, 0, 0, 0);
+        }
+        final Rewrite rewrite = new Rewrite(before, plan);
+        FilterWalker.filter(openAPI, rewrite);
+
+        // The schemas of the Components element are kept as they are, even if they were replaced while walking.
+        long nameBytes = 0;
+        for (int id = 0; id < plan.names.length; ++id) {
+            if (plan.added[id] && rewrite.bodies[id] != null) {
+                components.put(plan.names[id], rewrite.bodies[id]);
+                nameBytes += plan.names[id].length() + 4;
+            }
+        }
+        if (openAPI.getComponents() == null) {
+            openAPI.setComponents(OASFactory.createObject(Components.class));
+        }
+        openAPI.getComponents().setSchemas(components);
+
+        final Analysis after = new Analysis();
+        FilterWalker.filter(openAPI, after);
+        return new Result(plan.added(), plan.references, before.totalNodes() - after.totalNodes(),
+                before.totalBytes() - after.totalBytes() - nameBytes);
+    }
+
+    /**
+     * The savings of a deduplication.
+     */
+    public static final class Result {
+
+        private final int components;
+        private final long references;
+        private final long nodesSaved;
+        private final long bytesSaved;
+
+        Result(int components, long references, long nodesSaved, long bytesSaved) {
+            this.components = components;
+            this.references = references;
+            this.nodesSaved = nodesSaved;
+            this.bytesSaved = bytesSaved;
+        }
+
+        /**
+         * Returns the number of schemas added to the Components element.
+         *
+         * @return the number of added schemas
+         */
+        public int getComponents() {
+            return components;
+        }
+
+        /**
+         * Returns the number of references to the Components element which replaced a schema.
+         *
+         * @return the number of references
+         */
+        public long getReferences() {
+            return references;
+        }
+
+        /**
+         * Returns the number of Schema elements removed from the model tree, net of the references added.
+         *
+         * @return the number of saved nodes
+         */
+        public long getNodesSaved() {
+            return nodesSaved;
+        }
+
+        /**
+         * Returns the number of bytes removed from the compact JSON encoding of the schemas of the model tree, names
+         * of the added components included.
+         *
+         * @return the number of saved bytes
+         */
+        public long getBytesSaved() {
+            return bytesSaved;
+        }
+
+        @Override
+        public String toString() {
+            return components + " schemas added to components, " + references + " references, " + nodesSaved + " nodes and "
+                    + bytesSaved + " bytes saved";
+        }
+    }
+
+    /**
+     * The structure of the schemas of a model tree. Each distinct structure is given an id, in the order in which
+     * the walk completes them, so the ids of nested schemas are lower than the id of the schema they are nested in.
+     */
+    private static final class Analysis implements OASFilter {
+
+        private final Map<Schema, Integer> ids = new IdentityHashMap<>();
+        private final Map<String, Integer> keys = new HashMap<>();
+        private final List<Node> nodes = new ArrayList<>();
+
+        @Override
+        public Schema filterSchema(Schema schema) {
+            Integer id = ids.get(schema);
+            if (id == null) {
+                id = intern(schema);
+                ids.put(schema, id);
+            }
+            if (id >= 0) {
+                ++nodes.get(id).count;
+            }
+            return schema;
+        }
+
+        /**
+         * Returns the id of the structure of the given schema, or -1 if a nested schema has none because it is part
+         * of a cycle.
+         */
+        private int intern(Schema schema) {
+            final Key key = new Key();
+            if (!key.entries(DocumentWriter.entries(schema))) {
+                return -1;
+            }
+            final String value = key.value.toString();
+            final Integer existing = keys.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            final int id = nodes.size();
+            nodes.add(new Node(key, schema.getRef() == null));
+            keys.put(value, id);
+            return id;
+        }
+
+        /**
+         * Returns, for each structure, the number of its occurrences which are not nested in another schema.
+         */
+        long[] roots() {
+            final long[] roots = new long[nodes.size()];
+            for (int id = 0; id < roots.length; ++id) {
+                roots[id] += nodes.get(id).count;
+                for (int child : nodes.get(id).children) {
+                    roots[child] -= nodes.get(id).count;
+                }
+            }
+            return roots;
+        }
+
+        long totalNodes() {
+            final long[] roots = roots();
+            long total = 0;
+            for (int id = 0; id < roots.length; ++id) {
+                total += roots[id] * nodes.get(id).nodes;
+            }
+            return total;
+        }
+
+        long totalBytes() {
+            final long[] roots = roots();
+            long total = 0;
+            for (int id = 0; id < roots.length; ++id) {
+                total += roots[id] * nodes.get(id).bytes;
+            }
+            return total;
+        }
+
+        /**
+         * Builds the structural key of a schema: its compact JSON encoding, in which nested schemas are replaced by
+         * their ids.
+         */
+        private final class Key {
+
+            private final StringBuilder value = new StringBuilder();
+            private final List<Integer> children = new ArrayList<>();
+            private long bytes;
+            private long nodes = 1;
+
+            private boolean entries(List<Map.Entry<String, Object>> entries) {
+                append('{');
+                boolean first = true;
+                for (Map.Entry<String, Object> e : entries) {
+                    if (!first) {
+                        append(',');
+                    }
+                    first = false;
+                    quoted(e.getKey());
+                    append(':');
+                    if (!value(e.getValue())) {
+                        return false;
+                    }
+                }
+                append('}');
+                return true;
+            }
+
+            private boolean value(Object v) {
+                if (v instanceof Schema) {
+                    final Integer id = ids.get(v);
+                    if (id == null || id < 0) {
+                        return false;
+                    }
+                    final Node child = Analysis.this.nodes.get(id);
+                    value.append(NESTED).append(id).append(NESTED);
+                    children.add(id);
+                    bytes += child.bytes;
+                    nodes += child.nodes;
+                    return true;
+                }
+                final List<Map.Entry<String, Object>> entries = DocumentWriter.entries(v);
+                if (entries != null) {
+                    return entries(entries);
+                }
+                if (v instanceof Collection) {
+                    append('[');
+                    boolean first = true;
+                    for (Object item : (Collection<?>) v) {
+                        if (!first) {
+                            append(',');
+                        }
+                        first = false;
+                        if (!value(item)) {
+                            return false;
+                        }
+                    }
+                    append(']');
+                }
+                else if (v == null || v instanceof Boolean || DocumentWriter.isFiniteNumber(v)) {
+                    append(String.valueOf(v));
+                }
+                else {
+                    quoted(v.toString());
+                }
+                return true;
+            }
+
+            private void quoted(String s) {
+                append('"');
+                for (int i = 0; i < s.length(); ++i) {
+                    final char c = s.charAt(i);
+                    if (c == '"' || c == '\\') {
+                        append('\\');
+                        append(c);
+                    }
+                    else if (c < 0x20) {
+                        append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        append(c);
+                    }
+                }
+                append('"');
+            }
+
+            private void append(char c) {
+                value.append(c);
+                bytes += c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate(c) ? 2 : 3;
+            }
+
+            private void append(String s) {
+                for (int i = 0; i < s.length(); ++i) {
+                    append(s.charAt(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * A distinct schema structure.
+     */
+    private static final class Node {
+
+        // The number of bytes and of Schema elements of the structure, nested schemas included.
+        private final long bytes;
+        private final long nodes;
+        // The ids of the nested schemas, once per occurrence.
+        private final int[] children;
+        private final boolean replaceable;
+        private long count;
+
+        Node(Analysis.Key key, boolean replaceable) {
+            this.bytes = key.bytes;
+            this.nodes = key.nodes;
+            this.children = new int[key.children.size()];
+            for (int i = 0; i < children.length; ++i) {
+                children[i] = key.children.get(i);
+            }
+            this.replaceable = replaceable;
+        }
+    }
+
+    /**
+     * Decides which structures are replaced by references, from the outermost to the innermost.
+     */
+    private static final class Plan {
+
+        private final String[] names;
+        private final boolean[] replace;
+        private final boolean[] added;
+        private int replaced;
+        // The number of references in the resulting model tree.
+        private long references;
+
+        Plan(Analysis analysis, Map<String, Schema> components, String prefix) {
+            final int size = analysis.nodes.size();
+            names = new String[size];
+            replace = new boolean[size];
+            added = new boolean[size];
+            // The number of schemas of the Components element with each structure, which are never replaced.
+            final int[] definitions = new int[size];
+            for (Map.Entry<String, Schema> e : components.entrySet()) {
+                final Integer id = analysis.ids.get(e.getValue());
+                if (id != null && id >= 0) {
+                    ++definitions[id];
+                    if (names[id] == null) {
+                        names[id] = e.getKey();
+                    }
+                }
+            }
+            final int nameLength = prefix.length() + Integer.toString(size).length();
+            final long[] occurrences = analysis.roots();
+            for (int id = size - 1; id >= 0; --id) {
+                final Node node = analysis.nodes.get(id);
+                final long count = occurrences[id];
+                if (names[id] != null) {
+                    replace[id] = count >= 2 && node.bytes > referenceBytes(names[id].length());
+                }
+                else if (node.replaceable && count >= 2) {
+                    final long saved = (count - 1) * node.bytes - count * referenceBytes(nameLength) - (nameLength + 4);
+                    replace[id] = added[id] = saved > 0;
+                }
+                // A replaced structure remains once, in the Components element.
+                final long nested = replace[id] ? 1 : count;
+                for (int child : node.children) {
+                    occurrences[child] += nested;
+                }
+                if (replace[id]) {
+                    ++replaced;
+                    references += count - definitions[id];
+                }
+            }
+            int sequence = 1;
+            for (int id = 0; id < size; ++id) {
+                if (added[id]) {
+                    String name;
+                    do {
+                        name = prefix + sequence++;
+                    } while (components.containsKey(name));
+                    names[id] = name;
+                }
+            }
+        }
+
+        int added() {
+            int count = 0;
+            for (boolean a : added) {
+                if (a) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+
+        private static long referenceBytes(int nameLength) {
+            // {"$ref":"#/components/schemas/name"}
+            return 12 + SCHEMAS_PREFIX.length() + nameLength;
+        }
+    }
+
+    /**
+     * Replaces the occurrences of the structures selected by a plan by references, keeping the first occurrence of
+     * each added structure as the schema of the Components element.
+     */
+    private static final class Rewrite implements OASFilter {
+
+        private final Analysis analysis;
+        private final Plan plan;
+        private final Schema[] bodies;
+
+        Rewrite(Analysis analysis, Plan plan) {
+            this.analysis = analysis;
+            this.plan = plan;
+            this.bodies = new Schema[plan.names.length];
+        }
+
+        @Override
+        public Schema filterSchema(Schema schema) {
+            final Integer id = analysis.ids.get(schema);
+            if (id == null || id < 0 || !plan.replace[id]) {
+                return schema;
+            }
+            if (bodies[id] == null) {
+                bodies[id] = schema;
+            }
+            return OASFactory.createObject(Schema.class).ref(SCHEMAS_PREFIX + plan.names[id]);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The entries of several maps, which {@link DocumentWriter} writes in place of the map entry holding the splice, as if
+ * they were entries of the enclosing map. A splice must not be the first entry of a mapping written inline, such as
+ * the top-level mapping of a YAML document.
+ * <p>
+ * The entries of each map are rendered once per format, and the rendered text is reused as long as the map is written
+ * at the same depth.
+ */
+final class Splice {
+
+    private final List<Fragment> fragments;
+
+    /**
+     * Creates a splice of the given fragments, at least one of which must not be empty.
+     *
+     * @param fragments the fragments, in order
+     */
+    Splice(List<Fragment> fragments) {
+        this.fragments = fragments;
+    }
+
+    /**
+     * Returns the text of the entries of all the fragments, as written within a mapping at the given depth.
+     *
+     * @param format the format of the document
+     * @param depth the depth of the entries
+     * @return the rendered entries
+     */
+    String text(DocumentWriter.Format format, int depth) {
+        final StringBuilder text = new StringBuilder();
+        for (Fragment fragment : fragments) {
+            final String t = fragment.text(format, depth);
+            if (!t.isEmpty()) {
+                if (format == DocumentWriter.Format.JSON && text.length() > 0) {
+                    text.append(",\n");
+                }
+                text.append(t);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * The entries of a single map.
+     */
+    static final class Fragment {
+
+        private final Map<?, ?> map;
+        private final String[] texts = new String[DocumentWriter.Format.values().length];
+        private final int[] depths = new int[texts.length];
+
+        /**
+         * Creates a fragment holding the entries of the given map, which must not change afterwards.
+         *
+         * @param map the map
+         */
+        Fragment(Map<?, ?> map) {
+            this.map = map;
+        }
+
+        /**
+         * Returns true if the map has no entry to write.
+         *
+         * @return whether all the values of the map are null
+         */
+        boolean isEmpty() {
+            for (Object value : map.values()) {
+                if (value != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized String text(DocumentWriter.Format format, int depth) {
+            final int i = format.ordinal();
+            if (texts[i] == null || depths[i] != depth) {
+                texts[i] = DocumentWriter.render(map, format, depth);
+                depths[i] = depth;
+            }
+            return texts[i];
+        }
+    }
+}
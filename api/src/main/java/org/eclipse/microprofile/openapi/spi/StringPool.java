@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A pool of canonical strings, which vendors can use to deduplicate the strings that repeat throughout an OpenAPI
+ * document, such as media types (e.g. <code>application/json</code>), references (e.g. <code>#/components/schemas/Pet</code>),
+ * response codes and schema formats.
+ * <p>
+ * Unlike {@link String#intern()}, a pool is not global: it is typically shared by the static file reader, the
+ * annotation scanner and {@link OASFactoryResolver#createSnapshot(org.eclipse.microprofile.openapi.models.OpenAPI, StringPool)}
+ * while processing a single application, and discarded afterwards.
+ * <p>
+ * Instances of this class are safe for use by multiple threads.
+ */
+public final class StringPool {
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the canonical instance of the given string. The first string added to the pool with a given value becomes
+     * the canonical instance for that value.
+     *
+     * @param value a string
+     * @return a string equal to the given one, which is the same instance for all equal strings, or null if the given value is null
+     */
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        final String canonical = strings.putIfAbsent(value, value);
+        return canonical != null ? canonical : value;
+    }
+
+    /**
+     * Returns the number of distinct strings in this pool.
+     *
+     * @return the number of canonical strings
+     */
+    public int size() {
+        return strings.size();
+    }
+}
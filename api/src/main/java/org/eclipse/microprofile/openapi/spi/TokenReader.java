@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.IOException;
+
+/**
+ * A pull-based reader of the tokens of a YAML or JSON document. Each call to {@link #next()} reads just enough of
+ * the document to return the next token.
+ */
+abstract class TokenReader {
+
+    /**
+     * The tokens of a document.
+     */
+    enum Token {
+        START_MAP, END_MAP, START_LIST, END_LIST, KEY, SCALAR, END
+    }
+
+    /**
+     * Reads the next token of the document.
+     *
+     * @return the next token, or {@link Token#END} at the end of the document
+     * @throws IOException if reading fails or the document is invalid
+     */
+    abstract Token next() throws IOException;
+
+    /**
+     * Returns the text of the current token if it is a key or a scalar.
+     *
+     * @return the text of the current token
+     */
+    abstract String text();
+
+    /**
+     * Returns true if the current token is a scalar which is not quoted, and may therefore stand for null, a boolean
+     * or a number.
+     *
+     * @return whether the current scalar is plain
+     */
+    abstract boolean isPlain();
+
+    /**
+     * Returns the line of the document on which the current token is found, starting at 1.
+     *
+     * @return the current line
+     */
+    abstract int line();
+
+    /**
+     * Creates the exception thrown for an invalid document.
+     *
+     * @param message the description of the problem
+     * @return the exception
+     */
+    IOException error(String message) {
+        return new IOException("Invalid document at line " + line() + ": " + message);
+    }
+
+    /**
+     * Skips the value starting with the given token, including all nested values.
+     *
+     * @param token the first token of the value
+     * @throws IOException if reading fails or the document is invalid
+     */
+    void skip(Token token) throws IOException {
+        int depth = token == Token.START_MAP || token == Token.START_LIST ? 1 : 0;
+        while (depth > 0) {
+            switch (next()) {
+                case START_MAP:
+                case START_LIST:
+                    ++depth;
+                    break;
+                case END_MAP:
+                case END_LIST:
+                    --depth;
+                    break;
+                case END:
+                    throw error("unexpected end of document");
+                default:
+                    break;
+            }
+        }
+    }
+}
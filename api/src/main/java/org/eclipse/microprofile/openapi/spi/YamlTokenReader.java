@@ -0,0 +1,813 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.spi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads the tokens of a YAML document, one line at a time.
+ * <p>
+ * The subset of YAML used by OpenAPI documents is supported: block mappings and sequences, flow mappings and
+ * sequences, plain, single-quoted and double-quoted scalars, literal and folded block scalars, and comments. Anchors,
+ * aliases, tags, complex keys and multiple documents are not supported, and are reported as an {@link IOException}.
+ */
+final class YamlTokenReader extends TokenReader {
+
+    /**
+     * An open block mapping or sequence, and the indentation of its entries.
+     */
+    private static final class Block {
+        private final boolean sequence;
+        private final int indent;
+
+        Block(boolean sequence, int indent) {
+            this.sequence = sequence;
+            this.indent = indent;
+        }
+    }
+
+    /**
+     * A token read ahead, along with its text.
+     */
+    private static final class Event {
+        private final Token token;
+        private final String text;
+        private final boolean plain;
+        private final int line;
+
+        Event(Token token, String text, boolean plain, int line) {
+            this.token = token;
+            this.text = text;
+            this.plain = plain;
+            this.line = line;
+        }
+    }
+
+    private final BufferedReader in;
+    private final Deque<Block> blocks = new ArrayDeque<>();
+    private final Deque<Event> events = new ArrayDeque<>();
+    private Event current;
+    private String pushedBack;
+    private int lineNumber;
+    // Whether the last line read from the input ended with a line break, rather than at the end of the input.
+    private boolean lineBreak;
+    private boolean started;
+    private boolean ended;
+    // Whether a value is expected on the next lines, after "key:" or "-", and the indentation of its parent.
+    private boolean pending = true;
+    private int pendingIndent = -1;
+
+    YamlTokenReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    @Override
+    Token next() throws IOException {
+        while (events.isEmpty()) {
+            readLine();
+        }
+        current = events.poll();
+        return current.token;
+    }
+
+    @Override
+    String text() {
+        return current.text;
+    }
+
+    @Override
+    boolean isPlain() {
+        return current.plain;
+    }
+
+    @Override
+    int line() {
+        return current != null ? current.line : lineNumber;
+    }
+
+    @Override
+    IOException error(String message) {
+        return new IOException("Invalid YAML document at line " + lineNumber + ": " + message);
+    }
+
+    /**
+     * Reads the next line which holds content and queues its tokens.
+     */
+    private void readLine() throws IOException {
+        if (ended) {
+            events.add(new Event(Token.END, null, false, lineNumber));
+            return;
+        }
+        final String line = nextContentLine();
+        if (line == null) {
+            ended = true;
+            if (pending) {
+                pending = false;
+                scalar(null, true);
+            }
+            while (!blocks.isEmpty()) {
+                close();
+            }
+            events.add(new Event(Token.END, null, false, lineNumber));
+            return;
+        }
+        final int indent = indentOf(line);
+        final String content = line.substring(indent);
+        if (pending) {
+            pending = false;
+            final Block parent = blocks.peek();
+            if (indent > pendingIndent || (indent == pendingIndent && isSequenceItem(content) && parent != null && !parent.sequence)) {
+                if (!isSequenceItem(content) && mappingColon(content) < 0) {
+                    // A scalar or flow collection on its own line
+                    value(content, pendingIndent);
+                    return;
+                }
+                open(isSequenceItem(content), indent);
+            }
+            else {
+                scalar(null, true);
+            }
+        }
+        while (!blocks.isEmpty()) {
+            final Block top = blocks.peek();
+            if (top.indent > indent || (top.indent == indent && top.sequence && !isSequenceItem(content))) {
+                close();
+            }
+            else {
+                break;
+            }
+        }
+        if (blocks.isEmpty() || blocks.peek().indent != indent) {
+            throw error("bad indentation");
+        }
+        entry(content, indent);
+    }
+
+    /**
+     * Reads an entry of the innermost block, which starts at the given column.
+     */
+    private void entry(String content, int indent) throws IOException {
+        if (blocks.peek().sequence) {
+            if (!isSequenceItem(content)) {
+                throw error("expected a sequence item");
+            }
+            int start = 1;
+            while (start < content.length() && content.charAt(start) == ' ') {
+                ++start;
+            }
+            node(content.substring(start), indent + start, indent);
+        }
+        else {
+            final int colon = mappingColon(content);
+            if (colon < 0) {
+                throw error("expected a mapping entry");
+            }
+            events.add(new Event(Token.KEY, key(content.substring(0, colon).trim()), false, lineNumber));
+            value(content.substring(colon + 1).trim(), indent);
+        }
+    }
+
+    /**
+     * Reads a node which starts on the same line as a sequence indicator, at the given column.
+     */
+    private void node(String content, int column, int parentIndent) throws IOException {
+        if (isSequenceItem(content)) {
+            open(true, column);
+            entry(content, column);
+        }
+        else if (mappingColon(content) >= 0) {
+            open(false, column);
+            entry(content, column);
+        }
+        else {
+            value(content, parentIndent);
+        }
+    }
+
+    /**
+     * Reads the value of a mapping entry or sequence item, given the rest of the line.
+     */
+    private void value(String content, int parentIndent) throws IOException {
+        if (content.isEmpty() || content.charAt(0) == '#') {
+            pending = true;
+            pendingIndent = parentIndent;
+            return;
+        }
+        switch (content.charAt(0)) {
+            case '|':
+            case '>':
+                blockScalar(content, parentIndent);
+                break;
+            case '[':
+            case '{':
+                flow(content);
+                break;
+            case '"':
+            case '\'':
+                quotedScalar(content, parentIndent);
+                break;
+            case '&':
+            case '*':
+            case '!':
+                throw error("anchors, aliases and tags are not supported");
+            default:
+                plainScalar(content, parentIndent);
+                break;
+        }
+    }
+
+    private void plainScalar(String content, int parentIndent) throws IOException {
+        final StringBuilder text = new StringBuilder(stripComment(content));
+        // A plain scalar may continue on the following lines, as long as they are more indented than its parent.
+        int breaks = 0;
+        String line;
+        while ((line = readRawLine()) != null) {
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                ++breaks;
+                continue;
+            }
+            if (indentOf(line) <= parentIndent || trimmed.startsWith("#") || mappingColon(trimmed) >= 0) {
+                pushedBack = line;
+                break;
+            }
+            appendFolded(text, breaks, stripComment(trimmed));
+            breaks = 0;
+        }
+        scalar(text.toString(), true);
+    }
+
+    private void quotedScalar(String content, int parentIndent) throws IOException {
+        final char quote = content.charAt(0);
+        final StringBuilder text = new StringBuilder();
+        String line = content.substring(1);
+        int breaks = 0;
+        boolean first = true;
+        boolean escaped = false;
+        while (true) {
+            final int end = closingQuote(line, quote);
+            String part = end >= 0 ? line.substring(0, end) : line;
+            // An escaped line break is not folded, and the whitespace before its backslash is content
+            final boolean escapedBreak = end < 0 && quote == '"' && isEscapedBreak(part);
+            if (escapedBreak) {
+                part = part.substring(0, part.length() - 1);
+            }
+            if (first) {
+                text.append(end >= 0 || escapedBreak ? part : trimEnd(part));
+            }
+            else if (part.trim().isEmpty() && end < 0 && !escapedBreak) {
+                ++breaks;
+            }
+            else {
+                final String trimmed = escapedBreak ? trimStart(part) : part.trim();
+                if (escaped && breaks == 0) {
+                    text.append(trimmed);
+                }
+                else {
+                    appendFolded(text, breaks, trimmed);
+                }
+                breaks = 0;
+            }
+            first = false;
+            escaped = escapedBreak;
+            if (end >= 0) {
+                final String rest = line.substring(end + 1).trim();
+                if (!rest.isEmpty() && rest.charAt(0) != '#') {
+                    throw error("unexpected content after a quoted scalar");
+                }
+                break;
+            }
+            line = readRawLine();
+            if (line == null) {
+                throw error("unterminated quoted scalar");
+            }
+        }
+        scalar(quote == '"' ? unescape(text.toString()) : text.toString().replace("''", "'"), false);
+    }
+
+    private void blockScalar(String header, int parentIndent) throws IOException {
+        final boolean literal = header.charAt(0) == '|';
+        char chomping = 'c';
+        int explicitIndent = 0;
+        for (int i = 1; i < header.length() && header.charAt(i) != ' '; ++i) {
+            final char c = header.charAt(i);
+            if (c == '-' || c == '+') {
+                chomping = c;
+            }
+            else if (c >= '1' && c <= '9') {
+                explicitIndent = c - '0';
+            }
+            else {
+                throw error("invalid block scalar header");
+            }
+        }
+        int indent = explicitIndent > 0 ? Math.max(parentIndent, 0) + explicitIndent : -1;
+        final List<String> lines = new ArrayList<>();
+        // Whether the last line of the scalar ended with a line break, which is not the case at the end of the input.
+        boolean endsWithBreak = true;
+        String line;
+        while ((line = readRawLine()) != null) {
+            if (line.trim().isEmpty()) {
+                lines.add("");
+                endsWithBreak = lineBreak;
+                continue;
+            }
+            final int lineIndent = indentOf(line);
+            if (indent < 0) {
+                indent = lineIndent;
+            }
+            if (lineIndent < indent || lineIndent <= parentIndent) {
+                pushedBack = line;
+                endsWithBreak = true;
+                break;
+            }
+            lines.add(line.substring(indent));
+            endsWithBreak = lineBreak;
+        }
+        int trailing = 0;
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+            ++trailing;
+        }
+        final StringBuilder text = new StringBuilder();
+        if (literal) {
+            for (int i = 0; i < lines.size(); ++i) {
+                if (i > 0) {
+                    text.append('\n');
+                }
+                text.append(lines.get(i));
+            }
+        }
+        else {
+            folded(text, lines);
+        }
+        if (!lines.isEmpty() && chomping != '-' && (trailing > 0 || endsWithBreak)) {
+            text.append('\n');
+        }
+        if (chomping == '+') {
+            for (int i = endsWithBreak ? 0 : 1; i < trailing; ++i) {
+                text.append('\n');
+            }
+        }
+        scalar(text.toString(), false);
+    }
+
+    private static void folded(StringBuilder text, List<String> lines) {
+        int breaks = 0;
+        boolean previousMoreIndented = false;
+        boolean first = true;
+        for (String line : lines) {
+            if (line.isEmpty()) {
+                ++breaks;
+                continue;
+            }
+            final boolean moreIndented = line.charAt(0) == ' ' || line.charAt(0) == '\t';
+            if (!first) {
+                if (moreIndented || previousMoreIndented) {
+                    text.append('\n');
+                }
+                else if (breaks == 0) {
+                    text.append(' ');
+                }
+                for (int i = 0; i < breaks; ++i) {
+                    text.append('\n');
+                }
+            }
+            text.append(line);
+            first = false;
+            breaks = 0;
+            previousMoreIndented = moreIndented;
+        }
+    }
+
+    private static void appendFolded(StringBuilder text, int breaks, String part) {
+        if (breaks == 0) {
+            text.append(' ');
+        }
+        for (int i = 0; i < breaks; ++i) {
+            text.append('\n');
+        }
+        text.append(part);
+    }
+
+    /**
+     * Reads a flow mapping or sequence, which may span several lines.
+     */
+    private void flow(String content) throws IOException {
+        final StringBuilder text = new StringBuilder(content);
+        while (!isBalanced(text)) {
+            final String line = readRawLine();
+            if (line == null) {
+                throw error("unterminated flow collection");
+            }
+            text.append(' ').append(stripComment(line));
+        }
+        final int[] position = { 0 };
+        flowNode(text.toString(), position);
+        final String rest = text.substring(position[0]).trim();
+        if (!rest.isEmpty() && rest.charAt(0) != '#') {
+            throw error("unexpected content after a flow collection");
+        }
+    }
+
+    private void flowNode(String s, int[] position) throws IOException {
+        skipSpaces(s, position);
+        if (position[0] >= s.length()) {
+            throw error("unexpected end of flow collection");
+        }
+        final char c = s.charAt(position[0]);
+        if (c == '[' || c == '{') {
+            final boolean mapping = c == '{';
+            final char end = mapping ? '}' : ']';
+            events.add(new Event(mapping ? Token.START_MAP : Token.START_LIST, null, false, lineNumber));
+            ++position[0];
+            skipSpaces(s, position);
+            while (position[0] < s.length() && s.charAt(position[0]) != end) {
+                if (mapping) {
+                    events.add(new Event(Token.KEY, flowScalar(s, position, true), false, lineNumber));
+                    skipSpaces(s, position);
+                    if (position[0] >= s.length() || s.charAt(position[0]) != ':') {
+                        throw error("expected ':' in flow mapping");
+                    }
+                    ++position[0];
+                }
+                flowNode(s, position);
+                skipSpaces(s, position);
+                if (position[0] < s.length() && s.charAt(position[0]) == ',') {
+                    ++position[0];
+                    skipSpaces(s, position);
+                }
+                else if (position[0] >= s.length() || s.charAt(position[0]) != end) {
+                    throw error("expected ',' or '" + end + "' in flow collection");
+                }
+            }
+            if (position[0] >= s.length()) {
+                throw error("unterminated flow collection");
+            }
+            ++position[0];
+            events.add(new Event(mapping ? Token.END_MAP : Token.END_LIST, null, false, lineNumber));
+        }
+        else {
+            final boolean quoted = c == '"' || c == '\'';
+            final String text = flowScalar(s, position, false);
+            scalar(quoted || !text.isEmpty() ? text : null, !quoted);
+        }
+    }
+
+    private String flowScalar(String s, int[] position, boolean key) throws IOException {
+        skipSpaces(s, position);
+        final char c = position[0] < s.length() ? s.charAt(position[0]) : 0;
+        if (c == '"' || c == '\'') {
+            final int end = closingQuote(s.substring(position[0] + 1), c);
+            if (end < 0) {
+                throw error("unterminated quoted scalar");
+            }
+            final String text = s.substring(position[0] + 1, position[0] + 1 + end);
+            position[0] += end + 2;
+            return c == '"' ? unescape(text) : text.replace("''", "'");
+        }
+        final int start = position[0];
+        while (position[0] < s.length()) {
+            final char d = s.charAt(position[0]);
+            if (d == ',' || d == ']' || d == '}' || (d == ':' && (key || isSpaceAt(s, position[0] + 1)))) {
+                break;
+            }
+            ++position[0];
+        }
+        return s.substring(start, position[0]).trim();
+    }
+
+    private void open(boolean sequence, int indent) {
+        blocks.push(new Block(sequence, indent));
+        events.add(new Event(sequence ? Token.START_LIST : Token.START_MAP, null, false, lineNumber));
+    }
+
+    private void close() {
+        events.add(new Event(blocks.pop().sequence ? Token.END_LIST : Token.END_MAP, null, false, lineNumber));
+    }
+
+    private void scalar(String text, boolean plain) {
+        events.add(new Event(Token.SCALAR, text, plain, lineNumber));
+    }
+
+    private String nextContentLine() throws IOException {
+        String line;
+        while ((line = readRawLine()) != null) {
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.charAt(0) == '#' || line.charAt(0) == '%') {
+                continue;
+            }
+            if (line.startsWith("---")) {
+                if (started) {
+                    return null;
+                }
+                continue;
+            }
+            if (line.startsWith("...")) {
+                return null;
+            }
+            started = true;
+            return line;
+        }
+        return null;
+    }
+
+    private String readRawLine() throws IOException {
+        if (pushedBack != null) {
+            final String line = pushedBack;
+            pushedBack = null;
+            return line;
+        }
+        final String line = readPhysicalLine();
+        if (line == null) {
+            return null;
+        }
+        ++lineNumber;
+        return lineNumber == 1 && line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * Reads a line as {@link BufferedReader#readLine()} does, but records whether it ended with a line break, which
+     * block scalars keep or strip according to their chomping indicator.
+     */
+    private String readPhysicalLine() throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (c == '\n') {
+                lineBreak = true;
+                return line.toString();
+            }
+            if (c == '\r') {
+                in.mark(1);
+                if (in.read() != '\n') {
+                    in.reset();
+                }
+                lineBreak = true;
+                return line.toString();
+            }
+            line.append((char) c);
+        }
+        lineBreak = false;
+        return line.length() > 0 ? line.toString() : null;
+    }
+
+    private int indentOf(String line) throws IOException {
+        int indent = 0;
+        while (indent < line.length() && line.charAt(indent) == ' ') {
+            ++indent;
+        }
+        if (indent < line.length() && line.charAt(indent) == '\t') {
+            throw error("tabs are not allowed for indentation");
+        }
+        return indent;
+    }
+
+    private static boolean isSequenceItem(String content) {
+        return content.equals("-") || content.startsWith("- ");
+    }
+
+    /**
+     * Returns the position of the colon which separates the key of a block mapping entry from its value, or -1 if
+     * the given content is not a mapping entry.
+     */
+    private static int mappingColon(String content) {
+        if (content.isEmpty() || content.charAt(0) == '[' || content.charAt(0) == '{' || content.charAt(0) == '#') {
+            return -1;
+        }
+        int i = 0;
+        if (content.charAt(0) == '"' || content.charAt(0) == '\'') {
+            final int end = closingQuote(content.substring(1), content.charAt(0));
+            if (end < 0) {
+                return -1;
+            }
+            i = end + 2;
+            while (i < content.length() && content.charAt(i) == ' ') {
+                ++i;
+            }
+            return i < content.length() && content.charAt(i) == ':' && isSpaceAt(content, i + 1) ? i : -1;
+        }
+        for (; i < content.length(); ++i) {
+            final char c = content.charAt(i);
+            if (c == ':' && isSpaceAt(content, i + 1)) {
+                return i;
+            }
+            if (c == '#' && i > 0 && content.charAt(i - 1) == ' ') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private String key(String key) throws IOException {
+        if (key.isEmpty()) {
+            throw error("empty key");
+        }
+        final char c = key.charAt(0);
+        if (c == '"') {
+            return unescape(key.substring(1, key.length() - 1));
+        }
+        if (c == '\'') {
+            return key.substring(1, key.length() - 1).replace("''", "'");
+        }
+        if (c == '?' || c == '&' || c == '*' || c == '!') {
+            throw error("complex keys, anchors, aliases and tags are not supported");
+        }
+        return key;
+    }
+
+    private static boolean isSpaceAt(String s, int index) {
+        return index >= s.length() || s.charAt(index) == ' ' || s.charAt(index) == '\t';
+    }
+
+    private static void skipSpaces(String s, int[] position) {
+        while (position[0] < s.length() && s.charAt(position[0]) == ' ') {
+            ++position[0];
+        }
+    }
+
+    private static String stripComment(String content) {
+        final int comment = content.indexOf(" #");
+        return (comment >= 0 ? content.substring(0, comment) : content).trim();
+    }
+
+    private static String trimStart(String s) {
+        int start = 0;
+        while (start < s.length() && (s.charAt(start) == ' ' || s.charAt(start) == '\t')) {
+            ++start;
+        }
+        return s.substring(start);
+    }
+
+    /**
+     * Returns whether a line of a double-quoted scalar ends with an escaped line break, that is with an odd number of
+     * backslashes.
+     */
+    private static boolean isEscapedBreak(String line) {
+        int count = 0;
+        while (count < line.length() && line.charAt(line.length() - 1 - count) == '\\') {
+            ++count;
+        }
+        return count % 2 == 1;
+    }
+
+    private static String trimEnd(String s) {
+        int end = s.length();
+        while (end > 0 && s.charAt(end - 1) == ' ') {
+            --end;
+        }
+        return s.substring(0, end);
+    }
+
+    /**
+     * Returns the position of the quote which closes a scalar, given the text which follows the opening quote, or -1
+     * if the scalar is not closed on that text.
+     */
+    private static int closingQuote(String s, char quote) {
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (quote == '"' && c == '\\') {
+                ++i;
+            }
+            else if (c == quote) {
+                if (quote == '\'' && i + 1 < s.length() && s.charAt(i + 1) == '\'') {
+                    ++i;
+                }
+                else {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBalanced(CharSequence s) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (quote != 0) {
+                if (quote == '"' && c == '\\') {
+                    ++i;
+                }
+                else if (c == quote) {
+                    quote = 0;
+                }
+            }
+            else if (c == '"' || c == '\'') {
+                quote = c;
+            }
+            else if (c == '[' || c == '{') {
+                ++depth;
+            }
+            else if (c == ']' || c == '}') {
+                --depth;
+            }
+        }
+        return depth <= 0;
+    }
+
+    private String unescape(String s) throws IOException {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        final StringBuilder text = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c != '\\' || i + 1 == s.length()) {
+                text.append(c);
+                continue;
+            }
+            final char e = s.charAt(++i);
+            switch (e) {
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 't':
+                case '\t':
+                    text.append('\t');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case '0':
+                    text.append('\0');
+                    break;
+                case 'a':
+                    text.append('\u0007');
+                    break;
+                case 'e':
+                    text.append('\u001B');
+                    break;
+                case 'N':
+                    text.append('\u0085');
+                    break;
+                case '_':
+                    text.append('\u00A0');
+                    break;
+                case 'L':
+                    text.append('\u2028');
+                    break;
+                case 'P':
+                    text.append('\u2029');
+                    break;
+                case 'x':
+                    i = hex(s, i, 2, text);
+                    break;
+                case 'u':
+                    i = hex(s, i, 4, text);
+                    break;
+                case 'U':
+                    i = hex(s, i, 8, text);
+                    break;
+                case '"':
+                case '\\':
+                case '/':
+                case ' ':
+                    text.append(e);
+                    break;
+                default:
+                    throw error("invalid escape sequence '\\" + e + "'");
+            }
+        }
+        return text.toString();
+    }
+
+    private int hex(String s, int index, int digits, StringBuilder text) throws IOException {
+        if (index + digits >= s.length()) {
+            throw error("invalid escape sequence");
+        }
+        try {
+            text.appendCodePoint(Integer.parseInt(s.substring(index + 1, index + 1 + digits), 16));
+        }
+        catch (IllegalArgumentException e) {
+            throw error("invalid escape sequence");
+        }
+        return index + digits;
+    }
+}
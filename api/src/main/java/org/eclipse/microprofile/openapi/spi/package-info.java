@@ -16,5 +16,5 @@
  * of OASFactoryResolver. 
  */
 
-@org.osgi.annotation.versioning.Version("1.0")
+@org.osgi.annotation.versioning.Version("1.1")
 package org.eclipse.microprofile.openapi.spi;
\ No newline at end of file
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.apps.airlines.model.Airport;
+import org.eclipse.microprofile.openapi.apps.airlines.resources.ReviewResource;
+import org.eclipse.microprofile.openapi.spi.AnnotationIndex;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the AnnotationIndex class, which records the JAX-RS and OpenAPI annotations of the classes of an
+ * application at build time. It verifies the annotated elements recorded for classes of the airlines application,
+ * that an index is written and read back unchanged, and that an index is current as long as its classes are.
+ */
+public class AnnotationIndexTest extends Arquillian {
+
+    private static final String OPENAPI_ANNOTATIONS = "org.eclipse.microprofile.openapi.annotations.";
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class).addPackages(true, "org.eclipse.microprofile.openapi.apps.airlines");
+    }
+
+    @Test
+    public void indexTypeTest() throws IOException {
+        final AnnotationIndex index = AnnotationIndex.builder().add(ReviewResource.class).build();
+        final AnnotationIndex.Target type = find(index, ReviewResource.class, AnnotationIndex.Kind.TYPE, "", -1);
+        assertTrue(type.getAnnotations().contains("javax.ws.rs.Path"));
+        assertTrue(type.getAnnotations().contains(OPENAPI_ANNOTATIONS + "tags.Tags"));
+        assertTrue(type.getAnnotations().contains(OPENAPI_ANNOTATIONS + "security.SecurityScheme"));
+    }
+
+    @Test
+    public void indexMethodTest() throws IOException {
+        final AnnotationIndex index = AnnotationIndex.builder().add(ReviewResource.class).build();
+        final AnnotationIndex.Target method = find(index, ReviewResource.class, AnnotationIndex.Kind.METHOD, "getReviewById", -1);
+        assertEquals(method.getParameterTypes(), Collections.singletonList("int"));
+        assertTrue(method.getAnnotations().contains("javax.ws.rs.GET"));
+        assertTrue(method.getAnnotations().contains(OPENAPI_ANNOTATIONS + "Operation"));
+        final AnnotationIndex.Target parameter = find(index, ReviewResource.class, AnnotationIndex.Kind.PARAMETER, "getReviewById", 0);
+        assertEquals(parameter.getAnnotations(), Arrays.asList("javax.ws.rs.PathParam", OPENAPI_ANNOTATIONS + "parameters.Parameter"));
+    }
+
+    @Test
+    public void indexFieldTest() throws IOException {
+        final AnnotationIndex index = AnnotationIndex.builder().add(Airport.class).build();
+        final AnnotationIndex.Target field = find(index, Airport.class, AnnotationIndex.Kind.FIELD, "weather", -1);
+        assertEquals(field.getAnnotations(), Collections.singletonList(OPENAPI_ANNOTATIONS + "media.Schema"));
+    }
+
+    @Test
+    public void indexUnannotatedClassTest() throws IOException {
+        final AnnotationIndex index = AnnotationIndex.builder().add(Airport.class).add(AnnotationIndexTest.class).build();
+        assertEquals(index.getClassNames(), Collections.singleton(Airport.class.getName()));
+        assertTrue(index.getTargets(AnnotationIndexTest.class.getName()).isEmpty());
+    }
+
+    @Test
+    public void writeReadTest() throws IOException {
+        final AnnotationIndex index = AnnotationIndex.builder().add(ReviewResource.class).add(Airport.class).build();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(bytes);
+        final AnnotationIndex copy = AnnotationIndex.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(copy.getClassNames(), index.getClassNames());
+        for (String className : index.getClassNames()) {
+            assertEquals(copy.getTargets(className), index.getTargets(className));
+        }
+        assertTrue(copy.isCurrent(ReviewResource.class.getClassLoader(), Arrays.asList(Airport.class.getName(),
+                ReviewResource.class.getName())), "The index is expected to be current.");
+    }
+
+    @Test
+    public void loadTest() throws IOException {
+        assertNull(AnnotationIndex.load(new ClassLoader(null) {
+        }, Collections.emptySet()), "No index is expected to be found.");
+        assertFalse(AnnotationIndex.builder().add(Airport.class).build().isCurrent(new ClassLoader(null) {
+        }, Collections.singleton(Airport.class.getName())), "An index is not current if its classes cannot be found.");
+    }
+
+    @Test
+    public void classAddedTest() throws IOException {
+        final AnnotationIndex index = AnnotationIndex.builder().add(Airport.class).build();
+        final ClassLoader loader = Airport.class.getClassLoader();
+        assertTrue(index.isCurrent(loader, Collections.singleton(Airport.class.getName())));
+        assertFalse(index.isCurrent(loader, Arrays.asList(Airport.class.getName(), ReviewResource.class.getName())),
+                "An index is not current if a class was added to the application.");
+        assertFalse(index.isCurrent(loader, Collections.emptySet()), "An index is not current if a class was removed from the application.");
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void readInvalidTest() throws IOException {
+        AnnotationIndex.readFrom(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void readNegativeCountTest() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AnnotationIndex.builder().add(Airport.class).build().writeTo(bytes);
+        final byte[] index = bytes.toByteArray();
+        // The number of strings follows the magic number and the version.
+        index[8] = (byte) 0x80;
+        AnnotationIndex.readFrom(new ByteArrayInputStream(index));
+    }
+
+    private AnnotationIndex.Target find(AnnotationIndex index, Class<?> type, AnnotationIndex.Kind kind, String memberName,
+            int parameterIndex) {
+        final List<AnnotationIndex.Target> targets = index.getTargets(type.getName());
+        for (AnnotationIndex.Target target : targets) {
+            if (target.getKind() == kind && target.getMemberName().equals(memberName) && target.getParameterIndex() == parameterIndex) {
+                return target;
+            }
+        }
+        throw new AssertionError("No " + kind + " " + memberName + " found in " + targets);
+    }
+}
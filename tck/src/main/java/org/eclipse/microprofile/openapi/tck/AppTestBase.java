@@ -31,6 +31,7 @@ import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import io.restassured.parsing.Parser;
 import io.restassured.response.ValidatableResponse;
+import io.restassured.specification.RequestSpecification;
 
 public abstract class AppTestBase extends Arquillian {
 
@@ -78,19 +79,24 @@ public abstract class AppTestBase extends Arquillian {
     }
 
     public ValidatableResponse callEndpoint(String type) {
-        ValidatableResponse vr;
+        return request(type).when().get("/openapi").then().statusCode(200);
+    }
+
+    public RequestSpecification request(String type) {
         if ("JSON".equals(type)) {
-            vr = given().accept(ContentType.JSON).when().get("/openapi").then().statusCode(200);
-        }
-        else {
-            // It seems there is no standard for YAML
-            vr = given().accept(ContentType.ANY).when().get("/openapi").then().statusCode(200);
+            return given().accept(ContentType.JSON);
         }
-        return vr;
+        // It seems there is no standard for YAML
+        return given().accept(ContentType.ANY);
     }
 
     @DataProvider(name = "formatProvider")
     public Object[][] provide() throws Exception {
         return new Object[][] { { "JSON" }, { "YAML" } };
     }
+
+    @DataProvider(name = "encodingProvider")
+    public Object[][] provideEncodings() throws Exception {
+        return new Object[][] { { "JSON", "gzip" }, { "JSON", "deflate" }, { "YAML", "gzip" }, { "YAML", "deflate" } };
+    }
 }
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.links.Link;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.models.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.models.security.SecurityScheme;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.ApplicationUnion;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.RenderedDocument;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ApplicationUnion class, which combines the model trees of several applications into a single
+ * model tree. It verifies that conflicting names are qualified, that references are rewritten consistently, that
+ * the model trees of the applications which are not affected by a change are not rewritten again, and that the
+ * documents of the applications and of the union are rendered as expected.
+ */
+public class ApplicationUnionTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void conflictTest() {
+        final OpenAPI airlines = application("/bookings", "getBookings", "Booking");
+        final OpenAPI reviews = application("/reviews", "getBookings", "Review");
+        final ApplicationUnion union = new ApplicationUnion(info());
+        union.put("airlines", airlines);
+        union.put("reviews", reviews);
+
+        final OpenAPI result = union.getUnion();
+        assertEquals(result.getInfo().getTitle(), "Applications");
+        assertEquals(result.getPaths().keySet(), new HashSet<>(Arrays.asList("/bookings", "/reviews")));
+        final Operation getBookings = result.getPaths().get("/bookings").getGET();
+        final Operation getReviews = result.getPaths().get("/reviews").getGET();
+        assertEquals(getBookings.getOperationId(), "airlines_getBookings", "Conflicting operation ids are expected to be qualified.");
+        assertEquals(getReviews.getOperationId(), "reviews_getBookings");
+        assertEquals(getBookings.getTags(), Collections.singletonList("airlines_Public"));
+        assertEquals(result.getTags().size(), 2);
+        assertEquals(result.getTags().get(0).getName(), "airlines_Public");
+
+        assertEquals(result.getComponents().getSchemas().keySet(),
+                new HashSet<>(Arrays.asList("Booking", "Review", "airlines_Error", "reviews_Error")));
+        assertEquals(schema(getBookings, "200").getRef(), "#/components/schemas/Booking", "Unique names are not expected to change.");
+        assertEquals(schema(getBookings, "404").getRef(), "#/components/schemas/airlines_Error");
+        assertEquals(schema(getReviews, "404").getRef(), "#/components/schemas/reviews_Error");
+        assertEquals(result.getComponents().getLinks().get("airlines_self").getOperationId(), "airlines_getBookings");
+        assertSame(result.getComponents().getSchemas().get("Booking"), airlines.getComponents().getSchemas().get("Booking"),
+                "Elements which do not change are expected to be shared.");
+
+        assertEquals(airlines.getPaths().get("/bookings").getGET().getOperationId(), "getBookings",
+                "The model trees of the applications are not expected to change.");
+        assertEquals(schema(airlines.getPaths().get("/bookings").getGET(), "404").getRef(), "#/components/schemas/Error");
+        assertTrue(airlines.getComponents().getSchemas().containsKey("Error"));
+    }
+
+    @Test
+    public void incrementalTest() {
+        final ApplicationUnion union = new ApplicationUnion(info());
+        union.put("airlines", application("/bookings", "getBookings", "Booking"));
+        union.put("reviews", application("/reviews", "getReviews", "Review"));
+        final OpenAPI first = union.getUnion();
+        assertSame(union.getUnion(), first);
+        final PathItem bookings = first.getPaths().get("/bookings");
+
+        union.put("reviews", application("/reviews", "getReviews", "Review"));
+        final OpenAPI second = union.getUnion();
+        assertSame(second.getPaths().get("/bookings"), bookings,
+                "Applications whose qualified names do not change are not expected to be rewritten.");
+        assertEquals(second.getPaths().get("/reviews").getGET().getOperationId(), "getReviews");
+
+        union.put("ratings", application("/ratings", "getRatings", "Rating"));
+        assertSame(union.getUnion().getPaths().get("/bookings"), bookings);
+        assertEquals(union.getApplications(), new HashSet<>(Arrays.asList("airlines", "ratings", "reviews")));
+
+        assertTrue(union.remove("ratings"));
+        assertTrue(union.remove("reviews"));
+        assertFalse(union.remove("reviews"));
+        final OpenAPI single = union.getUnion();
+        assertEquals(single.getPaths().get("/bookings").getGET().getOperationId(), "getBookings");
+        assertTrue(single.getComponents().getSchemas().containsKey("Error"), "Names are expected to be unqualified without conflicts.");
+    }
+
+    @Test
+    public void serversTest() {
+        final OpenAPI airlines = application("/bookings", "getBookings", "Booking")
+                .addServer(OASFactory.createObject(Server.class).url("http://localhost:9080/airlines"));
+        final OpenAPI reviews = application("/reviews", "getReviews", "Review")
+                .addServer(OASFactory.createObject(Server.class).url("http://localhost:9080/reviews"));
+        final ApplicationUnion union = new ApplicationUnion(info());
+        union.put("airlines", airlines);
+        union.put("reviews", reviews);
+
+        final OpenAPI result = union.getUnion();
+        assertNull(result.getServers(), "Servers which differ are not expected to remain at the top level.");
+        assertEquals(result.getPaths().get("/bookings").getServers().get(0).getUrl(), "http://localhost:9080/airlines");
+        assertEquals(result.getPaths().get("/reviews").getServers().get(0).getUrl(), "http://localhost:9080/reviews");
+        assertNull(airlines.getPaths().get("/bookings").getServers());
+
+        final ApplicationUnion same = new ApplicationUnion(info());
+        same.put("airlines", application("/bookings", "getBookings", "Booking")
+                .addServer(OASFactory.createObject(Server.class).url("http://localhost:9080")));
+        same.put("reviews", application("/reviews", "getReviews", "Review")
+                .addServer(OASFactory.createObject(Server.class).url("http://localhost:9080")));
+        assertEquals(same.getUnion().getServers().get(0).getUrl(), "http://localhost:9080");
+        assertNull(same.getUnion().getPaths().get("/bookings").getServers());
+    }
+
+    @Test
+    public void securityTest() {
+        final OpenAPI airlines = application("/bookings", "getBookings", "Booking")
+                .addSecurityRequirement(OASFactory.createObject(SecurityRequirement.class).addScheme("auth"));
+        final OpenAPI reviews = application("/reviews", "getReviews", "Review");
+        reviews.getPaths().get("/reviews").getGET()
+                .addSecurityRequirement(OASFactory.createObject(SecurityRequirement.class).addScheme("auth", "read"));
+        final ApplicationUnion union = new ApplicationUnion(info());
+        union.put("airlines", airlines);
+        union.put("reviews", reviews);
+
+        final OpenAPI result = union.getUnion();
+        assertNull(result.getSecurity());
+        assertEquals(result.getComponents().getSecuritySchemes().keySet(), new HashSet<>(Arrays.asList("airlines_auth", "reviews_auth")));
+        assertEquals(result.getPaths().get("/bookings").getGET().getSecurity().get(0).keySet(), Collections.singleton("airlines_auth"),
+                "Security requirements are expected to be moved to the operations, with qualified scheme names.");
+        assertEquals(result.getPaths().get("/reviews").getGET().getSecurity().get(0).get("reviews_auth"), Collections.singletonList("read"));
+    }
+
+    @Test
+    public void partitionedTest() {
+        final OpenAPI airlines = application("/bookings", "getBookings", "Booking");
+        airlines.addExtension("x-generated", Boolean.TRUE);
+        airlines.getPaths().addExtension("x-generated", Boolean.TRUE);
+        final ApplicationUnion union = new ApplicationUnion(info());
+        union.put("airlines", airlines);
+        union.put("reviews", application("/reviews", "getBookings", "Review"));
+
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            final RenderedDocument document = union.getDocument("airlines", format);
+            assertEquals(document.toByteArray(), RenderedDocument.render(airlines, format).toByteArray(),
+                    "The document of an application is expected to be rendered from its own model tree.");
+            assertSame(union.getDocument("airlines", format), document);
+            assertSame(union.getModel("airlines"), airlines);
+            assertUnionDocument(union, format);
+        }
+        assertNull(union.getDocument("ratings", DocumentWriter.Format.JSON));
+
+        final RenderedDocument previous = union.getUnionDocument(DocumentWriter.Format.YAML);
+        union.put("ratings", application("/ratings", "getRatings", "Rating"));
+        assertNotEquals(union.getUnionDocument(DocumentWriter.Format.YAML).getEntityTag(), previous.getEntityTag());
+        assertUnionDocument(union, DocumentWriter.Format.YAML);
+        assertUnionDocument(union, DocumentWriter.Format.JSON);
+
+        union.put("search", application("/bookings", "searchBookings", "Search"));
+        assertUnionDocument(union, DocumentWriter.Format.JSON);
+        union.remove("airlines");
+        union.remove("ratings");
+        union.remove("reviews");
+        assertSame(union.getUnionDocument(DocumentWriter.Format.JSON), union.getDocument("search", DocumentWriter.Format.JSON));
+    }
+
+    private static void assertUnionDocument(ApplicationUnion union, DocumentWriter.Format format) {
+        final RenderedDocument document = union.getUnionDocument(format);
+        assertEquals(new String(document.toByteArray(), StandardCharsets.UTF_8),
+                new String(RenderedDocument.render(union.getUnion(), format).toByteArray(), StandardCharsets.UTF_8),
+                "The document of the union is expected to be the rendering of the union.");
+        assertSame(union.getUnionDocument(format), document);
+    }
+
+    private static Info info() {
+        return OASFactory.createObject(Info.class).title("Applications").version("1.0");
+    }
+
+    /**
+     * Creates the model tree of an application with a single operation, whose 404 response refers to an Error schema
+     * and which is tagged Public, as are the model trees of all applications.
+     */
+    private static OpenAPI application(String path, String operationId, String schemaName) {
+        final Operation operation = OASFactory.createObject(Operation.class).operationId(operationId).addTag("Public")
+                .responses(OASFactory.createObject(APIResponses.class)
+                        .addApiResponse("200", response(OASFactory.createObject(Schema.class).ref("#/components/schemas/" + schemaName)))
+                        .addApiResponse("404", response(OASFactory.createObject(Schema.class).ref("Error"))));
+        return OASFactory.createObject(OpenAPI.class).openapi("3.0.0")
+                .info(OASFactory.createObject(Info.class).title(schemaName).version("1.0"))
+                .addTag(OASFactory.createObject(Tag.class).name("Public"))
+                .paths(OASFactory.createObject(Paths.class).addPathItem(path, OASFactory.createObject(PathItem.class).GET(operation)))
+                .components(OASFactory.createObject(Components.class)
+                        .addSchema(schemaName, OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT))
+                        .addSchema("Error", OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING))
+                        .addLink("self", OASFactory.createObject(Link.class).operationId(operationId))
+                        .addSecurityScheme("auth", OASFactory.createObject(SecurityScheme.class).type(SecurityScheme.Type.HTTP).scheme("basic")));
+    }
+
+    private static APIResponse response(Schema schema) {
+        return OASFactory.createObject(APIResponse.class).description("").content(OASFactory.createObject(Content.class)
+                .addMediaType("application/json", OASFactory.createObject(MediaType.class).schema(schema)));
+    }
+
+    private static Schema schema(Operation operation, String status) {
+        return operation.getResponses().get(status).getContent().get("application/json").getSchema();
+    }
+}
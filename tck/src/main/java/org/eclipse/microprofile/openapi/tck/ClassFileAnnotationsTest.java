@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.apps.airlines.model.Airport;
+import org.eclipse.microprofile.openapi.apps.airlines.model.Review;
+import org.eclipse.microprofile.openapi.apps.airlines.resources.ReviewResource;
+import org.eclipse.microprofile.openapi.spi.AnnotationDescriptor;
+import org.eclipse.microprofile.openapi.spi.AnnotationIndex;
+import org.eclipse.microprofile.openapi.spi.ClassFileAnnotations;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ClassFileAnnotations class, which reads the annotations of a class from its class file without
+ * loading it. It verifies the annotations and values read for classes of the airlines application, and that an
+ * annotation index built from class files is the same as one built from loaded classes.
+ */
+public class ClassFileAnnotationsTest extends Arquillian {
+
+    private static final String OPENAPI_ANNOTATIONS = "org.eclipse.microprofile.openapi.annotations.";
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class).addPackages(true, "org.eclipse.microprofile.openapi.apps.airlines");
+    }
+
+    @Test
+    public void readClassTest() throws IOException {
+        final ClassFileAnnotations classFile = read(ReviewResource.class);
+        assertEquals(classFile.getClassName(), ReviewResource.class.getName());
+        assertEquals(classFile.getSuperclassName(), Object.class.getName());
+        assertTrue(classFile.getInterfaceNames().isEmpty());
+        assertNull(read(Object.class).getSuperclassName());
+    }
+
+    @Test
+    public void readTypeTest() throws IOException {
+        final ClassFileAnnotations.Element type = find(read(ReviewResource.class), AnnotationIndex.Kind.TYPE, "", -1);
+        assertEquals(annotation(type, "javax.ws.rs.Path").getValue("value"), "/reviews");
+    }
+
+    @Test
+    public void readMethodTest() throws IOException {
+        final ClassFileAnnotations.Element method = find(read(ReviewResource.class), AnnotationIndex.Kind.METHOD, "getReviewById", -1);
+        assertEquals(method.getParameterTypes(), Collections.singletonList("int"));
+        assertEquals(annotation(method, OPENAPI_ANNOTATIONS + "Operation").getValue("operationId"), "getReviewById");
+        final List<?> responses = (List<?>) annotation(method, OPENAPI_ANNOTATIONS + "responses.APIResponses").getValue("value");
+        assertEquals(responses.size(), 2);
+        final AnnotationDescriptor ok = (AnnotationDescriptor) responses.get(0);
+        assertEquals(ok.getTypeName(), OPENAPI_ANNOTATIONS + "responses.APIResponse");
+        assertEquals(ok.getValue("responseCode"), "200");
+        final AnnotationDescriptor content = (AnnotationDescriptor) ((List<?>) ok.getValue("content")).get(0);
+        final AnnotationDescriptor schema = (AnnotationDescriptor) content.getValue("schema");
+        final AnnotationDescriptor.ClassLiteral implementation = (AnnotationDescriptor.ClassLiteral) schema.getValue("implementation");
+        assertEquals(implementation.getTypeName(), Review.class.getName());
+    }
+
+    @Test
+    public void readParameterTest() throws IOException {
+        final ClassFileAnnotations.Element parameter = find(read(ReviewResource.class), AnnotationIndex.Kind.PARAMETER, "getReviewById", 0);
+        assertEquals(annotation(parameter, "javax.ws.rs.PathParam").getValue("value"), "id");
+        final AnnotationDescriptor annotation = annotation(parameter, OPENAPI_ANNOTATIONS + "parameters.Parameter");
+        assertEquals(annotation.getValue("required"), Boolean.TRUE);
+        final AnnotationDescriptor.EnumConstant in = (AnnotationDescriptor.EnumConstant) annotation.getValue("in");
+        assertEquals(in.getTypeName(), OPENAPI_ANNOTATIONS + "enums.ParameterIn");
+        assertEquals(in.getName(), "PATH");
+        assertNull(annotation.getValue("style"), "Default values are not expected to be read.");
+    }
+
+    @Test
+    public void indexTest() throws IOException {
+        final AnnotationIndex loaded = AnnotationIndex.builder().add(ReviewResource.class).add(Airport.class).build();
+        final AnnotationIndex.Builder builder = AnnotationIndex.builder();
+        for (Class<?> type : new Class<?>[] { ReviewResource.class, Airport.class }) {
+            try (InputStream in = classFile(type)) {
+                builder.add(in);
+            }
+        }
+        final AnnotationIndex read = builder.build();
+        assertEquals(read.getClassNames(), loaded.getClassNames());
+        for (String className : loaded.getClassNames()) {
+            assertEquals(read.getTargets(className), loaded.getTargets(className));
+        }
+        assertTrue(read.isCurrent(ReviewResource.class.getClassLoader(), Arrays.asList(ReviewResource.class.getName(),
+                Airport.class.getName())), "The index is expected to be current.");
+    }
+
+    @Test
+    public void innerClassConstructorTest() throws IOException {
+        final ClassFileAnnotations.Element parameter = find(read(Inner.class), AnnotationIndex.Kind.PARAMETER, "<init>", 1);
+        assertEquals(parameter.getParameterTypes(), Arrays.asList(ClassFileAnnotationsTest.class.getName(), String.class.getName(),
+                int.class.getName()), "The outer instance is expected to be the first parameter of the constructor.");
+        annotation(parameter, OPENAPI_ANNOTATIONS + "parameters.Parameter");
+        final AnnotationIndex loaded = AnnotationIndex.builder().add(Inner.class).build();
+        try (InputStream in = classFile(Inner.class)) {
+            assertEquals(AnnotationIndex.builder().add(in).build().getTargets(Inner.class.getName()), loaded.getTargets(Inner.class.getName()),
+                    "The parameter annotations read from a class file are expected to apply to the same parameters as with reflection.");
+        }
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void readInvalidTest() throws IOException {
+        ClassFileAnnotations.read(new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 52, 0 });
+    }
+
+    private ClassFileAnnotations read(Class<?> type) throws IOException {
+        try (InputStream in = classFile(type)) {
+            return ClassFileAnnotations.read(in);
+        }
+    }
+
+    private InputStream classFile(Class<?> type) {
+        return type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class");
+    }
+
+    private ClassFileAnnotations.Element find(ClassFileAnnotations classFile, AnnotationIndex.Kind kind, String memberName,
+            int parameterIndex) {
+        for (ClassFileAnnotations.Element element : classFile.getElements()) {
+            if (element.getKind() == kind && element.getMemberName().equals(memberName) && element.getParameterIndex() == parameterIndex) {
+                return element;
+            }
+        }
+        throw new AssertionError("No " + kind + " " + memberName + " found in " + classFile.getElements());
+    }
+
+    private AnnotationDescriptor annotation(ClassFileAnnotations.Element element, String typeName) {
+        for (AnnotationDescriptor annotation : element.getAnnotations()) {
+            if (annotation.getTypeName().equals(typeName)) {
+                return annotation;
+            }
+        }
+        throw new AssertionError("No @" + typeName + " found in " + element);
+    }
+
+    /**
+     * An inner class, whose constructor takes the outer instance as an implicit first parameter.
+     */
+    private class Inner {
+
+        Inner(@Parameter(name = "p") String p, int q) {
+        }
+    }
+}
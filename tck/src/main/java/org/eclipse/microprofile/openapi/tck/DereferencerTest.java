@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.spi.Dereferencer;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the Dereferencer class, which creates a view of a model tree in which references to the Components
+ * element are replaced by the elements they designate. It verifies that the view shares dereferenced elements, that
+ * it stops at cycles, and that it leaves the original model tree unchanged.
+ */
+public class DereferencerTest extends Arquillian {
+
+    private static final String[] PATHS = { "/bookings", "/flights", "/reviews" };
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void sharedTest() {
+        final Schema pet = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT)
+                .addProperty("name", OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING));
+        final OpenAPI model = model("#/components/schemas/Pet").components(OASFactory.createObject(Components.class).addSchema("Pet", pet));
+        final OpenAPI view = Dereferencer.dereference(model);
+        for (String path : PATHS) {
+            assertSame(responseSchema(view, path), pet, "References are expected to be replaced by the element they designate.");
+            assertEquals(responseSchema(model, path).getRef(), "#/components/schemas/Pet", "The model tree is not expected to change.");
+        }
+        assertSame(view.getComponents(), model.getComponents(), "Elements without references are expected to be shared.");
+        assertSame(view.getInfo(), model.getInfo());
+    }
+
+    @Test
+    public void recursiveTest() {
+        final Schema node = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT);
+        node.addProperty("next", OASFactory.createObject(Schema.class).ref("#/components/schemas/Node"));
+        final OpenAPI model = model("#/components/schemas/Node").components(OASFactory.createObject(Components.class).addSchema("Node", node));
+        final Schema view = responseSchema(Dereferencer.dereference(model), PATHS[0]);
+        assertSame(view, node);
+        assertEquals(view.getProperties().get("next").getRef(), "#/components/schemas/Node", "References closing a cycle are expected to be kept.");
+    }
+
+    @Test
+    public void mutualReferenceTest() {
+        final Schema customer = OASFactory.createObject(Schema.class)
+                .addProperty("orders", OASFactory.createObject(Schema.class).type(Schema.SchemaType.ARRAY)
+                        .items(OASFactory.createObject(Schema.class).ref("Order")));
+        final Schema order = OASFactory.createObject(Schema.class)
+                .addProperty("customer", OASFactory.createObject(Schema.class).ref("#/components/schemas/Customer"));
+        final OpenAPI model = model("#/components/schemas/Customer")
+                .components(OASFactory.createObject(Components.class).addSchema("Customer", customer).addSchema("Order", order));
+        final Schema view = responseSchema(Dereferencer.dereference(model), PATHS[1]);
+        final Schema orderView = view.getProperties().get("orders").getItems();
+        assertSame(orderView, order);
+        assertEquals(orderView.getProperties().get("customer").getRef(), "#/components/schemas/Customer");
+    }
+
+    @Test
+    public void exponentialTest() {
+        final Components components = OASFactory.createObject(Components.class);
+        final int depth = 40;
+        for (int i = 0; i < depth; ++i) {
+            final Schema schema = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT);
+            if (i + 1 < depth) {
+                schema.addProperty("left", OASFactory.createObject(Schema.class).ref("Level" + (i + 1)))
+                        .addProperty("right", OASFactory.createObject(Schema.class).ref("Level" + (i + 1)));
+            }
+            components.addSchema("Level" + i, schema);
+        }
+        final OpenAPI view = Dereferencer.dereference(model("#/components/schemas/Level0").components(components));
+        final Set<Schema> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        Schema level = responseSchema(view, PATHS[2]);
+        for (int i = 0; i < depth; ++i) {
+            distinct.add(level);
+            if (i + 1 < depth) {
+                assertSame(level.getProperties().get("left"), level.getProperties().get("right"),
+                        "Shared components are expected to be dereferenced once.");
+                assertNull(level.getProperties().get("left").getRef());
+                level = level.getProperties().get("left");
+            }
+        }
+        assertEquals(distinct.size(), depth);
+    }
+
+    @Test
+    public void unresolvedTest() {
+        final OpenAPI model = model("#/components/schemas/Missing");
+        model.getPaths().get(PATHS[0]).getGET().addParameter(OASFactory.createObject(Parameter.class).ref("other.yaml#/parameters/limit"));
+        assertSame(Dereferencer.dereference(model), model, "Unresolved references are expected to be kept.");
+    }
+
+    @Test(expectedExceptions = { UnsupportedOperationException.class })
+    public void readOnlyTest() {
+        final OpenAPI model = model("#/components/schemas/Pet")
+                .components(OASFactory.createObject(Components.class).addSchema("Pet", OASFactory.createObject(Schema.class)));
+        Dereferencer.dereference(model).getPaths().get(PATHS[0]).setDescription("Modified");
+    }
+
+    /**
+     * Creates a model in which each operation returns a schema holding the given reference.
+     */
+    private OpenAPI model(String ref) {
+        final Paths paths = OASFactory.createObject(Paths.class);
+        for (String path : PATHS) {
+            final APIResponse response = OASFactory.createObject(APIResponse.class).description("OK")
+                    .content(OASFactory.createObject(Content.class).addMediaType("application/json",
+                            OASFactory.createObject(MediaType.class).schema(OASFactory.createObject(Schema.class).ref(ref))));
+            paths.addPathItem(path, OASFactory.createObject(PathItem.class)
+                    .GET(OASFactory.createObject(Operation.class).responses(OASFactory.createObject(APIResponses.class)
+                            .addApiResponse("200", response))));
+        }
+        return OASFactory.createObject(OpenAPI.class).openapi("3.0.0").paths(paths);
+    }
+
+    private Schema responseSchema(OpenAPI model, String path) {
+        return model.getPaths().get(path).getGET().getResponses().get("200").getContent().get("application/json").getSchema();
+    }
+}
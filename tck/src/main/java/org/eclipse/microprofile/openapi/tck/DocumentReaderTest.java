@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.spi.DocumentReader;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.StringPool;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the DocumentReader class, which reads a YAML or JSON document into an OpenAPI model tree. It
+ * verifies the typed and untyped values read from both formats, the block and flow styles of YAML, and that a
+ * document written by the DocumentWriter class is read back unchanged.
+ */
+public class DocumentReaderTest extends Arquillian {
+
+    private static final String YAML = "openapi: 3.0.0\n"
+            + "info:\n"
+            + "  title: Airlines\n"
+            + "  version: '1.0.0'\n"
+            + "  description: >\n"
+            + "    Flights and\n"
+            + "    bookings\n"
+            + "# Paths of the API\n"
+            + "paths:\n"
+            + "  /flights/{id}:\n"
+            + "    get:\n"
+            + "      operationId: getFlight\n"
+            + "      tags: [flights, \"reservations\"]\n"
+            + "      parameters:\n"
+            + "      - name: id\n"
+            + "        in: path\n"
+            + "        required: true\n"
+            + "        schema: {type: integer, minimum: 1.5}\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: |\n"
+            + "            The flight\n"
+            + "      x-rate-limit: 100\n"
+            + "      x-owner: {team: flights, public: true}\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Flight:\n"
+            + "      $ref: '#/components/schemas/Base'\n"
+            + "      additionalProperties: false\n"
+            + "      enum: [\"1\", 2, null]\n";
+
+    private static final String JSON = "{\"openapi\": \"3.0.0\", \"info\": {\"title\": \"Airlines\", \"version\": \"1.0.0\","
+            + " \"description\": \"Flights and bookings\\n\"}, \"paths\": {\"/flights/{id}\": {\"get\": {"
+            + "\"operationId\": \"getFlight\", \"tags\": [\"flights\", \"reservations\"], \"parameters\": [{\"name\": \"id\","
+            + " \"in\": \"path\", \"required\": true, \"schema\": {\"type\": \"integer\", \"minimum\": 1.5}}],"
+            + " \"responses\": {\"200\": {\"description\": \"The flight\\n\"}}, \"x-rate-limit\": 100,"
+            + " \"x-owner\": {\"team\": \"flights\", \"public\": true}}}}, \"components\": {\"schemas\": {\"Flight\": {"
+            + "\"$ref\": \"#/components/schemas/Base\", \"additionalProperties\": false, \"enum\": [\"1\", 2, null]}}}}";
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void readYamlTest() throws IOException {
+        verifyModel(read(YAML, DocumentWriter.Format.YAML));
+    }
+
+    @Test
+    public void readJsonTest() throws IOException {
+        verifyModel(read(JSON, DocumentWriter.Format.JSON));
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        final OpenAPI model = read(YAML, DocumentWriter.Format.YAML);
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DocumentWriter.write(model, format, bytes);
+            final OpenAPI copy = DocumentReader.read(new ByteArrayInputStream(bytes.toByteArray()), format);
+            verifyModel(copy);
+            assertEquals(write(copy), write(model), "The document read back is expected to be equal to the written one.");
+        }
+    }
+
+    @Test
+    public void stringPoolTest() throws IOException {
+        final StringPool strings = new StringPool();
+        final String owner = strings.canonicalize(new String("flights"));
+        final String version = strings.canonicalize(new String("1.0.0"));
+        final OpenAPI model = DocumentReader.read(new ByteArrayInputStream(YAML.getBytes(StandardCharsets.UTF_8)),
+                DocumentWriter.Format.YAML, strings);
+        final Operation get = model.getPaths().get("/flights/{id}").getGET();
+        assertSame(get.getTags().get(0), owner, "The strings of the document are expected to be taken from the pool.");
+        assertSame(((Map<?, ?>) get.getExtensions().get("x-owner")).get("team"), owner);
+        assertSame(model.getInfo().getVersion(), version);
+        assertSame(model.getComponents().getSchemas().keySet().iterator().next(), strings.canonicalize(new String("Flight")),
+                "The keys of the document are expected to be added to the pool.");
+    }
+
+    @Test
+    public void blockScalarEndTest() throws IOException {
+        final String document = "info:\n  title: Airlines\n  description: |\n    Flights and\n    bookings";
+        assertEquals(read(document, DocumentWriter.Format.YAML).getInfo().getDescription(), "Flights and\nbookings",
+                "A block scalar at the end of the document is expected to end with a line break only if its last line does.");
+        assertEquals(read(document + "\n", DocumentWriter.Format.YAML).getInfo().getDescription(), "Flights and\nbookings\n");
+        assertEquals(read(document + "\r\n\n", DocumentWriter.Format.YAML).getInfo().getDescription(), "Flights and\nbookings\n");
+        assertEquals(read(document.replace('|', '>'), DocumentWriter.Format.YAML).getInfo().getDescription(), "Flights and bookings");
+    }
+
+    @Test
+    public void escapedLineBreakTest() throws IOException {
+        assertEquals(read("info:\n  title: \"A \\\n    d\"\n", DocumentWriter.Format.YAML).getInfo().getTitle(), "A d",
+                "The indentation after an escaped line break is expected to be dropped.");
+        assertEquals(read("info:\n  title: \"A\\\n    \\ d\n    e\"\n", DocumentWriter.Format.YAML).getInfo().getTitle(), "A d e");
+        assertEquals(read("info:\n  title: \"A\\\\\n    d\"\n", DocumentWriter.Format.YAML).getInfo().getTitle(), "A\\ d",
+                "An escaped backslash at the end of a line is expected to be folded.");
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void readAliasTest() throws IOException {
+        read("info:\n  title: &title Airlines\n  description: *title\n", DocumentWriter.Format.YAML);
+    }
+
+    @Test
+    public void readEmptyTest() throws IOException {
+        assertNull(read("# No content\n", DocumentWriter.Format.YAML));
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void readTypeMismatchTest() throws IOException {
+        read("info:\n  title: [Airlines]\n", DocumentWriter.Format.YAML);
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void readInvalidJsonTest() throws IOException {
+        read("{\"openapi\": \"3.0.0\"", DocumentWriter.Format.JSON);
+    }
+
+    @Test(expectedExceptions = { NullPointerException.class })
+    public void readNullTest() throws IOException {
+        DocumentReader.read((InputStream) null, DocumentWriter.Format.YAML);
+    }
+
+    private void verifyModel(OpenAPI model) {
+        assertEquals(model.getOpenapi(), "3.0.0");
+        assertEquals(model.getInfo().getTitle(), "Airlines");
+        assertEquals(model.getInfo().getVersion(), "1.0.0");
+        assertEquals(model.getInfo().getDescription(), "Flights and bookings\n");
+        final Operation operation = model.getPaths().get("/flights/{id}").getGET();
+        assertNotNull(operation);
+        assertEquals(operation.getOperationId(), "getFlight");
+        assertEquals(operation.getTags(), Arrays.asList("flights", "reservations"));
+        assertEquals(operation.getExtensions().get("x-rate-limit"), 100);
+        assertEquals(operation.getExtensions().get("x-owner").toString(), "{team=flights, public=true}");
+        final Parameter parameter = operation.getParameters().get(0);
+        assertEquals(parameter.getIn(), Parameter.In.PATH);
+        assertEquals(parameter.getRequired(), Boolean.TRUE);
+        assertEquals(parameter.getSchema().getType(), Schema.SchemaType.INTEGER);
+        assertEquals(parameter.getSchema().getMinimum(), new BigDecimal("1.5"));
+        assertEquals(operation.getResponses().get("200").getDescription(), "The flight\n");
+        final Schema schema = model.getComponents().getSchemas().get("Flight");
+        assertEquals(schema.getRef(), "#/components/schemas/Base");
+        assertEquals(schema.getAdditionalProperties(), Boolean.FALSE);
+        assertEquals(schema.getEnumeration(), Arrays.asList("1", 2, null));
+        assertEquals(model.getComponents().getSchemas().size(), 1);
+    }
+
+    private OpenAPI read(String document, DocumentWriter.Format format) throws IOException {
+        return DocumentReader.read(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private String write(OpenAPI model) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DocumentWriter.write(model, DocumentWriter.Format.JSON, bytes);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.RenderedDocument;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the DocumentWriter class, which writes an OpenAPI model tree as a YAML or JSON document. It
+ * verifies the written documents, the quoting of YAML scalars which would otherwise not be read as strings, and
+ * that cycles in the model tree are detected.
+ */
+public class DocumentWriterTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void writeJsonTest() throws IOException {
+        assertEquals(write(createModel(), DocumentWriter.Format.JSON), "{\n"
+                + "  \"openapi\": \"3.0.0\",\n"
+                + "  \"info\": {\n"
+                + "    \"title\": \"Airlines\",\n"
+                + "    \"version\": \"1.0.0\"\n"
+                + "  },\n"
+                + "  \"paths\": {\n"
+                + "    \"/flights\": {\n"
+                + "      \"get\": {\n"
+                + "        \"responses\": {\n"
+                + "          \"200\": {\n"
+                + "            \"description\": \"OK\"\n"
+                + "          }\n"
+                + "        },\n"
+                + "        \"deprecated\": false\n"
+                + "      }\n"
+                + "    }\n"
+                + "  },\n"
+                + "  \"tags\": [\n"
+                + "    {\n"
+                + "      \"name\": \"flights\"\n"
+                + "    }\n"
+                + "  ],\n"
+                + "  \"x-version\": 1\n"
+                + "}\n");
+    }
+
+    @Test
+    public void writeYamlTest() throws IOException {
+        assertEquals(write(createModel(), DocumentWriter.Format.YAML), "openapi: \"3.0.0\"\n"
+                + "info:\n"
+                + "  title: Airlines\n"
+                + "  version: \"1.0.0\"\n"
+                + "paths:\n"
+                + "  /flights:\n"
+                + "    get:\n"
+                + "      responses:\n"
+                + "        \"200\":\n"
+                + "          description: OK\n"
+                + "      deprecated: false\n"
+                + "tags:\n"
+                + "  - name: flights\n"
+                + "x-version: 1\n");
+    }
+
+    @Test
+    public void writeYamlQuotingTest() throws IOException {
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class)
+                .addTag(OASFactory.createObject(Tag.class).name("true").description("Flights: all of them"))
+                .addTag(OASFactory.createObject(Tag.class).name("null").description("line 1\nline 2"))
+                .addTag(OASFactory.createObject(Tag.class).name("#1").description(""));
+        assertEquals(write(model, DocumentWriter.Format.YAML), "tags:\n"
+                + "  - name: \"true\"\n"
+                + "    description: \"Flights: all of them\"\n"
+                + "  - name: \"null\"\n"
+                + "    description: \"line 1\\nline 2\"\n"
+                + "  - name: \"#1\"\n"
+                + "    description: \"\"\n");
+    }
+
+    @Test
+    public void writeRefTest() throws IOException {
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class).components(OASFactory.createObject(Components.class)
+                .addSchema("Flights", OASFactory.createObject(Schema.class).type(Schema.SchemaType.ARRAY)
+                        .items(OASFactory.createObject(Schema.class).ref("Flight"))));
+        assertEquals(write(model, DocumentWriter.Format.YAML), "components:\n"
+                + "  schemas:\n"
+                + "    Flights:\n"
+                + "      type: array\n"
+                + "      items:\n"
+                + "        $ref: \"#/components/schemas/Flight\"\n");
+    }
+
+    @Test
+    public void writeChannelTest() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DocumentWriter.write(createModel(), DocumentWriter.Format.JSON, Channels.newChannel(bytes));
+        assertEquals(new String(bytes.toByteArray(), StandardCharsets.UTF_8), write(createModel(), DocumentWriter.Format.JSON));
+    }
+
+    @Test
+    public void renderTest() throws IOException {
+        final RenderedDocument document = RenderedDocument.render(createModel(), DocumentWriter.Format.YAML);
+        assertEquals(document.getMediaType(), DocumentWriter.Format.YAML.getMediaType());
+        assertEquals(new String(document.toByteArray(), StandardCharsets.UTF_8), write(createModel(), DocumentWriter.Format.YAML));
+        assertTrue(document.isNotModified(RenderedDocument.render(createModel(), DocumentWriter.Format.YAML).getEntityTag()),
+                "Documents rendered from equal model trees are expected to have the same entity tag.");
+    }
+
+    @Test(expectedExceptions = { IllegalArgumentException.class })
+    public void writeCycleTest() throws IOException {
+        final Schema schema = OASFactory.createObject(Schema.class);
+        schema.addProperty("self", schema);
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class)
+                .components(OASFactory.createObject(Components.class).addSchema("Self", schema));
+        write(model, DocumentWriter.Format.JSON);
+    }
+
+    @Test(expectedExceptions = { NullPointerException.class })
+    public void writeNullTest() throws IOException {
+        DocumentWriter.write(null, DocumentWriter.Format.JSON, new ByteArrayOutputStream());
+    }
+
+    private String write(OpenAPI model, DocumentWriter.Format format) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DocumentWriter.write(model, format, bytes);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private OpenAPI createModel() {
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class)
+                .openapi("3.0.0")
+                .info(OASFactory.createObject(Info.class).title("Airlines").version("1.0.0"))
+                .addTag(OASFactory.createObject(Tag.class).name("flights"))
+                .paths(OASFactory.createObject(Paths.class)
+                        .addPathItem("/flights", OASFactory.createObject(PathItem.class)
+                                .GET(OASFactory.createObject(Operation.class)
+                                        .deprecated(false)
+                                        .responses(OASFactory.createObject(APIResponses.class)
+                                                .addApiResponse("200", OASFactory.createObject(APIResponse.class).description("OK"))))));
+        model.addExtension("x-version", 1);
+        return model;
+    }
+}
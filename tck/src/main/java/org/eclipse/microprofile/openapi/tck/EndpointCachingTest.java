@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the caching headers of the /openapi endpoint. It verifies that the endpoint returns a strong
+ * ETag, which is the same for every request, and that a request with a matching If-None-Match header is answered
+ * with 304 Not Modified. Vendors should support these headers, but are not required to: the tests are skipped if the
+ * endpoint returns no ETag.
+ */
+public class EndpointCachingTest extends AppTestBase {
+
+    @Deployment(name = "staticCaching")
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class, "staticCaching.war")
+                .addAsManifestResource("simpleapi.yaml", "openapi.yaml");
+    }
+
+    @RunAsClient
+    @Test(dataProvider = "formatProvider")
+    public void testEntityTag(String type) {
+        String etag = entityTag(type);
+        callEndpoint(type).header("ETag", startsWith("\"")).header("ETag", equalTo(etag));
+    }
+
+    @RunAsClient
+    @Test(dataProvider = "formatProvider")
+    public void testNotModified(String type) {
+        String etag = entityTag(type);
+        request(type).header("If-None-Match", etag).when().get("/openapi").then().statusCode(304).header("ETag", equalTo(etag));
+        request(type).header("If-None-Match", "\"other\", " + etag).when().get("/openapi").then().statusCode(304);
+    }
+
+    @RunAsClient
+    @Test(dataProvider = "formatProvider")
+    public void testModified(String type) {
+        request(type).header("If-None-Match", "\"other\"").when().get("/openapi").then().statusCode(200)
+                .body("info.title", equalTo("Simple Inventory API"));
+    }
+
+    @RunAsClient
+    @Test
+    public void testEntityTagPerFormat() {
+        String json = entityTag("JSON");
+        callEndpoint("YAML").header("ETag", not(equalTo(json)));
+    }
+
+    /**
+     * Returns the entity tag of the document in the given format, or skips the test if the endpoint returns none.
+     */
+    private String entityTag(String type) {
+        String etag = callEndpoint(type).extract().header("ETag");
+        if (etag == null) {
+            throw new SkipException("The /openapi endpoint does not return an ETag header");
+        }
+        return etag;
+    }
+}
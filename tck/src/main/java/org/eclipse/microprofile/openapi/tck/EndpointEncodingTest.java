@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import io.restassured.response.ValidatableResponse;
+
+/**
+ * This test covers the content negotiation of the /openapi endpoint based on the Accept-Encoding header. It
+ * verifies that the gzip and deflate encoded documents have the same content as the document which is not encoded.
+ * Vendors should support these content codings, but are not required to: the tests of an encoding are skipped if the
+ * endpoint does not use it.
+ */
+public class EndpointEncodingTest extends AppTestBase {
+
+    @Deployment(name = "staticEncoding")
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class, "staticEncoding.war")
+                .addAsManifestResource("simpleapi.yaml", "openapi.yaml");
+    }
+
+    @RunAsClient
+    @Test(dataProvider = "encodingProvider")
+    public void testEncodedDocument(String type, String encoding) {
+        ValidatableResponse vr = encoded(type, encoding);
+        vr.header("Content-Encoding", equalTo(encoding));
+        vr.header("Vary", containsString("Accept-Encoding"));
+        vr.body("info.title", equalTo("Simple Inventory API"));
+        vr.body("paths.'/inventory'.get.operationId", equalTo("searchInventory"));
+    }
+
+    @RunAsClient
+    @Test(dataProvider = "encodingProvider")
+    public void testEncodedEntityTag(String type, String encoding) {
+        encoded(type, encoding);
+        String identity = request(type).header("Accept-Encoding", "identity").when().get("/openapi").then().statusCode(200)
+                .header("Content-Encoding", nullValue()).extract().header("ETag");
+        if (identity == null) {
+            throw new SkipException("The /openapi endpoint does not return an ETag header");
+        }
+        String etag = request(type).header("Accept-Encoding", encoding).when().get("/openapi").then().statusCode(200)
+                .header("ETag", not(equalTo(identity))).extract().header("ETag");
+        request(type).header("Accept-Encoding", encoding).header("If-None-Match", etag).when().get("/openapi").then().statusCode(304);
+    }
+
+    @RunAsClient
+    @Test(dataProvider = "formatProvider")
+    public void testNotAcceptableEncoding(String type) {
+        ValidatableResponse vr = request(type).header("Accept-Encoding", "gzip;q=0, deflate;q=0").when().get("/openapi").then().statusCode(200);
+        vr.header("Content-Encoding", nullValue());
+        vr.body("info.title", equalTo("Simple Inventory API"));
+    }
+
+    /**
+     * Requests the document in the given encoding, and skips the test if the endpoint does not use that encoding.
+     */
+    private ValidatableResponse encoded(String type, String encoding) {
+        ValidatableResponse vr = request(type).header("Accept-Encoding", encoding).when().get("/openapi").then().statusCode(200);
+        if (vr.extract().header("Content-Encoding") == null) {
+            throw new SkipException("The /openapi endpoint does not support the " + encoding + " content coding");
+        }
+        return vr;
+    }
+}
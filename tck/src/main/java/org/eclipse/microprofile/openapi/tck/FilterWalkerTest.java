@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.OASFilter;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.callbacks.Callback;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.FilterWalker;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the FilterWalker class which vendors may use to invoke an OASFilter on a model tree. It verifies
+ * the order in which the filter methods are invoked, that filtered elements are removed or replaced, that a parallel
+ * walk produces the same model tree as a sequential one, without filtering a shared element from several threads at
+ * once, and that elements nested deep in the model tree are reached by a filter which overrides a single method.
+ */
+public class FilterWalkerTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void filterOrderTest() {
+        final List<String> calls = new ArrayList<>();
+        FilterWalker.filter(createModel(), new OASFilter() {
+            @Override
+            public Schema filterSchema(Schema schema) {
+                calls.add("schema");
+                return schema;
+            }
+
+            @Override
+            public Parameter filterParameter(Parameter parameter) {
+                calls.add("parameter");
+                return parameter;
+            }
+
+            @Override
+            public Operation filterOperation(Operation operation) {
+                calls.add("operation");
+                return operation;
+            }
+
+            @Override
+            public PathItem filterPathItem(PathItem pathItem) {
+                calls.add("pathItem");
+                return pathItem;
+            }
+
+            @Override
+            public void filterOpenAPI(OpenAPI openAPI) {
+                calls.add("openAPI");
+            }
+        });
+        assertTrue(calls.indexOf("schema") < calls.indexOf("parameter"), "Descendants must be filtered before their ancestors: " + calls);
+        assertTrue(calls.indexOf("parameter") < calls.indexOf("operation"), "Descendants must be filtered before their ancestors: " + calls);
+        assertTrue(calls.indexOf("operation") < calls.indexOf("pathItem"), "Descendants must be filtered before their ancestors: " + calls);
+        assertEquals(calls.get(calls.size() - 1), "openAPI", "filterOpenAPI must be called last: " + calls);
+    }
+
+    @Test
+    public void filterRemoveTest() {
+        final OpenAPI model = createModel();
+        FilterWalker.filter(model, new RemovingFilter(false));
+        assertFalse(model.getPaths().containsKey("/airports"), "A path item for which the filter returns null must be removed.");
+        assertNull(model.getComponents().getSchemas().get("Removed"), "A schema for which the filter returns null must be removed.");
+        assertTrue(model.getTags().isEmpty(), "A tag for which the filter returns null must be removed.");
+        assertEquals(model.getPaths().get("/flights").getGET().getSummary(), "filtered");
+    }
+
+    @Test
+    public void filterParallelTest() {
+        final OpenAPI sequential = createModel();
+        final OpenAPI parallel = createModel();
+        FilterWalker.filter(sequential, new RemovingFilter(true));
+        FilterWalker.filter(parallel, new RemovingFilter(true), new ForkJoinPool(4));
+        assertEquals(parallel.getComponents().getSchemas().keySet(), sequential.getComponents().getSchemas().keySet());
+        assertEquals(new ArrayList<>(parallel.getPaths().keySet()), new ArrayList<>(sequential.getPaths().keySet()),
+                "A parallel walk must keep the order of the paths.");
+        assertEquals(parallel.getPaths().get("/flights").getGET().getSummary(), "filtered");
+    }
+
+    @Test
+    public void filterSharedTest() {
+        final int count = 32;
+        final Schema shared = OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING).description("");
+        final Paths paths = OASFactory.createObject(Paths.class);
+        for (int i = 0; i < count; ++i) {
+            paths.addPathItem("/shared/" + i, OASFactory.createObject(PathItem.class)
+                    .GET(OASFactory.createObject(Operation.class).addParameter(OASFactory.createObject(Parameter.class).name("id")
+                            .schema(shared))));
+            paths.addPathItem("/independent/" + i, OASFactory.createObject(PathItem.class)
+                    .GET(OASFactory.createObject(Operation.class).addParameter(OASFactory.createObject(Parameter.class).name("id")
+                            .schema(OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING).description("")))));
+        }
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class).paths(paths);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicBoolean concurrent = new AtomicBoolean();
+        FilterWalker.filter(model, new OASFilter() {
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+
+            @Override
+            public Schema filterSchema(Schema schema) {
+                if (schema == shared && active.incrementAndGet() > 1) {
+                    concurrent.set(true);
+                }
+                try {
+                    // Not atomic: concurrent invocations on the shared schema would lose updates.
+                    final String description = schema.getDescription();
+                    Thread.yield();
+                    schema.setDescription(description + "x");
+                }
+                finally {
+                    if (schema == shared) {
+                        active.decrementAndGet();
+                    }
+                }
+                return schema;
+            }
+        }, new ForkJoinPool(4));
+        assertFalse(concurrent.get(), "A schema shared by several path items must not be filtered by several threads at once.");
+        assertEquals(shared.getDescription().length(), count, "The shared schema is expected to be filtered once for each of its uses.");
+        assertEquals(model.getPaths().get("/independent/0").getGET().getParameters().get(0).getSchema().getDescription(), "x");
+    }
+
+    @Test
+    public void filterNestedSchemaTest() {
+        final OpenAPI model = createModel();
+        final List<Schema> schemas = new ArrayList<>();
+        FilterWalker.filter(model, new OASFilter() {
+            @Override
+            public Schema filterSchema(Schema schema) {
+                schemas.add(schema);
+                return schema;
+            }
+        });
+        final Schema nested = model.getPaths().get("/flights").getGET().getCallbacks().get("onChange").get("{$request.body#/url}")
+                .getPOST().getParameters().get(0).getSchema();
+        assertTrue(schemas.contains(nested), "A schema nested in a callback must be filtered.");
+    }
+
+    @Test(expectedExceptions = { NullPointerException.class })
+    public void filterNullTest() {
+        FilterWalker.filter(createModel(), null);
+    }
+
+    private OpenAPI createModel() {
+        final Callback callback = OASFactory.createObject(Callback.class)
+                .addPathItem("{$request.body#/url}", OASFactory.createObject(PathItem.class)
+                        .POST(OASFactory.createObject(Operation.class)
+                                .addParameter(OASFactory.createObject(Parameter.class).name("event")
+                                        .schema(OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING)))));
+        return OASFactory.createObject(OpenAPI.class)
+                .openapi("3.0.0")
+                .addTag(OASFactory.createObject(Tag.class).name("flights"))
+                .paths(OASFactory.createObject(Paths.class)
+                        .addPathItem("/flights", OASFactory.createObject(PathItem.class)
+                                .GET(OASFactory.createObject(Operation.class)
+                                        .operationId("getFlights")
+                                        .addParameter(OASFactory.createObject(Parameter.class).name("airport")
+                                                .schema(OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING)))
+                                        .callbacks(Collections.singletonMap("onChange", callback))))
+                        .addPathItem("/airports", OASFactory.createObject(PathItem.class))
+                        .addPathItem("/bookings", OASFactory.createObject(PathItem.class)
+                                .GET(OASFactory.createObject(Operation.class).operationId("getBookings"))))
+                .components(OASFactory.createObject(Components.class)
+                        .addSchema("Flight", OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT))
+                        .addSchema("Removed", OASFactory.createObject(Schema.class).description("removed")));
+    }
+
+    /**
+     * Removes path items without operations, schemas described as "removed" and all tags.
+     */
+    private static final class RemovingFilter implements OASFilter {
+
+        private final boolean threadSafe;
+
+        RemovingFilter(boolean threadSafe) {
+            this.threadSafe = threadSafe;
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return threadSafe;
+        }
+
+        @Override
+        public PathItem filterPathItem(PathItem pathItem) {
+            return pathItem.readOperations().isEmpty() ? null : pathItem;
+        }
+
+        @Override
+        public Operation filterOperation(Operation operation) {
+            return operation.summary("filtered");
+        }
+
+        @Override
+        public Schema filterSchema(Schema schema) {
+            return "removed".equals(schema.getDescription()) ? null : schema;
+        }
+
+        @Override
+        public Tag filterTag(Tag tag) {
+            return null;
+        }
+    }
+}
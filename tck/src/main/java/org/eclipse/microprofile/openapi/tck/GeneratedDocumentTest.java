@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.OASConfig;
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.GeneratedDocument;
+import org.eclipse.microprofile.openapi.spi.RenderedDocument;
+import org.eclipse.microprofile.openapi.tck.utils.TemporaryFiles;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the GeneratedDocument class, which holds the final OpenAPI document of an application generated
+ * at build time. It verifies that the generated documents are loaded as written, and only as long as the
+ * configuration of the <code>mp.openapi</code> namespace is unchanged, and that the generated files are reproducible.
+ */
+public class GeneratedDocumentTest extends Arquillian {
+
+    private static final String COMMENT = "# Configuration of the generated OpenAPI documents";
+
+    private final TemporaryFiles temporaryFiles = new TemporaryFiles();
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteTemporaryFiles() throws IOException {
+        temporaryFiles.deleteAll();
+    }
+
+    @Test
+    public void loadTest() throws IOException {
+        final Path root = generate(config());
+        final GeneratedDocument document = GeneratedDocument.load(classLoader(root), config());
+        assertNotNull(document, "The generated document is expected to be loaded.");
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            final RenderedDocument rendered = document.get(format);
+            assertEquals(rendered.getMediaType(), format.getMediaType());
+            assertEquals(rendered.getEntityTag(), RenderedDocument.render(createModel(), format).getEntityTag());
+            assertEquals(rendered.toByteArray(), Files.readAllBytes(root.resolve(GeneratedDocument.location(format))));
+        }
+    }
+
+    @Test
+    public void loadOtherConfigTest() throws IOException {
+        final Path root = generate(config());
+        final Map<String, String> config = config();
+        config.put(OASConfig.SCAN_DISABLE, "false");
+        assertNull(GeneratedDocument.load(classLoader(root), config), "A changed configuration is expected to be detected.");
+        config.remove(OASConfig.SCAN_DISABLE);
+        config.remove(OASConfig.SERVERS);
+        assertNull(GeneratedDocument.load(classLoader(root), config), "A removed property is expected to be detected.");
+    }
+
+    @Test
+    public void loadOtherNamespaceTest() throws IOException {
+        final Path root = generate(config());
+        final Map<String, String> config = config();
+        config.put("mp.metrics.tags", "app=airlines");
+        assertNotNull(GeneratedDocument.load(classLoader(root), config),
+                "Properties outside of the mp.openapi namespace are expected to be ignored.");
+    }
+
+    @Test
+    public void reproducibleTest() throws IOException {
+        final Path first = generate(config());
+        final Path second = generate(config());
+        assertEquals(Files.readAllBytes(second.resolve(GeneratedDocument.CONFIG_LOCATION)),
+                Files.readAllBytes(first.resolve(GeneratedDocument.CONFIG_LOCATION)),
+                "The generated files are expected to depend only on the model and the configuration.");
+        for (String line : Files.readAllLines(first.resolve(GeneratedDocument.CONFIG_LOCATION), StandardCharsets.ISO_8859_1)) {
+            assertFalse(line.startsWith("#") && !line.equals(COMMENT), "No date is expected in the configuration file: " + line);
+        }
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            assertEquals(Files.readAllBytes(second.resolve(GeneratedDocument.location(format))),
+                    Files.readAllBytes(first.resolve(GeneratedDocument.location(format))));
+        }
+    }
+
+    @Test
+    public void loadMissingTest() throws IOException {
+        assertNull(GeneratedDocument.load(classLoader(temporaryFiles.createDirectory()), config()));
+    }
+
+    private Map<String, String> config() {
+        final Map<String, String> config = new HashMap<>();
+        config.put(OASConfig.SCAN_DISABLE, "true");
+        config.put(OASConfig.SERVERS, "https://xyz.com/v1");
+        return config;
+    }
+
+    private Path generate(Map<String, String> config) throws IOException {
+        final Path root = temporaryFiles.createDirectory();
+        GeneratedDocument.write(createModel(), config, root);
+        return root;
+    }
+
+    private ClassLoader classLoader(Path root) throws IOException {
+        return new URLClassLoader(new URL[] { root.toUri().toURL() }, null);
+    }
+
+    private OpenAPI createModel() {
+        return OASFactory.createObject(OpenAPI.class)
+                .openapi("3.0.0")
+                .info(OASFactory.createObject(Info.class).title("Airlines").version("1.0.0"));
+    }
+}
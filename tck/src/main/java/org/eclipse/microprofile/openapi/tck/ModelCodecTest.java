@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.security.SecurityScheme;
+import org.eclipse.microprofile.openapi.reader.MyOASModelReaderImpl;
+import org.eclipse.microprofile.openapi.spi.DocumentReader;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.ModelCodec;
+import org.eclipse.microprofile.openapi.spi.OASFactoryResolver;
+import org.eclipse.microprofile.openapi.spi.RenderedDocument;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ModelCodec class, which encodes OpenAPI model trees in a compact binary form. It verifies that
+ * decoding an encoded model tree gives back an identical model tree, including the values of extensions and the
+ * elements shared by several parents, and that invalid input is rejected.
+ */
+public class ModelCodecTest extends Arquillian {
+
+    // The length of the magic number at the beginning of an encoded model tree.
+    private static final int MAGIC_LENGTH = 4;
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        final OpenAPI reader = new MyOASModelReaderImpl().buildModel();
+        verifyRoundTrip(reader);
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("openapi.yaml")) {
+            verifyRoundTrip(DocumentReader.read(in, DocumentWriter.Format.YAML));
+        }
+    }
+
+    @Test
+    public void sizeTest() throws IOException {
+        final OpenAPI model = new MyOASModelReaderImpl().buildModel();
+        final int encoded = encode(model).length;
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            final int length = RenderedDocument.render(model, format).getLength();
+            assertTrue(encoded < length, "The encoded model tree is expected to be smaller than its document: " + encoded + " >= " + length);
+        }
+    }
+
+    @Test
+    public void valuesTest() throws IOException {
+        final Map<Object, Object> owner = new LinkedHashMap<>();
+        owner.put("team", "flights");
+        owner.put(1, Arrays.asList(true, null, 2L, 2.5d, 1.5f, new BigInteger("123456789012345678901234567890")));
+        final Schema schema = OASFactory.createObject(Schema.class).type(Schema.SchemaType.INTEGER)
+                .minimum(new BigDecimal("-1.50")).maximum(new BigDecimal("1E+3")).multipleOf(BigDecimal.ONE)
+                .enumeration(Arrays.<Object> asList("1", 2, null)).example(-42);
+        schema.setAdditionalProperties(Boolean.FALSE);
+        schema.addExtension("x-owner", owner);
+        schema.addExtension("x-methods", Arrays.asList(PathItem.HttpMethod.GET, PathItem.HttpMethod.TRACE));
+        final Parameter parameter = OASFactory.createObject(Parameter.class).name("id").in(Parameter.In.PATH)
+                .style(Parameter.Style.SIMPLE).schema(schema);
+        final SecurityScheme scheme = OASFactory.createObject(SecurityScheme.class).type(SecurityScheme.Type.APIKEY)
+                .in(SecurityScheme.In.HEADER).name("api_key");
+
+        final Parameter parameterCopy = decode(encode(parameter), Parameter.class);
+        assertEquals(parameterCopy.getIn(), Parameter.In.PATH);
+        assertEquals(parameterCopy.getStyle(), Parameter.Style.SIMPLE);
+        final Schema schemaCopy = parameterCopy.getSchema();
+        assertEquals(schemaCopy.getType(), Schema.SchemaType.INTEGER);
+        assertEquals(schemaCopy.getMinimum(), new BigDecimal("-1.50"));
+        assertEquals(schemaCopy.getMinimum().scale(), 2);
+        assertEquals(schemaCopy.getMaximum(), new BigDecimal("1E+3"));
+        assertEquals(schemaCopy.getMultipleOf(), BigDecimal.ONE);
+        assertEquals(schemaCopy.getEnumeration(), Arrays.<Object> asList("1", 2, null));
+        assertEquals(schemaCopy.getExample(), -42);
+        assertEquals(schemaCopy.getAdditionalProperties(), Boolean.FALSE);
+        assertEquals(schemaCopy.getExtensions().get("x-owner"), owner);
+        assertEquals(schemaCopy.getExtensions().get("x-methods"), Arrays.asList(PathItem.HttpMethod.GET, PathItem.HttpMethod.TRACE));
+
+        final SecurityScheme schemeCopy = decode(encode(scheme), SecurityScheme.class);
+        assertEquals(schemeCopy.getType(), SecurityScheme.Type.APIKEY);
+        assertEquals(schemeCopy.getIn(), SecurityScheme.In.HEADER);
+        assertEquals(schemeCopy.getName(), "api_key");
+    }
+
+    @Test
+    public void sharingTest() throws IOException {
+        final Schema airport = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT);
+        airport.addProperty("nearby", airport);
+        final Schema flight = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT)
+                .addProperty("from", airport).addProperty("to", airport);
+        flight.setAdditionalProperties(airport);
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class)
+                .components(OASFactory.createObject(Components.class).addSchema("Flight", flight).addSchema("Airport", airport));
+
+        final OpenAPI copy = decode(encode(model), OpenAPI.class);
+        final Schema flightCopy = copy.getComponents().getSchemas().get("Flight");
+        final Schema airportCopy = copy.getComponents().getSchemas().get("Airport");
+        assertNotSame(airportCopy, airport);
+        assertSame(flightCopy.getProperties().get("from"), airportCopy, "Shared elements are expected to remain shared.");
+        assertSame(flightCopy.getProperties().get("to"), airportCopy);
+        assertSame(flightCopy.getAdditionalProperties(), airportCopy);
+        assertSame(airportCopy.getProperties().get("nearby"), airportCopy, "Cycles are expected to be preserved.");
+    }
+
+    @Test
+    public void snapshotTest() throws IOException {
+        final OpenAPI model = new MyOASModelReaderImpl().buildModel();
+        final byte[] expected = encode(model);
+        assertEquals(encode(OASFactoryResolver.instance().createSnapshot(model)), expected,
+                "A snapshot is expected to be encoded as the model tree it was created from.");
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void invalidMagicTest() throws IOException {
+        ModelCodec.read(new ByteArrayInputStream(RenderedDocument.render(new MyOASModelReaderImpl().buildModel(),
+                DocumentWriter.Format.JSON).toByteArray()));
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void truncatedTest() throws IOException {
+        final byte[] encoded = encode(new MyOASModelReaderImpl().buildModel());
+        ModelCodec.read(new ByteArrayInputStream(Arrays.copyOf(encoded, encoded.length - 1)));
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void typeMismatchTest() throws IOException {
+        decode(encode(OASFactory.createObject(Schema.class)), OpenAPI.class);
+    }
+
+    @Test
+    public void corruptedTest() {
+        final byte[] encoded;
+        try {
+            encoded = encode(new MyOASModelReaderImpl().buildModel());
+        }
+        catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        final Random random = new Random(42);
+        for (int i = 0; i < 2000; ++i) {
+            final byte[] corrupted = encoded.clone();
+            for (int j = 1 + random.nextInt(4); j > 0; --j) {
+                corrupted[MAGIC_LENGTH + random.nextInt(corrupted.length - MAGIC_LENGTH)] = (byte) random.nextInt(256);
+            }
+            try {
+                ModelCodec.read(new ByteArrayInputStream(corrupted), OpenAPI.class);
+            }
+            catch (IOException e) {
+                // expected, unless the corruption happens to give a valid encoding
+            }
+        }
+    }
+
+    @Test(expectedExceptions = { IOException.class })
+    public void hugeLengthTest() throws IOException {
+        final byte[] encoded = encode(OASFactory.createObject(Schema.class).example(new BigInteger("12345678901234567890")));
+        final byte[] header = Arrays.copyOf(encoded, encoded.length + 5);
+        // A big integer of 2^31 - 1 bytes, of which the input holds none.
+        final int tag = indexOf(encoded, new BigInteger("12345678901234567890").toByteArray()) - 2;
+        header[tag + 1] = (byte) 0xFF;
+        header[tag + 2] = (byte) 0xFF;
+        header[tag + 3] = (byte) 0xFF;
+        header[tag + 4] = (byte) 0xFF;
+        header[tag + 5] = (byte) 0x07;
+        ModelCodec.read(new ByteArrayInputStream(Arrays.copyOf(header, tag + 6)));
+    }
+
+    @Test(expectedExceptions = { IllegalArgumentException.class })
+    public void unsupportedValueTest() throws IOException {
+        encode(OASFactory.createObject(Schema.class).example(new Date()));
+    }
+
+    private static void verifyRoundTrip(OpenAPI model) throws IOException {
+        final OpenAPI copy = decode(encode(model), OpenAPI.class);
+        assertNotSame(copy, model);
+        for (DocumentWriter.Format format : DocumentWriter.Format.values()) {
+            assertEquals(RenderedDocument.render(copy, format).toByteArray(), RenderedDocument.render(model, format).toByteArray(),
+                    "The decoded model tree is expected to be identical to the encoded one.");
+        }
+        assertEquals(encode(copy), encode(model), "The decoded model tree is expected to be encoded as the original one.");
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; ++i) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + part.length), part)) {
+                return i;
+            }
+        }
+        throw new AssertionError("Not found");
+    }
+
+    private static byte[] encode(Constructible element) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ModelCodec.write(element, bytes);
+        return bytes.toByteArray();
+    }
+
+    private static <T extends Constructible> T decode(byte[] encoded, Class<T> type) throws IOException {
+        return ModelCodec.read(new ByteArrayInputStream(encoded), type);
+    }
+}
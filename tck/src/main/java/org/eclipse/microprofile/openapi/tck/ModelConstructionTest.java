@@ -34,6 +34,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.eclipse.microprofile.openapi.OASFactory;
 import org.eclipse.microprofile.openapi.models.Components;
@@ -71,6 +72,7 @@ import org.eclipse.microprofile.openapi.models.servers.Server;
 import org.eclipse.microprofile.openapi.models.servers.ServerVariable;
 import org.eclipse.microprofile.openapi.models.servers.ServerVariables;
 import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.OASFactoryResolver;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.testng.Arquillian;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
@@ -551,6 +553,47 @@ public class ModelConstructionTest extends Arquillian {
         processConstructible(Tag.class);
     }
 
+    @Test
+    public void createObjectsTest() {
+        // Check that the OASFactory is able to create a batch of distinct instances of the given Class.
+        final int count = 16;
+        final List<Schema> schemas = OASFactory.createObjects(Schema.class, count);
+        assertNotNull(schemas, "The return value of OASFactory.createObjects() must not be null.");
+        assertEquals(schemas.size(), count, "OASFactory.createObjects() is expected to return the requested number of instances.");
+        for (int i = 0; i < count; ++i) {
+            final Schema s = schemas.get(i);
+            assertTrue(Schema.class.isInstance(s), "The return value of OASFactory.createObjects() is expected to contain instances of: "
+                    + Schema.class.getName());
+            for (int j = 0; j < i; ++j) {
+                assertNotSame(s, schemas.get(j), "OASFactory.createObjects() is expected to create a new object for each entry.");
+            }
+        }
+        assertTrue(OASFactory.createObjects(Parameter.class, 0).isEmpty(), "OASFactory.createObjects() with a count of 0 is expected to be empty.");
+    }
+
+    @Test
+    public void supplierTest() {
+        // Check that the supplier of a class is cached and creates distinct instances of the given Class.
+        final OASFactoryResolver resolver = OASFactoryResolver.instance();
+        for (Class<? extends Constructible> clazz : Arrays.asList(Schema.class, Operation.class, Paths.class, SecurityRequirement.class)) {
+            final Supplier<? extends Constructible> supplier = resolver.getSupplier(clazz);
+            assertNotNull(supplier, "The return value of OASFactoryResolver.getSupplier(" + clazz.getName() + ") must not be null.");
+            assertSame(resolver.getSupplier(clazz), supplier, "The supplier of " + clazz.getName() + " is expected to be cached.");
+            final Constructible o1 = supplier.get();
+            final Constructible o2 = supplier.get();
+            assertTrue(clazz.isInstance(o1), "The supplier is expected to create instances of: " + clazz.getName());
+            assertTrue(clazz.isInstance(o2), "The supplier is expected to create instances of: " + clazz.getName());
+            assertNotSame(o2, o1, "The supplier of " + clazz.getName() + " is expected to create a new object on each invocation.");
+        }
+        try {
+            resolver.getSupplier(null);
+            fail("OASFactoryResolver.getSupplier(null) is expected to throw a NullPointerException.");
+        }
+        catch (NullPointerException e) {
+            // expected
+        }
+    }
+
     private <T extends Constructible> T processConstructible(Class<T> clazz) {
         final T o = createConstructibleInstance(clazz);
         if (o instanceof Extensible && Extensible.class.isAssignableFrom(clazz)) {
@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.models.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.ModelMerger;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ModelMerger class, which merges OpenAPI model trees in place. It verifies the field-level
+ * override of properties, map entries and list elements, and that the elements of the source tree are reused rather
+ * than copied.
+ */
+public class ModelMergerTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void overrideTest() {
+        final OpenAPI target = OASFactory.createObject(OpenAPI.class).openapi("3.0.0")
+                .info(OASFactory.createObject(Info.class).title("Airlines").version("1.0").description("Airline reservations"))
+                .paths(OASFactory.createObject(Paths.class).addPathItem("/bookings", OASFactory.createObject(PathItem.class)
+                        .GET(operation("getBookings", "Retrieve all bookings")).POST(operation("createBooking", "Create a booking"))));
+        target.addExtension("x-owner", "reservations");
+        final OpenAPI source = OASFactory.createObject(OpenAPI.class)
+                .info(OASFactory.createObject(Info.class).title("Airlines API").version("2.0"))
+                .paths(OASFactory.createObject(Paths.class).addPathItem("/bookings", OASFactory.createObject(PathItem.class)
+                        .GET(OASFactory.createObject(Operation.class).summary("List the bookings"))));
+        source.addExtension("x-team", "booking");
+
+        final Info info = target.getInfo();
+        final Operation get = target.getPaths().get("/bookings").getGET();
+        assertSame(ModelMerger.merge(target, source), target);
+
+        assertSame(target.getInfo(), info, "Elements of the same type are expected to be merged in place.");
+        assertEquals(info.getTitle(), "Airlines API");
+        assertEquals(info.getVersion(), "2.0");
+        assertEquals(info.getDescription(), "Airline reservations", "Properties which are null in the source are expected to be kept.");
+        assertEquals(target.getOpenapi(), "3.0.0");
+        assertSame(target.getPaths().get("/bookings").getGET(), get);
+        assertEquals(get.getSummary(), "List the bookings");
+        assertEquals(get.getOperationId(), "getBookings");
+        assertEquals(target.getPaths().get("/bookings").getPOST().getOperationId(), "createBooking");
+        assertEquals(target.getExtensions().get("x-owner"), "reservations");
+        assertEquals(target.getExtensions().get("x-team"), "booking");
+    }
+
+    @Test
+    public void noConflictTest() {
+        final OpenAPI target = OASFactory.createObject(OpenAPI.class)
+                .paths(OASFactory.createObject(Paths.class).addPathItem("/bookings", OASFactory.createObject(PathItem.class)
+                        .GET(operation("getBookings", null))));
+        final PathItem reviews = OASFactory.createObject(PathItem.class).GET(operation("getReviews", null));
+        final Schema booking = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT);
+        final OpenAPI source = OASFactory.createObject(OpenAPI.class)
+                .paths(OASFactory.createObject(Paths.class).addPathItem("/reviews", reviews))
+                .components(OASFactory.createObject(Components.class).addSchema("Booking", booking));
+
+        final Paths paths = target.getPaths();
+        ModelMerger.merge(target, source);
+
+        assertSame(target.getPaths(), paths);
+        assertEquals(paths.keySet(), new HashSet<>(Arrays.asList("/bookings", "/reviews")));
+        assertSame(paths.get("/reviews"), reviews, "Elements absent from the target are expected to be reused, not copied.");
+        assertSame(target.getComponents(), source.getComponents());
+        assertSame(target.getComponents().getSchemas().get("Booking"), booking);
+    }
+
+    @Test
+    public void listTest() {
+        final OpenAPI target = OASFactory.createObject(OpenAPI.class)
+                .addTag(OASFactory.createObject(Tag.class).name("Bookings").description("All the bookings"))
+                .addServer(OASFactory.createObject(Server.class).url("https://example.com").description("Production"))
+                .addSecurityRequirement(OASFactory.createObject(SecurityRequirement.class).addScheme("airlinesRatingApp_auth"));
+        final Operation getBookings = operation("getBookings", null)
+                .addParameter(OASFactory.createObject(Parameter.class).name("id").in(Parameter.In.PATH).required(true))
+                .addParameter(OASFactory.createObject(Parameter.class).name("id").in(Parameter.In.QUERY));
+        target.paths(OASFactory.createObject(Paths.class).addPathItem("/bookings", OASFactory.createObject(PathItem.class).GET(getBookings)));
+
+        final OpenAPI source = OASFactory.createObject(OpenAPI.class)
+                .addTag(OASFactory.createObject(Tag.class).name("Bookings").description("Booking operations"))
+                .addTag(OASFactory.createObject(Tag.class).name("Reviews"))
+                .addServer(OASFactory.createObject(Server.class).url("https://example.com"))
+                .addServer(OASFactory.createObject(Server.class).url("https://test.example.com"))
+                .addSecurityRequirement(OASFactory.createObject(SecurityRequirement.class).addScheme("airlinesRatingApp_auth"));
+        source.paths(OASFactory.createObject(Paths.class).addPathItem("/bookings", OASFactory.createObject(PathItem.class)
+                .GET(OASFactory.createObject(Operation.class)
+                        .addParameter(OASFactory.createObject(Parameter.class).name("id").in(Parameter.In.PATH).description("The booking id"))
+                        .addParameter(OASFactory.createObject(Parameter.class).name("limit").in(Parameter.In.QUERY)))));
+
+        ModelMerger.merge(target, source);
+
+        assertEquals(target.getTags().size(), 2);
+        assertEquals(target.getTags().get(0).getDescription(), "Booking operations", "Tags with the same name are expected to be merged.");
+        assertEquals(target.getTags().get(1).getName(), "Reviews");
+        assertEquals(target.getServers().size(), 2);
+        assertEquals(target.getServers().get(0).getDescription(), "Production", "Servers with the same URL are expected to be merged.");
+        assertEquals(target.getSecurity().size(), 1, "Equal security requirements are not expected to be duplicated.");
+        assertEquals(getBookings.getParameters().size(), 3);
+        assertEquals(getBookings.getParameters().get(0).getDescription(), "The booking id");
+        assertEquals(getBookings.getParameters().get(0).getRequired(), Boolean.TRUE);
+        assertNull(getBookings.getParameters().get(1).getDescription(), "Parameters in another location are expected to be distinct.");
+        assertEquals(getBookings.getParameters().get(2).getName(), "limit");
+    }
+
+    @Test
+    public void referenceTest() {
+        final Schema inline = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT).description("A booking");
+        final OpenAPI target = OASFactory.createObject(OpenAPI.class)
+                .components(OASFactory.createObject(Components.class).addSchema("Booking", inline).addSchema("Flight",
+                        OASFactory.createObject(Schema.class).ref("#/components/schemas/Airport")));
+        final Schema ref = OASFactory.createObject(Schema.class).ref("#/components/schemas/Reservation");
+        final Schema flight = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT);
+        final OpenAPI source = OASFactory.createObject(OpenAPI.class)
+                .components(OASFactory.createObject(Components.class).addSchema("Booking", ref).addSchema("Flight", flight));
+
+        ModelMerger.merge(target, source);
+
+        assertSame(target.getComponents().getSchemas().get("Booking"), ref, "A reference is expected to replace the element.");
+        assertSame(target.getComponents().getSchemas().get("Flight"), flight, "A reference is expected to be replaced.");
+        assertNull(inline.getRef(), "A replaced element is not expected to change.");
+    }
+
+    @Test
+    public void stagesTest() {
+        final OpenAPI reader = OASFactory.createObject(OpenAPI.class).info(OASFactory.createObject(Info.class).title("Reader"));
+        final OpenAPI file = OASFactory.createObject(OpenAPI.class).info(OASFactory.createObject(Info.class).title("File").version("1.0"));
+        final OpenAPI annotations = OASFactory.createObject(OpenAPI.class).info(OASFactory.createObject(Info.class).title("Annotations"));
+
+        assertSame(ModelMerger.merge(Arrays.asList(null, reader, null, file, annotations)), reader);
+        assertEquals(reader.getInfo().getTitle(), "Annotations", "Later stages are expected to override earlier ones.");
+        assertEquals(reader.getInfo().getVersion(), "1.0");
+        assertNull(ModelMerger.merge(Arrays.<OpenAPI>asList(null, null)));
+    }
+
+    @Test
+    public void unmodifiableTest() {
+        final Schema target = OASFactory.createObject(Schema.class).required(Collections.unmodifiableList(Arrays.asList("id")));
+        target.setAdditionalProperties(Boolean.FALSE);
+        target.setExtensions(Collections.<String, Object> singletonMap("x-table", "bookings"));
+        final Schema source = OASFactory.createObject(Schema.class).required(Arrays.asList("id", "flight"));
+        source.setAdditionalProperties(OASFactory.createObject(Schema.class));
+        source.addExtension("x-version", 2);
+
+        ModelMerger.merge(target, source);
+
+        assertSame(target.getAdditionalProperties(), source.getAdditionalProperties());
+        assertEquals(target.getRequired(), Arrays.asList("id", "flight"));
+        assertEquals(target.getExtensions().get("x-table"), "bookings");
+        assertEquals(target.getExtensions().get("x-version"), 2);
+    }
+
+    @Test
+    public void responsesTest() {
+        final APIResponse ok = OASFactory.createObject(APIResponse.class).description("Bookings retrieved");
+        final Operation target = operation("getBookings", null).responses(OASFactory.createObject(APIResponses.class).addApiResponse("200", ok));
+        final Operation source = OASFactory.createObject(Operation.class).responses(OASFactory.createObject(APIResponses.class)
+                .addApiResponse("200", OASFactory.createObject(APIResponse.class).description("Bookings found"))
+                .addApiResponse("404", OASFactory.createObject(APIResponse.class).description("No bookings found")));
+
+        ModelMerger.merge(target, source);
+
+        assertEquals(target.getResponses().size(), 2);
+        assertSame(target.getResponses().get("200"), ok);
+        assertEquals(ok.getDescription(), "Bookings found");
+        assertEquals(target.getResponses().get("404").getDescription(), "No bookings found");
+    }
+
+    private static Operation operation(String operationId, String summary) {
+        return OASFactory.createObject(Operation.class).operationId(operationId).summary(summary);
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.eclipse.microprofile.openapi.OASConfig;
+import org.eclipse.microprofile.openapi.OASModelReader;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.reader.MyOASModelReaderImpl;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.ModelReaderCache;
+import org.eclipse.microprofile.openapi.spi.RenderedDocument;
+import org.eclipse.microprofile.openapi.tck.utils.TemporaryFiles;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ModelReaderCache class, which persists the model trees built by the model readers declaring a
+ * cache key. It verifies that a stored model tree is reloaded instead of being built again, identical to the model tree
+ * built, and only as long as the cache key and the configuration are unchanged.
+ */
+public class ModelReaderCacheTest extends Arquillian {
+
+    private final TemporaryFiles temporaryFiles = new TemporaryFiles();
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteTemporaryFiles() throws IOException {
+        temporaryFiles.deleteAll();
+    }
+
+    @Test
+    public void reloadTest() throws IOException {
+        final Path directory = temporaryFiles.createDirectory().resolve("cache");
+        final CountingReader reader = new CountingReader("catalog-1");
+        final OpenAPI built = new ModelReaderCache(directory).buildModel(reader, config());
+        assertEquals(reader.calls, 1);
+        final byte[] expected = RenderedDocument.render(built, DocumentWriter.Format.JSON).toByteArray();
+        assertSame(built, reader.model, "The model tree built by the model reader is expected to be returned as is.");
+
+        final OpenAPI reloaded = new ModelReaderCache(directory).buildModel(reader, config());
+        assertEquals(reader.calls, 1, "A stored model tree is expected to be reloaded without calling the model reader.");
+        assertNotSame(reloaded, built);
+        assertEquals(RenderedDocument.render(reloaded, DocumentWriter.Format.JSON).toByteArray(), expected,
+                "The reloaded model tree is expected to be identical to the model tree built.");
+        assertEquals(reloaded.getInfo().getTitle(), built.getInfo().getTitle());
+        assertEquals(reloaded.getPaths().keySet(), built.getPaths().keySet());
+    }
+
+    @Test
+    public void invalidationTest() throws IOException {
+        final Path directory = temporaryFiles.createDirectory();
+        final ModelReaderCache cache = new ModelReaderCache(directory);
+        final CountingReader reader = new CountingReader("catalog-1");
+        cache.buildModel(reader, config());
+        cache.buildModel(reader, config());
+        assertEquals(reader.calls, 1);
+
+        reader.key = "catalog-2";
+        cache.buildModel(reader, config());
+        assertEquals(reader.calls, 2, "A changed cache key is expected to build the model tree again.");
+
+        final Map<String, String> config = config();
+        config.put(OASConfig.SERVERS, "https://test.example.com");
+        cache.buildModel(reader, config);
+        assertEquals(reader.calls, 3, "A changed configuration is expected to build the model tree again.");
+
+        config.put("mp.metrics.tags", "app=airlines");
+        cache.buildModel(reader, config);
+        assertEquals(reader.calls, 3, "Properties outside of the mp.openapi namespace are expected to be ignored.");
+    }
+
+    @Test
+    public void noKeyTest() throws IOException {
+        final Path directory = temporaryFiles.createDirectory();
+        final ModelReaderCache cache = new ModelReaderCache(directory);
+        final CountingReader reader = new CountingReader(null);
+        cache.buildModel(reader, config());
+        cache.buildModel(reader, config());
+        assertEquals(reader.calls, 2, "A model reader without a cache key is expected to be called every time.");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent(), "A model tree without a cache key is not expected to be stored.");
+        }
+    }
+
+    @Test
+    public void damagedTest() throws IOException {
+        final Path directory = temporaryFiles.createDirectory();
+        final ModelReaderCache cache = new ModelReaderCache(directory);
+        final CountingReader reader = new CountingReader("catalog-1");
+        cache.buildModel(reader, config());
+        final Path file = directory.resolve(CountingReader.class.getName() + ModelReaderCache.EXTENSION);
+        final byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length / 2));
+
+        final OpenAPI model = cache.buildModel(reader, config());
+        assertEquals(reader.calls, 2, "A damaged file is expected to be ignored.");
+        assertSame(model, reader.model);
+        assertEquals(Files.readAllBytes(file), content, "A damaged file is expected to be replaced.");
+    }
+
+    @Test
+    public void storeFailureTest() throws IOException {
+        // A regular file where the cache directory is expected makes every store fail.
+        final Path directory = temporaryFiles.createFile(".cache");
+        final ModelReaderCache cache = new ModelReaderCache(directory);
+        final CountingReader reader = new CountingReader("catalog-1");
+        assertSame(cache.buildModel(reader, config()), reader.model, "A model tree which cannot be stored is expected to be returned.");
+        assertSame(cache.buildModel(reader, config()), reader.model);
+        assertEquals(reader.calls, 2);
+    }
+
+    private static Map<String, String> config() {
+        final Map<String, String> config = new HashMap<>();
+        config.put(OASConfig.MODEL_READER, CountingReader.class.getName());
+        return config;
+    }
+
+    /**
+     * A model reader building the model tree of the TCK model reader, and counting its calls.
+     */
+    public static class CountingReader implements OASModelReader {
+
+        private String key;
+        private int calls;
+        private OpenAPI model;
+
+        CountingReader(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public OpenAPI buildModel() {
+            ++calls;
+            model = new MyOASModelReaderImpl().buildModel();
+            return model;
+        }
+
+        @Override
+        public String getCacheKey() {
+            return key;
+        }
+    }
+}
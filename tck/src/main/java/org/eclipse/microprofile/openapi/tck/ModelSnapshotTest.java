@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.OASFactoryResolver;
+import org.eclipse.microprofile.openapi.spi.StringPool;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers read-only snapshots of the OpenAPI model. It verifies that a snapshot holds the same
+ * values as the original model tree, that it is not affected by later changes to that tree, that it
+ * cannot be modified and that its strings are deduplicated.
+ */
+public class ModelSnapshotTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void snapshotContentTest() {
+        final OpenAPI snapshot = OASFactoryResolver.instance().createSnapshot(createModel());
+
+        assertEquals(snapshot.getOpenapi(), "3.0.0");
+        assertEquals(snapshot.getInfo().getTitle(), "Airlines");
+        assertEquals(snapshot.getTags().size(), 1);
+        assertEquals(snapshot.getTags().get(0).getName(), "flights");
+        assertEquals(snapshot.getPaths().size(), 2);
+        final Operation get = snapshot.getPaths().get("/flights").getGET();
+        assertNotNull(get, "The snapshot is expected to contain the GET operation of /flights.");
+        assertEquals(get.getOperationId(), "getFlights");
+        assertEquals(get.getResponses().get("200").getDescription(), "OK");
+        assertEquals(get.getResponses().getDefault().getDescription(), "Error");
+        assertEquals(snapshot.getPaths().get("/flights").readOperations().size(), 1);
+        assertEquals(snapshot.getComponents().getSchemas().get("Flight").getType(), Schema.SchemaType.OBJECT);
+        assertEquals(snapshot.getExtensions().get("x-version"), "1");
+    }
+
+    @Test
+    public void snapshotSharingTest() {
+        final Schema id = OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING);
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class).components(OASFactory.createObject(Components.class)
+                .addSchema("Id", id).addSchema("Key", id));
+        final OpenAPI snapshot = OASFactoryResolver.instance().createSnapshot(model);
+        assertSame(snapshot.getComponents().getSchemas().get("Id"), snapshot.getComponents().getSchemas().get("Key"),
+                "An element shared in the original model tree is expected to be shared in the snapshot.");
+    }
+
+    @Test
+    public void snapshotStringPoolTest() {
+        final Schema s1 = OASFactory.createObject(Schema.class).type(Schema.SchemaType.INTEGER).format(new String("int64"));
+        final Schema s2 = OASFactory.createObject(Schema.class).type(Schema.SchemaType.INTEGER).format(new String("int64"));
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class).components(OASFactory.createObject(Components.class)
+                .addSchema("Id", s1).addSchema("Count", s2)
+                .addResponse("A", OASFactory.createObject(APIResponse.class).content(OASFactory.createObject(Content.class)
+                        .addMediaType(new String("application/json"), OASFactory.createObject(MediaType.class))))
+                .addResponse("B", OASFactory.createObject(APIResponse.class).content(OASFactory.createObject(Content.class)
+                        .addMediaType(new String("application/json"), OASFactory.createObject(MediaType.class)))));
+        final StringPool strings = new StringPool();
+        final String format = strings.canonicalize(new String("int64"));
+        final OpenAPI snapshot = OASFactoryResolver.instance().createSnapshot(model, strings);
+
+        final Components c = snapshot.getComponents();
+        assertSame(c.getSchemas().get("Id").getFormat(), format, "Strings of the snapshot are expected to be taken from the pool.");
+        assertSame(c.getSchemas().get("Count").getFormat(), format, "Strings of the snapshot are expected to be taken from the pool.");
+        final String key1 = c.getResponses().get("A").getContent().keySet().iterator().next();
+        final String key2 = c.getResponses().get("B").getContent().keySet().iterator().next();
+        assertEquals(key1, "application/json");
+        assertSame(key1, key2, "Equal map keys of the snapshot are expected to be the same instance.");
+    }
+
+    @Test
+    public void snapshotIsolationTest() {
+        final OpenAPI model = createModel();
+        final OpenAPI snapshot = OASFactoryResolver.instance().createSnapshot(model);
+        model.getInfo().setTitle("Changed");
+        model.getPaths().remove("/flights");
+        model.setComponents(null);
+        assertEquals(snapshot.getInfo().getTitle(), "Airlines");
+        assertTrue(snapshot.getPaths().containsKey("/flights"), "The snapshot must not reflect changes to the original model tree.");
+        assertNotNull(snapshot.getComponents(), "The snapshot must not reflect changes to the original model tree.");
+    }
+
+    @Test
+    public void snapshotNullTest() {
+        assertNull(OASFactoryResolver.instance().createSnapshot(null));
+    }
+
+    @Test
+    public void snapshotDepthTest() {
+        final int depth = 100000;
+        final Schema root = OASFactory.createObject(Schema.class);
+        Schema schema = root;
+        for (int i = 0; i < depth; ++i) {
+            final Schema items = OASFactory.createObject(Schema.class).type(Schema.SchemaType.ARRAY);
+            schema.setItems(items);
+            schema = items;
+        }
+        final OpenAPI snapshot = OASFactoryResolver.instance().createSnapshot(OASFactory.createObject(OpenAPI.class)
+                .components(OASFactory.createObject(Components.class).addSchema("Deep", root)));
+        int count = 0;
+        for (Schema s = snapshot.getComponents().getSchemas().get("Deep").getItems(); s != null; s = s.getItems()) {
+            assertEquals(s.getType(), Schema.SchemaType.ARRAY);
+            ++count;
+        }
+        assertEquals(count, depth, "A deep model tree is expected to be copied entirely.");
+    }
+
+    @Test(expectedExceptions = { UnsupportedOperationException.class })
+    public void snapshotSetterTest() {
+        OASFactoryResolver.instance().createSnapshot(createModel()).getInfo().setTitle("Changed");
+    }
+
+    @Test(expectedExceptions = { UnsupportedOperationException.class })
+    public void snapshotBuilderTest() {
+        OASFactoryResolver.instance().createSnapshot(createModel()).openapi("3.0.1");
+    }
+
+    @Test(expectedExceptions = { UnsupportedOperationException.class })
+    public void snapshotExtensionTest() {
+        OASFactoryResolver.instance().createSnapshot(createModel()).addExtension("x-other", "2");
+    }
+
+    @Test(expectedExceptions = { UnsupportedOperationException.class })
+    public void snapshotMapTest() {
+        OASFactoryResolver.instance().createSnapshot(createModel()).getPaths().remove("/flights");
+    }
+
+    @Test(expectedExceptions = { UnsupportedOperationException.class })
+    public void snapshotPropertyMapTest() {
+        OASFactoryResolver.instance().createSnapshot(createModel()).getComponents().getSchemas().clear();
+    }
+
+    @Test(expectedExceptions = { UnsupportedOperationException.class })
+    public void snapshotListTest() {
+        OASFactoryResolver.instance().createSnapshot(createModel()).getTags().add(OASFactory.createObject(Tag.class));
+    }
+
+    private OpenAPI createModel() {
+        final OpenAPI model = OASFactory.createObject(OpenAPI.class)
+                .openapi("3.0.0")
+                .info(OASFactory.createObject(Info.class).title("Airlines").version("1.0.0"))
+                .addTag(OASFactory.createObject(Tag.class).name("flights"))
+                .paths(OASFactory.createObject(Paths.class)
+                        .addPathItem("/flights", OASFactory.createObject(PathItem.class)
+                                .GET(OASFactory.createObject(Operation.class)
+                                        .operationId("getFlights")
+                                        .responses(OASFactory.createObject(APIResponses.class)
+                                                .addApiResponse("200", OASFactory.createObject(APIResponse.class).description("OK"))
+                                                .defaultValue(OASFactory.createObject(APIResponse.class).description("Error")))))
+                        .addPathItem("/airports", OASFactory.createObject(PathItem.class)))
+                .components(OASFactory.createObject(Components.class)
+                        .addSchema("Flight", OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT)));
+        model.addExtension("x-version", "1");
+        return model;
+    }
+}
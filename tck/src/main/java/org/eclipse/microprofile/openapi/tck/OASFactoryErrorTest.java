@@ -16,6 +16,7 @@
 
 package org.eclipse.microprofile.openapi.tck;
 
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.microprofile.openapi.OASFactory;
@@ -74,6 +75,24 @@ public class OASFactoryErrorTest extends Arquillian {
         final Object o = OASFactory.createObject(null);
     }
 
+    @Test(expectedExceptions = { NullPointerException.class })
+    public void nullValueBatchTest() {
+        @SuppressWarnings("unused")
+        final Object o = OASFactory.createObjects(null, 1);
+    }
+
+    @Test(expectedExceptions = { IllegalArgumentException.class })
+    public void negativeCountTest() {
+        @SuppressWarnings("unused")
+        final List<License> l = OASFactory.createObjects(License.class, -1);
+    }
+
+    @Test(expectedExceptions = { IllegalArgumentException.class })
+    public void baseInterfaceBatchTest() {
+        @SuppressWarnings("unused")
+        final List<Constructible> l = OASFactory.createObjects(Constructible.class, 1);
+    }
+
     @Test(expectedExceptions = { IllegalArgumentException.class })
     public void baseInterfaceTest() {
         @SuppressWarnings("unused")
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.ParallelScanner;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ParallelScanner class, which scans the classes of an application one at a time and merges the
+ * resulting fragments of the model. It verifies that the fragments are merged in the order of the class names, with
+ * later fragments overriding earlier ones, and that a parallel scan produces the same model tree as a sequential one.
+ */
+public class ParallelScannerTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void scanOrderTest() {
+        final OpenAPI model = ParallelScanner.scan(Arrays.asList("app.Users", "app.Bookings", "app.Flights"), c -> true, this::fragment);
+        final List<String> tags = new ArrayList<>();
+        for (Tag tag : model.getTags()) {
+            tags.add(tag.getName());
+        }
+        assertEquals(tags, Arrays.asList("app.Bookings", "app.Flights", "app.Users"));
+        assertEquals(new ArrayList<>(model.getPaths().keySet()), Arrays.asList("/app.Bookings", "/shared", "/app.Flights", "/app.Users"));
+    }
+
+    @Test
+    public void scanOverrideTest() {
+        final OpenAPI model = ParallelScanner.scan(Arrays.asList("app.Users", "app.Bookings"), c -> true, this::fragment);
+        final PathItem shared = model.getPaths().get("/shared");
+        assertEquals(shared.getGET().getOperationId(), "app.Users",
+                "The operation of the last class in alphabetical order is expected to be kept.");
+        assertEquals(shared.getPOST().getOperationId(), "app.Bookings");
+        assertEquals(shared.getPUT().getOperationId(), "app.Users");
+        assertEquals(model.getComponents().getSchemas().get("Shared").getDescription(), "app.Users");
+        assertEquals(model.getComponents().getSchemas().keySet(), new HashSet<>(Arrays.asList("Shared", "app.Bookings", "app.Users")));
+    }
+
+    @Test
+    public void scanInPlaceTest() {
+        final List<OpenAPI> fragments = Arrays.asList(fragment("app.Bookings"), fragment("app.Users"));
+        final OpenAPI model = ParallelScanner.scan(Arrays.asList("app.Users", "app.Bookings"), c -> true,
+                c -> fragments.get(c.equals("app.Bookings") ? 0 : 1));
+        assertSame(model, fragments.get(0), "The fragments are expected to be merged into the first one.");
+        assertEquals(model.getPaths().get("/shared").getGET().getOperationId(), "app.Users");
+    }
+
+    @Test
+    public void scanListTest() {
+        final OpenAPI model = ParallelScanner.scan(Arrays.asList("app.Users", "app.Bookings"), c -> true,
+                c -> OASFactory.createObject(OpenAPI.class).addTag(OASFactory.createObject(Tag.class).name("shared").description(c)));
+        assertEquals(model.getTags().size(), 1, "Tags of the same name are expected to be merged.");
+        assertEquals(model.getTags().get(0).getDescription(), "app.Users");
+    }
+
+    @Test
+    public void scanFilterTest() {
+        final List<String> scanned = Collections.synchronizedList(new ArrayList<>());
+        final OpenAPI model = ParallelScanner.scan(Arrays.asList("app.Users", "app.internal.Audit"), c -> !c.startsWith("app.internal."),
+                c -> {
+                    scanned.add(c);
+                    return fragment(c);
+                });
+        assertEquals(scanned, Collections.singletonList("app.Users"));
+        assertFalse(model.getPaths().containsKey("/app.internal.Audit"));
+    }
+
+    @Test
+    public void scanEmptyTest() {
+        final OpenAPI model = ParallelScanner.scan(Arrays.asList("app.Users", "app.Bookings"), c -> true, c -> null);
+        assertNull(model.getPaths());
+        assertNull(model.getComponents());
+    }
+
+    @Test
+    public void scanParallelTest() throws IOException {
+        final List<String> classNames = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            classNames.add("app.Resource" + i);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final OpenAPI sequential = ParallelScanner.scan(classNames, c -> true, this::fragment);
+            final OpenAPI parallel = ParallelScanner.scan(classNames, c -> true, this::fragment, pool);
+            assertEquals(write(parallel), write(sequential), "A parallel scan is expected to produce the same model tree.");
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = { NullPointerException.class })
+    public void scanNullTest() {
+        ParallelScanner.scan(Collections.singletonList("app.Users"), null, this::fragment);
+    }
+
+    /**
+     * Creates the fragment of the model defined by a class: an operation on its own path, operations on a shared
+     * path, a tag and schemas.
+     */
+    private OpenAPI fragment(String className) {
+        final PathItem shared = OASFactory.createObject(PathItem.class)
+                .GET(OASFactory.createObject(Operation.class).operationId(className));
+        if (className.compareTo("app.C") < 0) {
+            shared.POST(OASFactory.createObject(Operation.class).operationId(className));
+        }
+        else {
+            shared.PUT(OASFactory.createObject(Operation.class).operationId(className));
+        }
+        return OASFactory.createObject(OpenAPI.class)
+                .addTag(OASFactory.createObject(Tag.class).name(className))
+                .paths(OASFactory.createObject(Paths.class)
+                        .addPathItem("/" + className, OASFactory.createObject(PathItem.class)
+                                .GET(OASFactory.createObject(Operation.class).operationId(className + ".get")))
+                        .addPathItem("/shared", shared))
+                .components(OASFactory.createObject(Components.class)
+                        .addSchema(className, OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT))
+                        .addSchema("Shared", OASFactory.createObject(Schema.class).description(className)));
+    }
+
+    private String write(OpenAPI model) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DocumentWriter.write(model, DocumentWriter.Format.JSON, bytes);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.reader.MyOASModelReaderImpl;
+import org.eclipse.microprofile.openapi.spi.ReferenceResolver;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ReferenceResolver class, which indexes the elements of the Components element to resolve the
+ * references of a model tree. It verifies the resolution of full references and short names, the update of the index
+ * and the detection of dangling references, using the model of the TCK model reader.
+ */
+public class ReferenceResolverTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class).addPackages(true, "org.eclipse.microprofile.openapi.reader");
+    }
+
+    @Test
+    public void resolveTest() {
+        final Components components = new MyOASModelReaderImpl().buildModel().getComponents();
+        final ReferenceResolver resolver = ReferenceResolver.create(components);
+        final Schema airlines = components.getSchemas().get("Airlines");
+        assertSame(resolver.resolve("#/components/schemas/Airlines"), airlines);
+        assertSame(resolver.resolve("#/components/schemas/Airlines", Schema.class), airlines);
+        assertSame(resolver.resolve("Airlines", Schema.class), airlines, "Short names are expected to be resolved.");
+        assertSame(resolver.resolve("departureDate", Parameter.class), components.getParameters().get("departureDate"));
+        assertNull(resolver.resolve("#/components/schemas/Airlines", Parameter.class), "The type of the element is expected to match.");
+        assertNull(resolver.resolve("#/components/schemas/Missing"));
+        assertNull(resolver.resolve("Airlines", APIResponse.class));
+    }
+
+    @Test
+    public void resolveElementTest() {
+        final Components components = new MyOASModelReaderImpl().buildModel().getComponents();
+        final ReferenceResolver resolver = ReferenceResolver.create(components);
+        assertSame(resolver.resolve(components.getSchemas().get("AirlinesRef")), components.getSchemas().get("Airlines"));
+        assertSame(resolver.resolve(components.getSchemas().get("id")), components.getSchemas().get("id"),
+                "An element without a reference is expected to resolve to itself.");
+    }
+
+    @Test
+    public void addTest() {
+        final Components components = OASFactory.createObject(Components.class);
+        final ReferenceResolver resolver = ReferenceResolver.create(components);
+        assertEquals(resolver.size(), 0);
+        final Schema schema = OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING);
+        resolver.add(Schema.class, "a/b~c", schema);
+        assertSame(components.getSchemas().get("a/b~c"), schema, "The element is expected to be added to the Components element.");
+        assertSame(resolver.resolve("#/components/schemas/a~1b~0c"), schema, "Names are expected to be escaped.");
+        assertEquals(resolver.size(), 1);
+
+        components.addResponse("NotFound", OASFactory.createObject(APIResponse.class).description("Not found"));
+        assertNull(resolver.resolve("NotFound", APIResponse.class));
+        resolver.refresh();
+        assertSame(resolver.resolve("NotFound", APIResponse.class), components.getResponses().get("NotFound"));
+    }
+
+    @Test
+    public void danglingReferencesTest() {
+        final OpenAPI model = new MyOASModelReaderImpl().buildModel();
+        final ReferenceResolver resolver = ReferenceResolver.create(model.getComponents());
+        assertEquals(resolver.findDanglingReferences(model), new TreeSet<>(Arrays.asList("#/components.schemas.Booking",
+                "#/components.schemas.Flight", "#/components.schemas.Review")));
+
+        model.getComponents().addSchema("Dangling", OASFactory.createObject(Schema.class).ref("#/components/parameters/departureDate"))
+                .addSchema("External", OASFactory.createObject(Schema.class).ref("http://example.com/schemas.yaml#/Booking"));
+        assertTrue(resolver.findDanglingReferences(model).contains("#/components/parameters/departureDate"),
+                "A reference to an element of another type is expected to be dangling.");
+        assertEquals(resolver.findDanglingReferences(model).size(), 4, "External references are not expected to be checked.");
+    }
+
+    @Test(expectedExceptions = { IllegalArgumentException.class })
+    public void invalidTypeTest() {
+        ReferenceResolver.create(OASFactory.createObject(Components.class)).resolve("Airlines", PathItem.class);
+    }
+}
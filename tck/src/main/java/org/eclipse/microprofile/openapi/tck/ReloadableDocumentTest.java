@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.openapi.OASConfig;
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.OASFilter;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.ReloadableDocument;
+import org.eclipse.microprofile.openapi.spi.RenderedDocument;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ReloadableDocument class, which rebuilds the document of an application when its static file
+ * or its configuration change. It verifies that only the stages whose sources changed run again, and that the
+ * previous document remains published until the new one is complete.
+ */
+public class ReloadableDocumentTest extends Arquillian {
+
+    private final AtomicInteger readerCalls = new AtomicInteger();
+    private final AtomicInteger scanCalls = new AtomicInteger();
+    private final AtomicInteger filterFailures = new AtomicInteger();
+    private final Map<String, String> config = new HashMap<>();
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void staticFileTest() throws IOException {
+        final Path file = Files.createTempDirectory("openapi").resolve("openapi.yaml");
+        write(file, "Airlines", 1);
+        final ReloadableDocument document = document(file);
+
+        assertTrue(document.reload());
+        assertEquals(document.getModel().getInfo().getTitle(), "Airlines");
+        assertEquals(document.getModel().getInfo().getDescription(), "Reader");
+        assertEquals(document.getModel().getPaths().keySet().size(), 2);
+
+        write(file, "Airlines API", 2);
+        assertTrue(document.reload());
+        assertEquals(document.getModel().getInfo().getTitle(), "Airlines API");
+        assertEquals(document.getModel().getInfo().getDescription(), "Reader",
+                "The cached model of the model reader is expected to be merged again.");
+        assertEquals(document.getModel().getPaths().get("/bookings").getGET().getOperationId(), "getAllBookings",
+                "The cached model of the annotations is expected to be merged again.");
+        assertEquals(readerCalls.get(), 1, "A change to the static file is not expected to call the model reader.");
+        assertEquals(scanCalls.get(), 1, "A change to the static file is not expected to scan the annotations.");
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 3000));
+        assertFalse(document.reload(), "An unchanged content is not expected to be merged again.");
+        Files.delete(file);
+        assertTrue(document.reload());
+        assertEquals(document.getModel().getInfo().getTitle(), "Reader");
+    }
+
+    @Test
+    public void configTest() throws IOException {
+        final ReloadableDocument document = document(null);
+        final OpenAPI model = document.getModel();
+        assertNull(model.getServers());
+        assertFalse(document.reload());
+
+        config.put(OASConfig.SERVERS, "https://example.com");
+        config.put("mp.metrics.tags", "app=airlines");
+        assertTrue(document.reload());
+        assertEquals(document.getModel().getServers().get(0).getUrl(), "https://example.com");
+        assertEquals(readerCalls.get(), 1);
+        assertEquals(scanCalls.get(), 1);
+
+        config.put("mp.metrics.tags", "app=reviews");
+        assertFalse(document.reload(), "Properties outside of the mp.openapi namespace are expected to be ignored.");
+
+        config.put(OASConfig.SCAN_EXCLUDE_CLASSES, "org.eclipse.microprofile.openapi.apps.airlines.resources.ReviewResource");
+        assertTrue(document.reload());
+        assertEquals(readerCalls.get(), 1);
+        assertEquals(scanCalls.get(), 2, "A change to the scan properties is expected to scan the annotations again.");
+
+        config.put(OASConfig.MODEL_READER, "org.eclipse.microprofile.openapi.reader.MyOASModelReaderImpl");
+        assertTrue(document.reload());
+        assertEquals(readerCalls.get(), 2, "A change to the model reader property is expected to call the model reader again.");
+        assertEquals(scanCalls.get(), 2);
+        assertNull(model.getServers(), "A published model is not expected to change.");
+    }
+
+    @Test
+    public void failureTest() throws IOException {
+        final Path file = Files.createTempDirectory("openapi").resolve("openapi.yaml");
+        write(file, "Airlines", 1);
+        final ReloadableDocument document = document(file);
+        final RenderedDocument yaml = document.getDocument(DocumentWriter.Format.YAML);
+        assertSame(document.getDocument(DocumentWriter.Format.YAML), yaml, "The document is expected to be rendered once.");
+
+        Files.write(file, "openapi: 3.0.0\ninfo: [\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            document.reload();
+            fail("An invalid static file is expected to be reported.");
+        }
+        catch (IOException e) {
+            // expected
+        }
+        assertSame(document.getDocument(DocumentWriter.Format.YAML), yaml, "The previous document is expected to remain published.");
+
+        write(file, "Airlines API", 2);
+        assertTrue(document.reload());
+        assertNotEquals(document.getDocument(DocumentWriter.Format.YAML).getEntityTag(), yaml.getEntityTag());
+        assertEquals(document.getModel().getInfo().getTitle(), "Airlines API");
+    }
+
+    @Test
+    public void filterFailureTest() throws IOException {
+        final Path file = Files.createTempDirectory("openapi").resolve("openapi.yaml");
+        write(file, "Airlines", 1);
+        final ReloadableDocument document = document(file);
+        assertTrue(document.reload());
+
+        write(file, "Airlines API", 2);
+        filterFailures.set(1);
+        try {
+            document.reload();
+            fail("A failing filter is expected to be reported.");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(document.getModel().getInfo().getTitle(), "Airlines", "The previous document is expected to remain published.");
+        assertTrue(document.reload(), "A change not published because of a failure is expected to be processed by the next reload.");
+        assertEquals(document.getModel().getInfo().getTitle(), "Airlines API");
+    }
+
+    private ReloadableDocument document(Path file) {
+        readerCalls.set(0);
+        scanCalls.set(0);
+        filterFailures.set(0);
+        config.clear();
+        return ReloadableDocument.builder()
+                .modelReader(properties -> {
+                    readerCalls.incrementAndGet();
+                    return OASFactory.createObject(OpenAPI.class).openapi("3.0.0")
+                            .info(OASFactory.createObject(Info.class).title("Reader").description("Reader"));
+                })
+                .staticFile(file)
+                .annotations(properties -> {
+                    scanCalls.incrementAndGet();
+                    return OASFactory.createObject(OpenAPI.class).paths(OASFactory.createObject(Paths.class)
+                            .addPathItem("/bookings", OASFactory.createObject(PathItem.class)
+                                    .GET(OASFactory.createObject(Operation.class).operationId("getAllBookings"))));
+                })
+                .filter(properties -> new OASFilter() {
+                    @Override
+                    public void filterOpenAPI(OpenAPI openAPI) {
+                        if (filterFailures.getAndDecrement() > 0) {
+                            throw new IllegalStateException("Filter failure");
+                        }
+                        if (properties.containsKey(OASConfig.SERVERS)) {
+                            openAPI.addServer(OASFactory.createObject(Server.class).url(properties.get(OASConfig.SERVERS)));
+                        }
+                    }
+                })
+                .config(() -> config)
+                .build();
+    }
+
+    private static void write(Path file, String title, int version) throws IOException {
+        final String content = "openapi: 3.0.0\ninfo:\n  title: " + title + "\n  version: \"" + version + "\"\n"
+                + "paths:\n  /reviews:\n    get:\n      operationId: getAllReviews\n";
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        // Make sure the change is visible on file systems with a coarse modification time.
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000L * version));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.OASConfig;
+import org.eclipse.microprofile.openapi.ScanFilter;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the ScanFilter class, which selects the classes to scan according to the
+ * <code>mp.openapi.scan.*</code> configuration properties. It verifies the precedence of class and package rules,
+ * the matching of sub-packages and nested classes, and the parsing of the comma-separated lists.
+ */
+public class ScanFilterTest extends Arquillian {
+
+    private static final String RESOURCES = "org.eclipse.microprofile.openapi.apps.airlines.resources";
+    private static final String REVIEW_RESOURCE = RESOURCES + ".ReviewResource";
+    private static final String BOOKING_RESOURCE = RESOURCES + ".bookings.BookingResource";
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void noConfigTest() {
+        final ScanFilter filter = ScanFilter.create(new HashMap<String, String>()::get);
+        assertTrue(filter.test(REVIEW_RESOURCE));
+        assertTrue(filter.test("Unnamed"));
+    }
+
+    @Test
+    public void scanPackagesTest() {
+        final ScanFilter filter = filter(OASConfig.SCAN_PACKAGES, RESOURCES + ".bookings");
+        assertTrue(filter.test(BOOKING_RESOURCE));
+        assertTrue(filter.test(RESOURCES + ".bookings.v2.BookingResource"), "Sub-packages are expected to be scanned.");
+        assertFalse(filter.test(REVIEW_RESOURCE));
+        assertFalse(filter.test(RESOURCES + ".bookingsv2.BookingResource"), "Package names are expected to match whole segments.");
+    }
+
+    @Test
+    public void scanClassesTest() {
+        final ScanFilter filter = filter(OASConfig.SCAN_CLASSES, " " + REVIEW_RESOURCE + " ,," + RESOURCES + ".AvailabilityResource");
+        assertTrue(filter.test(REVIEW_RESOURCE));
+        assertTrue(filter.test(REVIEW_RESOURCE + "$Page"), "Nested classes are expected to follow their enclosing class.");
+        assertTrue(filter.test(RESOURCES + ".AvailabilityResource"));
+        assertFalse(filter.test(BOOKING_RESOURCE));
+    }
+
+    @Test
+    public void excludePackagesTest() {
+        final ScanFilter filter = filter(OASConfig.SCAN_EXCLUDE_PACKAGES, RESOURCES + ".bookings");
+        assertFalse(filter.test(BOOKING_RESOURCE));
+        assertTrue(filter.test(REVIEW_RESOURCE));
+    }
+
+    @Test
+    public void excludeClassesTest() {
+        final ScanFilter filter = filter(OASConfig.SCAN_EXCLUDE_CLASSES, REVIEW_RESOURCE);
+        assertFalse(filter.test(REVIEW_RESOURCE));
+        assertFalse(filter.test(REVIEW_RESOURCE + "$Page"));
+        assertTrue(filter.test(BOOKING_RESOURCE));
+    }
+
+    @Test
+    public void precedenceTest() {
+        final Map<String, String> config = new HashMap<>();
+        config.put(OASConfig.SCAN_PACKAGES, RESOURCES + "," + RESOURCES + ".bookings.internal.api");
+        config.put(OASConfig.SCAN_EXCLUDE_PACKAGES, RESOURCES + ".bookings.internal");
+        config.put(OASConfig.SCAN_CLASSES, RESOURCES + ".bookings.internal.Audit");
+        config.put(OASConfig.SCAN_EXCLUDE_CLASSES, REVIEW_RESOURCE);
+        final ScanFilter filter = ScanFilter.create(config::get);
+        assertFalse(filter.test(REVIEW_RESOURCE), "An excluded class is expected to override an included package.");
+        assertTrue(filter.test(BOOKING_RESOURCE));
+        assertFalse(filter.test(RESOURCES + ".bookings.internal.Cache"), "The deepest package is expected to decide.");
+        assertTrue(filter.test(RESOURCES + ".bookings.internal.api.Admin"), "The deepest package is expected to decide.");
+        assertTrue(filter.test(RESOURCES + ".bookings.internal.Audit"), "An included class is expected to override an excluded package.");
+        assertFalse(filter.test("org.eclipse.microprofile.openapi.apps.petstore.resource.PetResource"));
+    }
+
+    @Test
+    public void excludeIncludedPackageTest() {
+        final Map<String, String> config = new HashMap<>();
+        config.put(OASConfig.SCAN_PACKAGES, RESOURCES);
+        config.put(OASConfig.SCAN_EXCLUDE_PACKAGES, RESOURCES);
+        assertFalse(ScanFilter.create(config::get).test(REVIEW_RESOURCE), "Exclusion is expected to win for the same package.");
+    }
+
+    private ScanFilter filter(String property, String value) {
+        final Map<String, String> config = new HashMap<>();
+        config.put(property, value);
+        return ScanFilter.create(config::get);
+    }
+}
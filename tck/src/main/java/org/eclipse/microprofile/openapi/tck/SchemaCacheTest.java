@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.apps.airlines.model.Booking;
+import org.eclipse.microprofile.openapi.apps.airlines.model.Flight;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.spi.SchemaCache;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the SchemaCache class, which memoizes the schemas of the Java types met during a scan. It verifies
+ * that each type is introspected once, that self-referencing types are replaced by references to components, and the
+ * default component names of types.
+ */
+public class SchemaCacheTest extends Arquillian {
+
+    private final Map<Type, AtomicInteger> introspections = new ConcurrentHashMap<>();
+
+    /**
+     * A type which refers to itself.
+     */
+    public static class Node {
+        public Node next;
+        public List<Node> children;
+        public String name;
+    }
+
+    /**
+     * Types which refer to each other.
+     */
+    public static class Customer {
+        public List<Order> orders;
+    }
+
+    public static class Order {
+        public Customer customer;
+        public List<Order> related;
+        public int quantity;
+    }
+
+    /**
+     * A generic type, for component names.
+     */
+    public static class Page<T> {
+        public List<T> items;
+        public Page<Booking> next;
+    }
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class).addPackages(true, "org.eclipse.microprofile.openapi.apps.airlines");
+    }
+
+    @Test
+    public void memoizeTest() {
+        final SchemaCache cache = newCache();
+        final Schema booking = cache.resolve(Booking.class);
+        assertSame(cache.resolve(Booking.class), booking);
+        assertSame(booking.getProperties().get("departtureFlight"), booking.getProperties().get("returningFlight"),
+                "The schema of a type is expected to be shared by all its uses.");
+        assertSame(cache.resolve(Flight.class), booking.getProperties().get("returningFlight"));
+        assertEquals(cache.size(), 5);
+        for (AtomicInteger count : introspections.values()) {
+            assertEquals(count.get(), 1, "Each type is expected to be introspected once.");
+        }
+        assertEquals(cache.getReferencedSchemas(), Collections.emptyMap());
+    }
+
+    @Test
+    public void selfReferenceTest() {
+        final SchemaCache cache = newCache();
+        final Schema node = cache.resolve(Node.class);
+        assertEquals(node.getProperties().get("next").getRef(), "#/components/schemas/Node");
+        assertEquals(node.getProperties().get("children").getItems().getRef(), "#/components/schemas/Node");
+        assertNull(node.getProperties().get("name").getRef());
+        assertEquals(cache.getReferencedSchemas(), Collections.singletonMap("Node", node));
+        assertSame(cache.getReferencedSchemas().get("Node"), node);
+    }
+
+    @Test
+    public void indirectReferenceTest() {
+        final SchemaCache cache = newCache();
+        final Schema customer = cache.resolve(Customer.class);
+        final Schema order = customer.getProperties().get("orders").getItems();
+        assertEquals(order.getProperties().get("customer").getRef(), "#/components/schemas/Customer");
+        assertEquals(order.getProperties().get("related").getRef(), "#/components/schemas/List_Order",
+                "A parameterized type being introspected is expected to be referred to as well.");
+        assertSame(cache.resolve(Order.class), order, "Types are expected to be cached whatever the type they were introspected for.");
+        assertEquals(cache.getReferencedSchemas().keySet(), new TreeSet<>(Arrays.asList("Customer", "List_Order")));
+        assertEquals(introspections.get(Order.class).get(), 1);
+    }
+
+    @Test
+    public void componentNameTest() throws NoSuchFieldException {
+        assertEquals(SchemaCache.componentName(Booking.class), "Booking");
+        assertEquals(SchemaCache.componentName(Booking[].class), "BookingArray");
+        assertEquals(SchemaCache.componentName(Page.class.getField("next").getGenericType()), "Page_Booking");
+        assertEquals(SchemaCache.componentName(Page.class.getField("items").getGenericType()), "List_T");
+    }
+
+    @Test(expectedExceptions = { IllegalStateException.class })
+    public void componentNameConflictTest() {
+        new SchemaCache(this::introspect, type -> "Same").resolve(Customer.class);
+    }
+
+    @Test
+    public void concurrentResolveTest() {
+        final SchemaCache cache = newCache();
+        final Schema[] schemas = IntStream.range(0, 64).parallel().mapToObj(i -> cache.resolve(i % 2 == 0 ? Booking.class : Node.class))
+                .toArray(Schema[]::new);
+        for (int i = 0; i < schemas.length; ++i) {
+            assertSame(schemas[i], cache.resolve(i % 2 == 0 ? Booking.class : Node.class),
+                    "All threads are expected to use the same schema.");
+        }
+        assertEquals(cache.getReferencedSchemas().keySet(), Collections.singleton("Node"));
+    }
+
+    @Test(expectedExceptions = { NullPointerException.class })
+    public void nullIntrospectorTest() {
+        new SchemaCache(null);
+    }
+
+    private SchemaCache newCache() {
+        introspections.clear();
+        return new SchemaCache(this::introspect);
+    }
+
+    /**
+     * Creates the schema of a type from its public fields, resolving the types of the fields through the cache.
+     */
+    private Schema introspect(Type type, SchemaCache cache) {
+        introspections.computeIfAbsent(type, t -> new AtomicInteger()).incrementAndGet();
+        if (type == String.class) {
+            return OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING);
+        }
+        if (type == int.class) {
+            return OASFactory.createObject(Schema.class).type(Schema.SchemaType.INTEGER);
+        }
+        final Class<?> raw = (Class<?>) (type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type);
+        if (raw == List.class) {
+            return OASFactory.createObject(Schema.class).type(Schema.SchemaType.ARRAY)
+                    .items(cache.resolve(((ParameterizedType) type).getActualTypeArguments()[0]));
+        }
+        final Schema schema = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT);
+        for (Field field : raw.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                schema.addProperty(field.getName(), cache.resolve(field.getGenericType()));
+            }
+        }
+        return schema;
+    }
+}
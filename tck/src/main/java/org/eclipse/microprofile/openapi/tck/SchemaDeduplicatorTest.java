@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eclipse.microprofile.openapi.tck;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.spi.DocumentWriter;
+import org.eclipse.microprofile.openapi.spi.SchemaDeduplicator;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+/**
+ * This test covers the SchemaDeduplicator class, which replaces structurally identical schemas by references to the
+ * Components element. It verifies which schemas are replaced, that schemas of the Components element are reused,
+ * that the replacement is enabled by configuration, and the reported savings.
+ */
+public class SchemaDeduplicatorTest extends Arquillian {
+
+    private static final String[] PATHS = { "/bookings", "/flights", "/reviews" };
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class);
+    }
+
+    @Test
+    public void deduplicateTest() throws IOException {
+        final OpenAPI model = model();
+        final int length = write(model).length;
+        final SchemaDeduplicator.Result result = SchemaDeduplicator.deduplicate(model);
+        for (String path : PATHS) {
+            assertEquals(responseSchema(model, path).getRef(), "#/components/schemas/Schema1");
+        }
+        final Schema component = model.getComponents().getSchemas().get("Schema1");
+        assertEquals(component.getProperties().keySet(), new LinkedHashSet<>(Arrays.asList("id", "name")));
+        assertNull(component.getProperties().get("name").getRef(), "Schemas nested in a single added schema are expected to be kept.");
+        assertEquals(result.getComponents(), 1);
+        assertEquals(result.getReferences(), 3L);
+        assertEquals(result.getNodesSaved(), 3L, "Three schemas of three nodes are expected to become one schema and three references.");
+        assertTrue(result.getBytesSaved() > 0);
+        assertTrue(write(model).length < length, "The document is expected to be smaller.");
+    }
+
+    @Test
+    public void existingComponentTest() {
+        final OpenAPI model = model();
+        final Schema pet = booking();
+        model.components(OASFactory.createObject(Components.class).addSchema("Pet", pet));
+        final SchemaDeduplicator.Result result = SchemaDeduplicator.deduplicate(model);
+        for (String path : PATHS) {
+            assertEquals(responseSchema(model, path).getRef(), "#/components/schemas/Pet");
+        }
+        assertEquals(model.getComponents().getSchemas(), Collections.singletonMap("Pet", pet));
+        assertSame(model.getComponents().getSchemas().get("Pet"), pet);
+        assertNull(pet.getRef());
+        assertEquals(result.getComponents(), 0);
+        assertEquals(result.getReferences(), 3L);
+    }
+
+    @Test
+    public void smallSchemaTest() {
+        final OpenAPI model = model();
+        for (String path : PATHS) {
+            model.getPaths().get(path).getGET().addParameter(OASFactory.createObject(Parameter.class).name("q").in(Parameter.In.QUERY)
+                    .schema(OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING)));
+        }
+        SchemaDeduplicator.deduplicate(model);
+        for (String path : PATHS) {
+            assertNull(model.getPaths().get(path).getGET().getParameters().get(0).getSchema().getRef(),
+                    "Schemas smaller than a reference are not expected to be replaced.");
+        }
+        assertEquals(model.getComponents().getSchemas().keySet(), Collections.singleton("Schema1"));
+    }
+
+    @Test
+    public void configTest() {
+        final Map<String, String> config = new HashMap<>();
+        OpenAPI model = model();
+        SchemaDeduplicator.Result result = SchemaDeduplicator.deduplicate(model, config::get);
+        assertEquals(result.getReferences(), 0L);
+        assertNull(model.getComponents(), "The model is not expected to change unless deduplication is enabled.");
+
+        config.put(SchemaDeduplicator.ENABLED, "true");
+        config.put(SchemaDeduplicator.NAME_PREFIX, "Inline");
+        model = model();
+        result = SchemaDeduplicator.deduplicate(model, config::get);
+        assertEquals(result.getReferences(), 3L);
+        assertEquals(model.getComponents().getSchemas().keySet(), Collections.singleton("Inline1"));
+    }
+
+    @Test
+    public void cycleTest() {
+        final OpenAPI model = model();
+        for (String path : PATHS) {
+            final Schema node = OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT).description("A node of a tree");
+            node.addProperty("parent", node);
+            responseSchema(model, path).addProperty("node", node);
+        }
+        final SchemaDeduplicator.Result result = SchemaDeduplicator.deduplicate(model);
+        assertEquals(result.getReferences(), 0L, "Schemas which are part of a cycle are not expected to be replaced.");
+    }
+
+    @Test(expectedExceptions = { IllegalArgumentException.class })
+    public void invalidPrefixTest() {
+        final Map<String, String> config = new HashMap<>();
+        config.put(SchemaDeduplicator.ENABLED, "true");
+        config.put(SchemaDeduplicator.NAME_PREFIX, "#/schemas");
+        SchemaDeduplicator.deduplicate(model(), config::get);
+    }
+
+    /**
+     * Creates a model in which each operation returns a new instance of the same schema.
+     */
+    private OpenAPI model() {
+        final Paths paths = OASFactory.createObject(Paths.class);
+        for (String path : PATHS) {
+            final APIResponse response = OASFactory.createObject(APIResponse.class).description("OK")
+                    .content(OASFactory.createObject(Content.class).addMediaType("application/json",
+                            OASFactory.createObject(MediaType.class).schema(booking())));
+            paths.addPathItem(path, OASFactory.createObject(PathItem.class)
+                    .GET(OASFactory.createObject(Operation.class).responses(OASFactory.createObject(APIResponses.class)
+                            .addApiResponse("200", response))));
+        }
+        return OASFactory.createObject(OpenAPI.class).openapi("3.0.0").paths(paths);
+    }
+
+    private Schema booking() {
+        return OASFactory.createObject(Schema.class).type(Schema.SchemaType.OBJECT)
+                .addProperty("id", OASFactory.createObject(Schema.class).type(Schema.SchemaType.INTEGER).format("int64"))
+                .addProperty("name", OASFactory.createObject(Schema.class).type(Schema.SchemaType.STRING));
+    }
+
+    private Schema responseSchema(OpenAPI model, String path) {
+        return model.getPaths().get(path).getGET().getResponses().get("200").getContent().get("application/json").getSchema();
+    }
+
+    private byte[] write(OpenAPI model) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DocumentWriter.write(model, DocumentWriter.Format.JSON, bytes);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.microprofile.openapi.tck.utils;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The temporary files and directories created by a test, which are deleted, with their content, once the test is
+ * done.
+ */
+public final class TemporaryFiles {
+
+    private static final String PREFIX = "openapi";
+
+    private final List<Path> paths = new ArrayList<>();
+
+    /**
+     * Creates a new empty temporary directory.
+     *
+     * @return the directory
+     * @throws IOException if the directory cannot be created
+     */
+    public Path createDirectory() throws IOException {
+        return add(Files.createTempDirectory(PREFIX));
+    }
+
+    /**
+     * Creates a new empty temporary file.
+     *
+     * @param suffix the suffix of the file name
+     * @return the file
+     * @throws IOException if the file cannot be created
+     */
+    public Path createFile(String suffix) throws IOException {
+        return add(Files.createTempFile(PREFIX, suffix));
+    }
+
+    /**
+     * Deletes the files and directories created so far, with their content.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    public void deleteAll() throws IOException {
+        for (Path path : paths) {
+            if (Files.exists(path)) {
+                Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                        Files.delete(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                        if (e != null) {
+                            throw e;
+                        }
+                        Files.delete(directory);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+        }
+        paths.clear();
+    }
+
+    private Path add(Path path) {
+        paths.add(path);
+        return path;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.eclipse.microprofile.openapi.tck.utils;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -47,6 +48,10 @@ public class YamlToJsonFilter implements OrderedFilter {
 
         try {
             Response response = ctx.next(requestSpec, responseSpec);
+            if (StringUtils.isEmpty(response.getBody().asString())) {
+                // Nothing to convert, e.g. 304 Not Modified
+                return response;
+            }
 
             ObjectMapper yamlReader = new ObjectMapper(new YAMLFactory());
             Object obj = yamlReader.readValue(response.getBody().asString(), Object.class);